@@ -0,0 +1,100 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcExecutor;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+// Time to serve `requests` concurrent findById requests over a pool of 10 connections:
+// one platform thread per request blocking in executeOnNewConnection, vs. AsyncJdbcExecutor
+// running at most 10 units of work at a time and queueing the rest without threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncJdbcExecutorBenchmark {
+
+	private static final String URL = "jdbc:h2:mem:jmh_async;DB_CLOSE_DELAY=-1";
+	private static final int ITEMS = 1_000;
+	
+	@Param({ "1000", "10000" })
+	public int requests;
+	
+	private final ItemRepository itemRepository = new ItemRepository();
+	private JdbcConnectionManager jdbcConnectionManager;
+	private ExecutorService platformThreads;
+	private AsyncJdbcExecutor asyncExecutor;
+	
+	@Setup
+	public void setUp() throws SQLException {
+		jdbcConnectionManager = new JdbcConnectionManager("sa", null, URL, PoolConfig.builder().maxPoolSize(10).build());
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			itemRepository.createTable(connection);
+			for (int i = 0; i < ITEMS; i++) {
+				itemRepository.save(connection, new Item("Item " + i));
+			}
+		}
+		// thread per request, like a servlet container sized for the concurrency
+		platformThreads = Executors.newFixedThreadPool(requests);
+		asyncExecutor = new AsyncJdbcExecutor(jdbcConnectionManager, AsyncJdbcConfig.builder().build());
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		platformThreads.shutdownNow();
+		asyncExecutor.close();
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			itemRepository.dropTable(connection);
+		}
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Benchmark
+	public void platformThreadPerRequest() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(requests);
+		for (int i = 0; i < requests; i++) {
+			int id = i % ITEMS + 1;
+			platformThreads.execute(() -> {
+				jdbcConnectionManager.executeOnNewConnection(connection -> itemRepository.findById(connection, id));
+				done.countDown();
+			});
+		}
+		done.await();
+	}
+	
+	@Benchmark
+	public void asyncExecutor() {
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+		for (int i = 0; i < requests; i++) {
+			int id = i % ITEMS + 1;
+			futures[i] = asyncExecutor.submit(connection -> itemRepository.findById(connection, id));
+		}
+		CompletableFuture.allOf(futures).join();
+	}
+	
+}
@@ -0,0 +1,80 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.aggregation.BidAggregator;
+
+// Aggregating BIDS bids of 1000 users in 3 currencies: boxed maps of running sum, count and max
+// per user and currency vs. the columnar BidAggregator. Both are cleared and refilled every
+// invocation. Scores are per bid, compare gc.alloc.rate.norm for bytes per bid.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BidAggregationBenchmark {
+
+	private static final int BIDS = 10_000;
+	private static final String[] CURRENCIES = { "EUR", "USD", "GBP" };
+	
+	private final List<Bid> bids = new ArrayList<>();
+	private final long[] times = new long[BIDS];
+	private final Map<String, Map<String, Integer>> sums = new HashMap<>();
+	private final Map<String, Map<String, Integer>> counts = new HashMap<>();
+	private final Map<String, Map<String, Integer>> maxes = new HashMap<>();
+	private final BidAggregator aggregator = new BidAggregator();
+	
+	@Setup
+	public void setUp() {
+		LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+		for (int i = 0; i < BIDS; i++) {
+			bids.add(new Bid("user" + (i % 1_000), start.plusSeconds(i), i, CURRENCIES[i % CURRENCIES.length]));
+			times[i] = i * 1_000L;
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BIDS)
+	public Map<String, Map<String, Integer>> boxedMaps() {
+		sums.clear();
+		counts.clear();
+		maxes.clear();
+		for (Bid bid : bids) {
+			sums.computeIfAbsent(bid.getUser(), user -> new HashMap<>()).merge(bid.getCurrency(), bid.getAmount(), Integer::sum);
+			counts.computeIfAbsent(bid.getUser(), user -> new HashMap<>()).merge(bid.getCurrency(), 1, Integer::sum);
+			maxes.computeIfAbsent(bid.getUser(), user -> new HashMap<>()).merge(bid.getCurrency(), bid.getAmount(), Math::max);
+		}
+		return sums;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BIDS)
+	public BidAggregator columnar() {
+		aggregator.clear();
+		for (int i = 0; i < BIDS; i++) {
+			Bid bid = bids.get(i);
+			aggregator.add(bid.getUser(), bid.getCurrency(), bid.getAmount(), times[i]);
+		}
+		return aggregator;
+	}
+	
+}
@@ -0,0 +1,89 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.export.BidExportConfig;
+import com.jdbc.connectionsAndTransactions.export.BidExporter;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+// Exporting the whole bids table with a growing number of parallel chunk readers.
+// The pool holds 8 connections, so throughput should grow with parallelism up to
+// min(cores, 8). Scores are per bid.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BidExportBenchmark {
+
+	private static final String URL = "jdbc:h2:mem:jmh_export;DB_CLOSE_DELAY=-1";
+	private static final int BIDS = 200_000;
+	
+	@Param({ "1", "2", "4", "8" })
+	public int parallelism;
+	
+	private final BidRepository bidRepository = new BidRepository();
+	private final LongAdder sink = new LongAdder();
+	private JdbcConnectionManager jdbcConnectionManager;
+	private BidExporter bidExporter;
+	
+	@Setup
+	public void setUp() throws SQLException {
+		jdbcConnectionManager = new JdbcConnectionManager("sa", null, URL, PoolConfig.builder().maxPoolSize(8).build());
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			bidRepository.createTable(connection);
+			connection.setAutoCommit(false);
+			LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+			List<Bid> bids = new ArrayList<>();
+			for (int i = 0; i < BIDS; i++) {
+				bids.add(new Bid("user" + (i % 100), start.plusSeconds(i), i, "EUR"));
+				if (bids.size() == 10_000) {
+					bidRepository.saveAll(connection, bids);
+					bids.clear();
+				}
+			}
+			connection.commit();
+		}
+		bidExporter = new BidExporter(jdbcConnectionManager, bidRepository,
+				BidExportConfig.builder().chunkSize(10_000).parallelism(parallelism).build());
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			bidRepository.dropTable(connection);
+		}
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BIDS)
+	public long export() throws Exception {
+		return bidExporter.export(chunk -> sink.add(chunk.size()));
+	}
+	
+}
@@ -0,0 +1,89 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+// Inserting BIDS bids in one transaction, one executeUpdate per bid vs. saveAll batches.
+// Scores are per bid.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BidRepositoryBenchmark {
+
+	private static final String URL = "jdbc:h2:mem:jmh_bids;DB_CLOSE_DELAY=-1";
+	private static final int BIDS = 1_000;
+	
+	private final BidRepository bidRepository = new BidRepository();
+	private final List<Bid> bids = new ArrayList<>();
+	private Connection connection;
+	
+	@Setup
+	public void setUp() throws SQLException {
+		connection = new JdbcConnectionManager("sa", null, URL).createConnection();
+		bidRepository.createTable(connection);
+		connection.setAutoCommit(false);
+		for (int i = 0; i < BIDS; i++) {
+			bids.add(new Bid("user" + (i % 100), i, "EUR"));
+		}
+	}
+	
+	// keeps the table from growing over the whole run
+	@Setup(Level.Iteration)
+	public void truncate() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("truncate table bids");
+		}
+		connection.commit();
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		bidRepository.dropTable(connection);
+		connection.close();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BIDS)
+	public int saveOneByOne() throws SQLException {
+		int rows = 0;
+		for (Bid bid : bids) {
+			rows += bidRepository.save(connection, bid);
+		}
+		connection.commit();
+		return rows;
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BIDS)
+	public int[] saveAllBatched() throws SQLException {
+		int[] rows = bidRepository.saveAll(connection, bids);
+		connection.commit();
+		return rows;
+	}
+	
+}
@@ -0,0 +1,61 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+
+// Opening a physical H2 connection per unit of work vs. borrowing one from the pool
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionAcquisitionBenchmark {
+
+	private static final String URL = "jdbc:h2:mem:jmh_connections;DB_CLOSE_DELAY=-1";
+	
+	private JdbcConnectionManager unpooledManager;
+	private JdbcConnectionManager pooledManager;
+	
+	@Setup
+	public void setUp() {
+		unpooledManager = new JdbcConnectionManager("sa", null, URL);
+		pooledManager = new JdbcConnectionManager("sa", null, URL, PoolConfig.builder().build());
+	}
+	
+	@TearDown
+	public void tearDown() {
+		pooledManager.shutdown();
+	}
+	
+	@Benchmark
+	public boolean createConnection() throws SQLException {
+		try (Connection connection = unpooledManager.createConnection()) {
+			return connection.getAutoCommit();
+		}
+	}
+	
+	@Benchmark
+	public boolean borrowPooledConnection() throws SQLException {
+		try (Connection connection = pooledManager.createConnection()) {
+			return connection.getAutoCommit();
+		}
+	}
+	
+}
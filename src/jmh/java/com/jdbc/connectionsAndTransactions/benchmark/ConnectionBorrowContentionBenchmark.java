@@ -0,0 +1,116 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.pool.ConcurrentBag;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.ConcurrentBag.BagEntry;
+
+// Borrow/return throughput of the pool's bag against a synchronized queue, with more threads
+// than the POOL_SIZE connections competing for them. Vary the threads with -t, e.g. -t 1 and -t 128.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ConnectionBorrowContentionBenchmark {
+
+	private static final int POOL_SIZE = 10;
+	
+	@Param({ "SYNCHRONIZED", "CONCURRENT_BAG" })
+	public String pool;
+	
+	private Pool entries;
+	
+	@Setup
+	public void setUp() {
+		entries = pool.equals("SYNCHRONIZED") ? new SynchronizedQueuePool() : new ConcurrentBagPool();
+	}
+	
+	@Benchmark
+	public long borrowAndReturn() throws InterruptedException {
+		Entry entry = entries.borrow();
+		// a short unit of work on the connection
+		long uses = ++entry.uses;
+		entries.requite(entry);
+		return uses;
+	}
+	
+	interface Pool {
+		Entry borrow() throws InterruptedException;
+		void requite(Entry entry);
+	}
+	
+	static class Entry extends BagEntry {
+		long uses;
+		
+		Entry(int state) {
+			super(state);
+		}
+	}
+	
+	static class ConcurrentBagPool implements Pool {
+		private final ConcurrentBag<Entry> bag = new ConcurrentBag<>();
+		
+		ConcurrentBagPool() {
+			for (int i = 0; i < POOL_SIZE; i++) {
+				bag.add(new Entry(BagEntry.STATE_NOT_IN_USE));
+			}
+		}
+		
+		@Override
+		public Entry borrow() throws InterruptedException {
+			Entry entry;
+			while ((entry = bag.borrow(1, TimeUnit.SECONDS)) == null) {
+			}
+			return entry;
+		}
+		
+		@Override
+		public void requite(Entry entry) {
+			bag.requite(entry);
+		}
+	}
+	
+	// the pool's bag before it became lock-free
+	static class SynchronizedQueuePool implements Pool {
+		private final Deque<Entry> idle = new ArrayDeque<>();
+		
+		SynchronizedQueuePool() {
+			for (int i = 0; i < POOL_SIZE; i++) {
+				idle.add(new Entry(BagEntry.STATE_NOT_IN_USE));
+			}
+		}
+		
+		@Override
+		public synchronized Entry borrow() throws InterruptedException {
+			while (idle.isEmpty()) {
+				wait();
+			}
+			return idle.pollFirst();
+		}
+		
+		@Override
+		public synchronized void requite(Entry entry) {
+			idle.offerFirst(entry);
+			notify();
+		}
+	}
+	
+}
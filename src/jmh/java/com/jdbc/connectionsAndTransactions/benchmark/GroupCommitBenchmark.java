@@ -0,0 +1,98 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.groupcommit.GroupCommitConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.groupcommit.GroupCommitCoordinator;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+// Single-bid inserts per second issued by `callers` concurrent threads against a file database:
+// every insert in its own autocommit transaction, vs. GroupCommitCoordinator sharing one
+// commit among all inserts that queued up while the previous commit ran.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+	private static final String URL = "jdbc:h2:./target/jmh_group_commit";
+	private static final int INSERTS = 1_000;
+	
+	@Param({ "1", "16", "64" })
+	public int callers;
+	
+	private final BidRepository bidRepository = new BidRepository();
+	private JdbcConnectionManager jdbcConnectionManager;
+	private ExecutorService callerThreads;
+	private GroupCommitCoordinator coordinator;
+	
+	@Setup
+	public void setUp() throws SQLException {
+		jdbcConnectionManager = new JdbcConnectionManager("sa", null, URL, PoolConfig.builder().minIdle(1).maxPoolSize(callers + 1).build());
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			bidRepository.createTable(connection);
+		}
+		callerThreads = Executors.newFixedThreadPool(callers);
+		coordinator = new GroupCommitCoordinator(jdbcConnectionManager, GroupCommitConfig.builder().build());
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		callerThreads.shutdownNow();
+		coordinator.close();
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			bidRepository.dropTable(connection);
+		}
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(INSERTS)
+	public void autocommitPerInsert() throws InterruptedException {
+		insertConcurrently(bid -> jdbcConnectionManager.executeOnNewConnection(connection -> bidRepository.save(connection, bid)));
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(INSERTS)
+	public void groupCommit() throws InterruptedException {
+		insertConcurrently(bid -> coordinator.submit(connection -> bidRepository.save(connection, bid)).join());
+	}
+	
+	private void insertConcurrently(Consumer<Bid> insert) throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(INSERTS);
+		for (int i = 0; i < INSERTS; i++) {
+			Bid bid = new Bid("user", i, "EUR");
+			callerThreads.execute(() -> {
+				insert.accept(bid);
+				done.countDown();
+			});
+		}
+		done.await();
+	}
+	
+}
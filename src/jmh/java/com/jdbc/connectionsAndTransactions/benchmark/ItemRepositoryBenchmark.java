@@ -0,0 +1,80 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+// ItemRepository lookups and saves on one open connection against a table of ITEMS rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemRepositoryBenchmark {
+
+	private static final String URL = "jdbc:h2:mem:jmh_items;DB_CLOSE_DELAY=-1";
+	private static final int ITEMS = 1_000;
+	
+	private final ItemRepository itemRepository = new ItemRepository();
+	private JdbcConnectionManager jdbcConnectionManager;
+	private Connection connection;
+	private int next;
+	
+	@Setup
+	public void setUp() throws SQLException {
+		jdbcConnectionManager = new JdbcConnectionManager("sa", null, URL);
+		connection = jdbcConnectionManager.createConnection();
+		itemRepository.createTable(connection);
+		for (int i = 0; i < ITEMS; i++) {
+			itemRepository.save(connection, new Item("Item " + i));
+		}
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		itemRepository.dropTable(connection);
+		connection.close();
+	}
+	
+	// updates an existing row, which is a lookup followed by an update
+	@Benchmark
+	public Item save() throws SQLException {
+		int id = nextId();
+		return itemRepository.save(connection, new Item(id, "Item " + (id - 1), LocalDate.now(), null));
+	}
+	
+	@Benchmark
+	public Optional<Item> findById() throws SQLException {
+		return itemRepository.findById(connection, nextId());
+	}
+	
+	@Benchmark
+	public Optional<Item> findByName() throws SQLException {
+		return itemRepository.findByName(connection, "Item " + (nextId() - 1));
+	}
+	
+	private int nextId() {
+		next = next == ITEMS ? 1 : next + 1;
+		return next;
+	}
+	
+}
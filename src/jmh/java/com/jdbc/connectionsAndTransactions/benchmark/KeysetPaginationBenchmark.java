@@ -0,0 +1,162 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+// Reading page N of PAGE_SIZE rows with keyset pagination vs. OFFSET, on tables of `rows` items and bids.
+// Keyset pages should cost the same at any depth, OFFSET pages grow with the number of skipped rows.
+// The tables live in a file database under target/ that is filled once and reused by later forks;
+// H2's reuse of identical query results is turned off so every invocation runs the query.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class KeysetPaginationBenchmark {
+
+	private static final String URL = "jdbc:h2:file:./target/jmh-pagination;OPTIMIZE_REUSE_RESULTS=FALSE";
+	private static final int PAGE_SIZE = 100;
+	private static final int INSERT_CHUNK = 10_000;
+	
+	@Param({ "5000000" })
+	private int rows;
+	
+	@Param({ "0", "1000", "40000" })
+	private int page;
+	
+	private final ItemRepository itemRepository = new ItemRepository();
+	private final BidRepository bidRepository = new BidRepository();
+	private Connection connection;
+	private int afterItemId;
+	private Bid afterBid;
+	
+	@Setup
+	public void setUp() throws SQLException {
+		connection = new JdbcConnectionManager("sa", null, URL).createConnection();
+		if (!isFilled()) {
+			fill();
+		}
+		int offset = page * PAGE_SIZE;
+		// the keys a client would carry over from the previous page
+		afterItemId = page == 0 ? 0 : itemsByOffset(offset - 1, 1).get(0).getId();
+		afterBid = page == 0 ? null : bidsByOffset(offset - 1, 1).get(0);
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		connection.close();
+	}
+	
+	private boolean isFilled() throws SQLException {
+		try (ResultSet resultSet = connection.getMetaData().getTables(null, null, "BIDS", null)) {
+			if (!resultSet.next()) {
+				return false;
+			}
+		}
+		try (PreparedStatement statement = connection.prepareStatement("select count(*) from bids");
+				ResultSet resultSet = statement.executeQuery()) {
+			resultSet.next();
+			return resultSet.getInt(1) == rows;
+		}
+	}
+	
+	private void fill() throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("drop all objects")) {
+			statement.execute();
+		}
+		itemRepository.createTable(connection);
+		bidRepository.createTable(connection);
+		connection.setAutoCommit(false);
+		LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+		for (int inserted = 0; inserted < rows; inserted += INSERT_CHUNK) {
+			List<Item> items = new ArrayList<>(INSERT_CHUNK);
+			List<Bid> bids = new ArrayList<>(INSERT_CHUNK);
+			for (int i = inserted; i < Math.min(rows, inserted + INSERT_CHUNK); i++) {
+				items.add(new Item("Item " + i));
+				bids.add(new Bid("user" + (i % 1000), start.plusSeconds(i / 3), i, "EUR"));
+			}
+			itemRepository.saveAll(connection, items);
+			bidRepository.saveAll(connection, bids);
+			connection.commit();
+		}
+		connection.setAutoCommit(true);
+	}
+	
+	@Benchmark
+	public List<Item> itemsKeyset() throws SQLException {
+		return itemRepository.findPage(connection, afterItemId, PAGE_SIZE);
+	}
+	
+	@Benchmark
+	public List<Item> itemsOffset() throws SQLException {
+		return itemsByOffset(page * PAGE_SIZE, PAGE_SIZE);
+	}
+	
+	@Benchmark
+	public List<Bid> bidsKeyset() throws SQLException {
+		return bidRepository.findPage(connection, afterBid, PAGE_SIZE);
+	}
+	
+	@Benchmark
+	public List<Bid> bidsOffset() throws SQLException {
+		return bidsByOffset(page * PAGE_SIZE, PAGE_SIZE);
+	}
+	
+	private List<Item> itemsByOffset(int offset, int limit) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(
+				"select id, name, release_date from items order by id limit ? offset ?")) {
+			statement.setInt(1, limit);
+			statement.setInt(2, offset);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				List<Item> items = new ArrayList<>(limit);
+				while (resultSet.next()) {
+					items.add(new Item(resultSet.getInt(1), resultSet.getString(2), resultSet.getDate(3).toLocalDate(), null));
+				}
+				return items;
+			}
+		}
+	}
+	
+	private List<Bid> bidsByOffset(int offset, int limit) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(
+				"select id, user, time, amount, currency from bids order by time, id limit ? offset ?")) {
+			statement.setInt(1, limit);
+			statement.setInt(2, offset);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				List<Bid> bids = new ArrayList<>(limit);
+				while (resultSet.next()) {
+					bids.add(new Bid(resultSet.getInt(1), resultSet.getString(2), resultSet.getTimestamp(3).toLocalDateTime(),
+							resultSet.getInt(4), resultSet.getString(5)));
+				}
+				return bids;
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,96 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.retry.OptimisticLockRetryExecutor;
+import com.jdbc.connectionsAndTransactions.jdbc.retry.RetryConfig;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository;
+
+// THREADS threads update the same item (read, think, write). The score is committed updates per
+// second of immediate retries vs. exponential backoff plus jitter, the rate of the attempts counter
+// divided by the score gives the attempts per commit.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Threads(OptimisticLockRetryBenchmark.THREADS)
+@Fork(1)
+public class OptimisticLockRetryBenchmark {
+
+	static final int THREADS = 16;
+	
+	private static final String URL = "jdbc:h2:mem:jmh_retry;DB_CLOSE_DELAY=-1";
+	private static final long THINK_TIME_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	
+	@Param({ "IMMEDIATE", "BACKOFF" })
+	public String retry;
+	
+	private final ItemVersionedRepository itemRepository = new ItemVersionedRepository();
+	private JdbcConnectionManager jdbcConnectionManager;
+	private OptimisticLockRetryExecutor retryExecutor;
+	private int itemId;
+	
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Attempts {
+		public long attempts;
+	}
+	
+	@Setup
+	public void setUp() throws SQLException {
+		jdbcConnectionManager = new JdbcConnectionManager("sa", null, URL,
+				PoolConfig.builder().minIdle(THREADS).maxIdle(THREADS).maxPoolSize(THREADS).build());
+		try (Connection connection = jdbcConnectionManager.openConnection()) {
+			itemRepository.createTable(connection);
+			itemId = itemRepository.save(connection, new Item("Hot Item", 0)).getId();
+		}
+		RetryConfig config = retry.equals("IMMEDIATE")
+				? RetryConfig.builder().maxAttempts(Integer.MAX_VALUE).initialBackoff(Duration.ZERO).build()
+				: RetryConfig.builder().maxAttempts(Integer.MAX_VALUE).initialBackoff(Duration.ofMillis(1)).maxBackoff(Duration.ofMillis(50)).build();
+		retryExecutor = new OptimisticLockRetryExecutor(jdbcConnectionManager, config);
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		try (Connection connection = jdbcConnectionManager.openConnection()) {
+			itemRepository.dropTable(connection);
+		}
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Benchmark
+	public Item update(Attempts attempts) throws SQLException {
+		return retryExecutor.execute("hot", connection -> {
+			attempts.attempts++;
+			Item current = itemRepository.findById(connection, itemId).get();
+			long thinkUntil = System.nanoTime() + THINK_TIME_NANOS;
+			while (System.nanoTime() < thinkUntil) {
+				Thread.onSpinWait();
+			}
+			return itemRepository.save(connection, new Item(current.getId(), current.getName(), current.getReleaseDate(), current.getVersion()));
+		});
+	}
+	
+}
@@ -0,0 +1,96 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+// Reading BIDS bids: columns looked up by name with java.sql conversions, the compiled
+// index based mapper, and the flyweight scan that doesn't create a Bid per row.
+// Scores are per row, compare gc.alloc.rate.norm for bytes per row.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+	private static final String URL = "jdbc:h2:mem:jmh_mapping;DB_CLOSE_DELAY=-1";
+	private static final String SELECT_ALL = "select * from bids where id >= ? and id < ? order by id";
+	private static final int BIDS = 1_000;
+	
+	private final BidRepository bidRepository = new BidRepository();
+	private Connection connection;
+	private long amounts;
+	
+	@Setup
+	public void setUp() throws SQLException {
+		connection = new JdbcConnectionManager("sa", null, URL).createConnection();
+		bidRepository.createTable(connection);
+		List<Bid> bids = new ArrayList<>();
+		LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+		for (int i = 0; i < BIDS; i++) {
+			bids.add(new Bid("user" + (i % 100), start.plusSeconds(i), i, "EUR"));
+		}
+		bidRepository.saveAll(connection, bids);
+	}
+	
+	@TearDown
+	public void tearDown() throws SQLException {
+		bidRepository.dropTable(connection);
+		connection.close();
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BIDS)
+	public List<Bid> mapByName() throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(SELECT_ALL)) {
+			statement.setInt(1, 0);
+			statement.setInt(2, Integer.MAX_VALUE);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				List<Bid> bids = new ArrayList<>();
+				while (resultSet.next()) {
+					bids.add(new Bid(resultSet.getInt("id"), resultSet.getString("user"), resultSet.getTimestamp("time").toLocalDateTime(),
+							resultSet.getInt("amount"), resultSet.getString("currency")));
+				}
+				return bids;
+			}
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BIDS)
+	public List<Bid> mapCompiled() throws SQLException {
+		return bidRepository.findByIdRange(connection, 0, Integer.MAX_VALUE, BIDS);
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BIDS)
+	public long scanFlyweight() throws SQLException {
+		bidRepository.forEachBid(connection, row -> amounts += row.getAmount(), BIDS);
+		return amounts;
+	}
+	
+}
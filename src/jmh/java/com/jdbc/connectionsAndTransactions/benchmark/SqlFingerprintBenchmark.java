@@ -0,0 +1,52 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.jdbc.connectionsAndTransactions.jdbc.proxy.SqlFingerprint;
+
+// SqlFingerprint.of runs for every statement of every proxied connection, so cached lookups
+// must scale with threads. Compare the scores of -t 1 and the default 8 threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class SqlFingerprintBenchmark {
+
+	private static final String[] STATEMENTS = {
+			"select id, name, release_date from items where id = ?",
+			"update items set name = ?, release_date = ? where id = ?",
+			"insert into bids (user, time, amount, currency) values (?, ?, ?, ?)",
+			"select * from bids where id >= ? and id < ? order by id" };
+	
+	@State(Scope.Thread)
+	public static class ThreadState {
+		private int next;
+		private long oneOffs;
+	}
+	
+	@Benchmark
+	public String cachedStatement(ThreadState state) {
+		return SqlFingerprint.of(STATEMENTS[state.next++ & 3]);
+	}
+	
+	// statements with inlined literals, every one is normalized and keeps the cache overflowing
+	@Benchmark
+	public String oneOffStatement(ThreadState state) {
+		return SqlFingerprint.of("select * from items where id = " + state.oneOffs++ + " and thread = " + Thread.currentThread().getId());
+	}
+	
+}
@@ -0,0 +1,130 @@
+package com.jdbc.connectionsAndTransactions.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Cost of the @Transactional proxy for each propagation around the same one-row query.
+// A Hikari pool keeps connection opening out of the numbers.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionalPropagationBenchmark {
+
+	private AnnotationConfigApplicationContext context;
+	private AccountService accountService;
+	
+	@Setup
+	public void setUp() {
+		context = new AnnotationConfigApplicationContext(ContextConfiguration.class);
+		accountService = context.getBean(AccountService.class);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+		jdbcTemplate.execute("create table if not exists accounts (name varchar primary key, balance bigint)");
+		jdbcTemplate.update("merge into accounts values ('User1', 100)");
+	}
+	
+	@TearDown
+	public void tearDown() {
+		new JdbcTemplate(context.getBean(DataSource.class)).execute("drop table accounts");
+		context.close();
+	}
+	
+	@Benchmark
+	public Long withoutTransaction() {
+		return accountService.balance();
+	}
+	
+	@Benchmark
+	public Long required() {
+		return accountService.required();
+	}
+	
+	@Benchmark
+	public Long requiresNewInsideRequired() {
+		return accountService.requiredCalling(Propagation.REQUIRES_NEW);
+	}
+	
+	@Benchmark
+	public Long nestedInsideRequired() {
+		return accountService.requiredCalling(Propagation.NESTED);
+	}
+	
+	static class AccountService {
+		@Autowired
+		private AccountService self;
+		@Autowired
+		private DataSource ds;
+		
+		public Long balance() {
+			return new JdbcTemplate(ds).queryForObject("select balance from accounts where name = ?", Long.class, "User1");
+		}
+		
+		@Transactional(propagation = Propagation.REQUIRED)
+		public Long required() {
+			return balance();
+		}
+		
+		@Transactional(propagation = Propagation.REQUIRED)
+		public Long requiredCalling(Propagation inner) {
+			return inner == Propagation.NESTED ? self.nested() : self.requiresNew();
+		}
+		
+		@Transactional(propagation = Propagation.REQUIRES_NEW)
+		public Long requiresNew() {
+			return balance();
+		}
+		
+		@Transactional(propagation = Propagation.NESTED)
+		public Long nested() {
+			return balance();
+		}
+	}
+	
+	@Configuration
+	@EnableTransactionManagement(proxyTargetClass = true)
+	static class ContextConfiguration {
+		@Bean
+		public AccountService accountService() {
+			return new AccountService();
+		}
+		@Bean(destroyMethod = "close")
+		public DataSource dataSource() {
+			HikariDataSource ds = new HikariDataSource();
+			ds.setJdbcUrl("jdbc:h2:mem:jmh_transactions;DB_CLOSE_DELAY=-1");
+			ds.setUsername("sa");
+			return ds;
+		}
+		@Bean
+		public PlatformTransactionManager txManager() {
+			return new DataSourceTransactionManager(dataSource());
+		}
+	}
+	
+}
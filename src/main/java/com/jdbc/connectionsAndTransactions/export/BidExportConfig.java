@@ -0,0 +1,17 @@
+package com.jdbc.connectionsAndTransactions.export;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class BidExportConfig {
+	// width of the id range read by one query
+	@Builder.Default
+	private final int chunkSize = 10_000;
+	// chunks read at the same time, each on its own connection; keep it at most the pool size
+	@Builder.Default
+	private final int parallelism = Runtime.getRuntime().availableProcessors();
+	@Builder.Default
+	private final int fetchSize = 1_000;
+}
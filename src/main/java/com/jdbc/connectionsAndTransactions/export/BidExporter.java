@@ -0,0 +1,153 @@
+package com.jdbc.connectionsAndTransactions.export;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+// Exports the bids table by splitting [min(id), max(id)] into chunks of chunkSize ids,
+// read in parallel, each on its own connection from the connection manager.
+//
+// Isolation: the id bounds are read once when the export starts, so bids inserted
+// afterwards are not exported. Every chunk is read by a single statement in a read-only
+// REPEATABLE READ transaction and is a consistent snapshot of its id range, but chunks
+// are read at different times: an update or delete committed during the export shows up
+// in the chunks read after it. Stop writers to bids for an export consistent as a whole.
+//
+// When a chunk fails the others are cancelled and export waits for the running ones before it
+// throws, so no connection is held and the sink isn't called anymore once export returned.
+public class BidExporter {
+
+	private final JdbcConnectionManager jdbcConnectionManager;
+	private final BidRepository bidRepository;
+	private final BidExportConfig config;
+	
+	public BidExporter(JdbcConnectionManager jdbcConnectionManager, BidRepository bidRepository, BidExportConfig config) {
+		this.jdbcConnectionManager = jdbcConnectionManager;
+		this.bidRepository = bidRepository;
+		this.config = config;
+	}
+	
+	// Returns the number of exported bids
+	public long export(BidSink sink) throws SQLException, IOException {
+		int[] idRange = readIdRange();
+		if (idRange == null) {
+			return 0;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(config.getParallelism(), new ExportThreadFactory());
+		List<Future<Integer>> chunks = new ArrayList<>();
+		try {
+			for (long fromId = idRange[0]; fromId <= idRange[1]; fromId += config.getChunkSize()) {
+				int from = (int) fromId;
+				int to = (int) Math.min(fromId + config.getChunkSize(), (long) idRange[1] + 1);
+				chunks.add(executor.submit(() -> exportChunk(from, to, sink)));
+			}
+			long exported = 0;
+			for (Future<Integer> chunk : chunks) {
+				exported += await(chunk);
+			}
+			return exported;
+		} finally {
+			for (Future<Integer> chunk : chunks) {
+				chunk.cancel(true);
+			}
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+	}
+	
+	private int exportChunk(int fromId, int toId, BidSink sink) throws SQLException, IOException {
+		List<Bid> bids;
+		try (Connection connection = jdbcConnectionManager.openConnection()) {
+			connection.setReadOnly(true);
+			connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+			connection.setAutoCommit(false);
+			bids = bidRepository.findByIdRange(connection, fromId, toId, config.getFetchSize());
+			connection.commit();
+		}
+		// the connection is back in the pool while the sink writes
+		if (Thread.currentThread().isInterrupted()) {
+			// cancelled while reading, another chunk failed
+			return 0;
+		}
+		if (!bids.isEmpty()) {
+			sink.accept(bids);
+		}
+		return bids.size();
+	}
+	
+	// min and max id, null for an empty table
+	private int[] readIdRange() throws SQLException {
+		try (Connection connection = jdbcConnectionManager.openConnection()) {
+			try (PreparedStatement statement = connection.prepareStatement("select min(id), max(id) from bids");
+					ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				int min = resultSet.getInt(1);
+				return resultSet.wasNull() ? null : new int[] { min, resultSet.getInt(2) };
+			}
+		}
+	}
+	
+	// JDBC reads ignore interrupts, so chunks still reading run to their end
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					break;
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static int await(Future<Integer> chunk) throws SQLException, IOException {
+		try {
+			return chunk.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while exporting bids", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException) {
+				throw (SQLException) cause;
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+	
+	private static class ExportThreadFactory implements java.util.concurrent.ThreadFactory {
+		private final AtomicInteger threads = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "bid-export-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+	
+}
@@ -0,0 +1,15 @@
+package com.jdbc.connectionsAndTransactions.export;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+
+// Receives the bids of one id chunk at a time. Chunks arrive concurrently and
+// in no particular order, bids within a chunk are in id order.
+@FunctionalInterface
+public interface BidSink {
+
+	void accept(List<Bid> chunk) throws IOException;
+	
+}
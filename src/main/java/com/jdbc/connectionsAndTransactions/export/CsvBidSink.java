@@ -0,0 +1,57 @@
+package com.jdbc.connectionsAndTransactions.export;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+
+// Writes bids as CSV with a header line, one chunk at a time
+public class CsvBidSink implements BidSink, Closeable {
+
+	private final BufferedWriter writer;
+	
+	public CsvBidSink(Path file) throws IOException {
+		this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+		writer.write("id,user,time,amount,currency");
+		writer.newLine();
+	}
+	
+	@Override
+	public void accept(List<Bid> chunk) throws IOException {
+		// format outside the lock, chunks are written whole
+		StringBuilder lines = new StringBuilder(chunk.size() * 48);
+		for (Bid bid : chunk) {
+			lines.append(bid.getId()).append(',')
+					.append(escape(bid.getUser())).append(',')
+					.append(bid.getTime()).append(',')
+					.append(bid.getAmount()).append(',')
+					.append(escape(bid.getCurrency())).append('\n');
+		}
+		synchronized (writer) {
+			writer.append(lines);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		synchronized (writer) {
+			writer.close();
+		}
+	}
+	
+	private static String escape(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+	
+}
@@ -0,0 +1,24 @@
+package com.jdbc.connectionsAndTransactions.ingestion;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class BidIngestionConfig {
+	// rounded up to a power of two
+	@Builder.Default
+	private final int bufferCapacity = 8192;
+	// a batch is written as soon as it has this many bids...
+	@Builder.Default
+	private final int maxBatchSize = 500;
+	// ...or when its first bid waited this long
+	@Builder.Default
+	private final Duration maxBatchDelay = Duration.ofMillis(10);
+	// with a journal, a failed batch whose failure can't be recorded in the checkpoint is written again after this
+	@Builder.Default
+	private final Duration failedBatchRetryDelay = Duration.ofMillis(100);
+	
+}
@@ -0,0 +1,345 @@
+package com.jdbc.connectionsAndTransactions.ingestion;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.jdbc.connectionsAndTransactions.ingestion.journal.BidJournal;
+import com.jdbc.connectionsAndTransactions.ingestion.journal.BidJournalCheckpoint;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+// Write-behind front of BidRepository. Callers enqueue bids without touching the database,
+// a single writer thread drains the buffer and saves the bids in batches, every batch in one
+// transaction on the writer's own connection. The future of a bid completes after that commit.
+// With a BidJournal every accepted bid is appended to the journal before it is enqueued, and the
+// checkpoint is committed with every batch. When a batch fails the checkpoint is moved over it on
+// its own before its futures fail, so replaying the journal never writes a bid whose caller was told
+// it failed. If that fails as well, e.g. while the database is down, the batch is written again
+// after failedBatchRetryDelay, so the checkpoint always covers a prefix of the journal. Bids still
+// buffered when the process dies stay in the journal and are written by BidJournalReplayer, as are
+// the ones the writer gives up on at close, their futures fail with JournaledBidException.
+public class BidIngestionPipeline implements AutoCloseable {
+
+	private static final long FULL_BUFFER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	
+	private final JdbcConnectionManager jdbcConnectionManager;
+	private final BidRepository bidRepository;
+	private final MpscRingBuffer<PendingBid> buffer;
+	private final int maxBatchSize;
+	private final long maxBatchDelayNanos;
+	private final long failedBatchRetryDelayNanos;
+	private final BidJournal journal;
+	private final BidJournalCheckpoint checkpoint;
+	private final Thread writer;
+	private final AtomicLong committedBatches = new AtomicLong();
+	private final AtomicLong committedBids = new AtomicLong();
+	private final AtomicLong failedBids = new AtomicLong();
+	private volatile boolean running = true;
+	private volatile boolean terminated;
+	private Connection connection;
+	
+	public BidIngestionPipeline(JdbcConnectionManager jdbcConnectionManager, BidRepository bidRepository, BidIngestionConfig config) {
+		this(jdbcConnectionManager, bidRepository, config, null, null);
+	}
+	
+	public BidIngestionPipeline(JdbcConnectionManager jdbcConnectionManager, BidRepository bidRepository, BidIngestionConfig config,
+			BidJournal journal, BidJournalCheckpoint checkpoint) {
+		this.jdbcConnectionManager = jdbcConnectionManager;
+		this.bidRepository = bidRepository;
+		this.buffer = new MpscRingBuffer<>(config.getBufferCapacity());
+		this.maxBatchSize = config.getMaxBatchSize();
+		this.maxBatchDelayNanos = config.getMaxBatchDelay().toNanos();
+		this.failedBatchRetryDelayNanos = config.getFailedBatchRetryDelay().toNanos();
+		this.journal = journal;
+		this.checkpoint = checkpoint;
+		this.writer = new Thread(this::runWriter, "bid-ingestion-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+	
+	// Never blocks. When the buffer is full the future fails with RejectedExecutionException,
+	// so the caller can slow down or retry.
+	public CompletableFuture<Integer> submit(Bid bid) {
+		PendingBid pendingBid = new PendingBid(bid);
+		if (!isValid(pendingBid)) {
+			return pendingBid.future;
+		}
+		try {
+			if (!running) {
+				pendingBid.future.completeExceptionally(new RejectedExecutionException("Bid ingestion is shut down"));
+			} else if (!offer(pendingBid)) {
+				pendingBid.future.completeExceptionally(new RejectedExecutionException("Bid buffer is full"));
+			} else {
+				afterOffer(pendingBid);
+			}
+		} catch (IOException | RuntimeException e) {
+			pendingBid.future.completeExceptionally(e);
+		}
+		return pendingBid.future;
+	}
+	
+	// Waits up to the timeout for space in the buffer
+	public CompletableFuture<Integer> submit(Bid bid, long timeout, TimeUnit unit) {
+		PendingBid pendingBid = new PendingBid(bid);
+		if (!isValid(pendingBid)) {
+			return pendingBid.future;
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		try {
+			while (running && !offer(pendingBid)) {
+				if (System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) {
+					pendingBid.future.completeExceptionally(new RejectedExecutionException("Bid buffer is full"));
+					return pendingBid.future;
+				}
+				LockSupport.unpark(writer);
+				LockSupport.parkNanos(this, FULL_BUFFER_BACKOFF_NANOS);
+			}
+		} catch (IOException | RuntimeException e) {
+			pendingBid.future.completeExceptionally(e);
+			return pendingBid.future;
+		}
+		if (!running) {
+			pendingBid.future.completeExceptionally(new RejectedExecutionException("Bid ingestion is shut down"));
+		} else {
+			afterOffer(pendingBid);
+		}
+		return pendingBid.future;
+	}
+	
+	public int getPendingCount() {
+		return buffer.size();
+	}
+	
+	public long getCommittedBatchCount() {
+		return committedBatches.get();
+	}
+	
+	public long getCommittedBidCount() {
+		return committedBids.get();
+	}
+	
+	public long getFailedBidCount() {
+		return failedBids.get();
+	}
+	
+	// Stops accepting bids and returns after all buffered bids were written
+	@Override
+	public void close() {
+		if (journal != null) {
+			// a bid journaled before is also enqueued before, so the writer still writes it
+			synchronized (journal) {
+				running = false;
+			}
+		} else {
+			running = false;
+		}
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	// The bids table can't store bids without a time, they would fail their whole batch
+	private static boolean isValid(PendingBid pendingBid) {
+		if (pendingBid.bid.getTime() == null) {
+			pendingBid.future.completeExceptionally(new IllegalArgumentException("Bid without time"));
+			return false;
+		}
+		return true;
+	}
+	
+	private boolean offer(PendingBid pendingBid) throws IOException {
+		if (journal == null) {
+			return buffer.offer(pendingBid);
+		}
+		// journaling and enqueueing under one lock keeps the buffer in sequence order
+		// and never journals a bid that is rejected for a full buffer or a shutdown
+		synchronized (journal) {
+			if (!running) {
+				throw new RejectedExecutionException("Bid ingestion is shut down");
+			}
+			if (buffer.size() >= buffer.capacity()) {
+				return false;
+			}
+			pendingBid.sequence = journal.append(pendingBid.bid);
+			return buffer.offer(pendingBid);
+		}
+	}
+	
+	private void afterOffer(PendingBid pendingBid) {
+		if (terminated) {
+			// the writer has already done its last drain
+			pendingBid.future.completeExceptionally(new RejectedExecutionException("Bid ingestion is shut down"));
+		} else if (buffer.size() >= maxBatchSize) {
+			LockSupport.unpark(writer);
+		}
+	}
+	
+	private void runWriter() {
+		List<PendingBid> batch = new ArrayList<>(maxBatchSize);
+		while (running || !buffer.isEmpty()) {
+			fillBatch(batch);
+			if (!batch.isEmpty()) {
+				writeBatch(batch);
+				batch.clear();
+			}
+		}
+		terminated = true;
+		PendingBid pendingBid;
+		while ((pendingBid = buffer.poll()) != null) {
+			pendingBid.future.completeExceptionally(new RejectedExecutionException("Bid ingestion is shut down"));
+		}
+		closeConnection();
+	}
+	
+	private void fillBatch(List<PendingBid> batch) {
+		long deadline = 0;
+		while (batch.size() < maxBatchSize) {
+			PendingBid pendingBid = buffer.poll();
+			if (pendingBid != null) {
+				if (batch.isEmpty()) {
+					deadline = System.nanoTime() + maxBatchDelayNanos;
+				}
+				batch.add(pendingBid);
+				continue;
+			}
+			if (!running) {
+				return;
+			}
+			if (batch.isEmpty()) {
+				LockSupport.parkNanos(this, maxBatchDelayNanos);
+				continue;
+			}
+			long remainingNanos = deadline - System.nanoTime();
+			if (remainingNanos <= 0) {
+				return;
+			}
+			LockSupport.parkNanos(this, remainingNanos);
+		}
+	}
+	
+	private void writeBatch(List<PendingBid> batch) {
+		List<Bid> bids = new ArrayList<>(batch.size());
+		for (PendingBid pendingBid : batch) {
+			bids.add(pendingBid.bid);
+		}
+		while (true) {
+			try {
+				Connection connection = getConnection();
+				int[] rowsAffected = bidRepository.saveAll(connection, bids);
+				if (checkpoint != null) {
+					checkpoint.update(connection, getLastSequence(batch));
+				}
+				connection.commit();
+				committedBatches.incrementAndGet();
+				committedBids.addAndGet(batch.size());
+				for (int i = 0; i < batch.size(); i++) {
+					batch.get(i).future.complete(rowsAffected[i]);
+				}
+				return;
+			} catch (SQLException | RuntimeException e) {
+				rollback();
+				if (checkpoint == null || skipInJournal(batch)) {
+					failBatch(batch, e);
+					return;
+				}
+				if (!running) {
+					failBatch(batch, new JournaledBidException(e));
+					return;
+				}
+				LockSupport.parkNanos(this, failedBatchRetryDelayNanos);
+			}
+		}
+	}
+	
+	// Moves the checkpoint over a batch that failed, so it isn't replayed after its callers were told
+	private boolean skipInJournal(List<PendingBid> batch) {
+		try {
+			Connection connection = getConnection();
+			checkpoint.update(connection, getLastSequence(batch));
+			connection.commit();
+			return true;
+		} catch (SQLException | RuntimeException e) {
+			rollback();
+			return false;
+		}
+	}
+	
+	private void failBatch(List<PendingBid> batch, Exception e) {
+		failedBids.addAndGet(batch.size());
+		for (PendingBid pendingBid : batch) {
+			pendingBid.future.completeExceptionally(e);
+		}
+	}
+	
+	private static long getLastSequence(List<PendingBid> batch) {
+		return batch.get(batch.size() - 1).sequence;
+	}
+	
+	private Connection getConnection() throws SQLException {
+		if (connection == null || connection.isClosed()) {
+			connection = jdbcConnectionManager.createConnection();
+			if (connection == null) {
+				throw new SQLException("Could not open connection for bid ingestion");
+			}
+			connection.setAutoCommit(false);
+		}
+		return connection;
+	}
+	
+	private void rollback() {
+		if (connection == null) {
+			return;
+		}
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			// connection is broken, the next batch opens a new one
+			e.printStackTrace();
+			closeConnection();
+		}
+	}
+	
+	private void closeConnection() {
+		if (connection != null) {
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+			connection = null;
+		}
+	}
+	
+	// The bid is in the journal but not in the database, BidJournalReplayer writes it.
+	// Submitting it again would write it twice.
+	public static class JournaledBidException extends RuntimeException {
+		private static final long serialVersionUID = -4383505318931530766L;
+		
+		public JournaledBidException(Throwable cause) {
+			super("Bid is kept in the journal for replay", cause);
+		}
+	}
+	
+	private static class PendingBid {
+		private final Bid bid;
+		private final CompletableFuture<Integer> future = new CompletableFuture<>();
+		private long sequence;
+		
+		private PendingBid(Bid bid) {
+			this.bid = bid;
+		}
+	}
+	
+}
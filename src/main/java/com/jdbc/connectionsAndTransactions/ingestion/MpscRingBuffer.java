@@ -0,0 +1,76 @@
+package com.jdbc.connectionsAndTransactions.ingestion;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded lock-free ring buffer for many producers and a single consumer (Vyukov's bounded queue).
+// Every slot has a sequence number: it equals the producer position when the slot is free
+// and position + 1 when it holds an element that the consumer can take.
+public class MpscRingBuffer<E> {
+
+	private final int capacity;
+	private final int mask;
+	private final AtomicReferenceArray<E> elements;
+	private final AtomicLongArray sequences;
+	private final AtomicLong producerPosition = new AtomicLong();
+	private volatile long consumerPosition;
+	
+	public MpscRingBuffer(int requestedCapacity) {
+		if (requestedCapacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		this.capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+		this.mask = capacity - 1;
+		this.elements = new AtomicReferenceArray<>(capacity);
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+	
+	// Returns false without waiting if the buffer is full
+	public boolean offer(E element) {
+		while (true) {
+			long position = producerPosition.get();
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (producerPosition.compareAndSet(position, position + 1)) {
+					elements.lazySet(index, element);
+					sequences.set(index, position + 1);
+					return true;
+				}
+			} else if (difference < 0) {
+				return false;
+			}
+		}
+	}
+	
+	// Must only be called by the consumer thread
+	public E poll() {
+		long position = consumerPosition;
+		int index = (int) position & mask;
+		if (sequences.get(index) != position + 1) {
+			return null;
+		}
+		E element = elements.get(index);
+		elements.lazySet(index, null);
+		sequences.set(index, position + capacity);
+		consumerPosition = position + 1;
+		return element;
+	}
+	
+	public int size() {
+		return (int) Math.max(0, producerPosition.get() - consumerPosition);
+	}
+	
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+	
+	public int capacity() {
+		return capacity;
+	}
+	
+}
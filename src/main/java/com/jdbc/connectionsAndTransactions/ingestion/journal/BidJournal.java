@@ -0,0 +1,132 @@
+package com.jdbc.connectionsAndTransactions.ingestion.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+
+// Append-only journal of bids in memory-mapped segment files, so a bid is on local disk before
+// it reaches the database. Every record gets the next sequence number, starting at 1.
+//
+// Single writer: append, flush and close must not be called concurrently. Readers
+// (BidJournalReader) can run concurrently in other threads, they only see records up to the
+// last published sequence. Appending to the mapped segment doesn't allocate, only rolling over
+// to a new segment does. Opening an existing journal continues after its last valid record.
+public class BidJournal implements AutoCloseable {
+
+	private final Path directory;
+	private final int segmentSize;
+	private final boolean forceOnAppend;
+	private MappedByteBuffer segment;
+	private int position;
+	private long nextSequence;
+	// last appended sequence, written after the record so readers never see a partial one
+	private volatile long publishedSequence;
+	
+	public BidJournal(BidJournalConfig config) throws IOException {
+		this.directory = config.getDirectory();
+		this.segmentSize = config.getSegmentSize();
+		this.forceOnAppend = config.isForceOnAppend();
+		Files.createDirectories(directory);
+		List<Long> segments = JournalSegments.listSegments(directory);
+		if (segments.isEmpty()) {
+			nextSequence = 1;
+			openSegment(nextSequence);
+		} else {
+			recover(segments.get(segments.size() - 1));
+		}
+		publishedSequence = nextSequence - 1;
+	}
+	
+	// Returns the sequence of the appended bid
+	public long append(Bid bid) throws IOException {
+		int recordSize = JournalSegments.recordSize(bid);
+		if (recordSize > segmentSize) {
+			throw new IllegalArgumentException("Bid doesn't fit into a journal segment: " + recordSize + " bytes");
+		}
+		if (position + recordSize > segmentSize) {
+			segment.force();
+			openSegment(nextSequence);
+		}
+		long sequence = nextSequence++;
+		JournalSegments.write(segment, position, sequence, bid);
+		position += recordSize;
+		if (forceOnAppend) {
+			segment.force();
+		}
+		publishedSequence = sequence;
+		return sequence;
+	}
+	
+	public long getLastSequence() {
+		return publishedSequence;
+	}
+	
+	public Path getDirectory() {
+		return directory;
+	}
+	
+	// Forces the appended records of the current segment to disk
+	public void flush() {
+		segment.force();
+	}
+	
+	// Reads the records after the given sequence
+	public BidJournalReader newReader(long afterSequence) {
+		return new BidJournalReader(directory, afterSequence, this);
+	}
+	
+	// Deletes the segments that only hold records up to the sequence, e.g. the committed ones
+	public int deleteSegmentsUpTo(long sequence) throws IOException {
+		List<Long> segments = JournalSegments.listSegments(directory);
+		int deleted = 0;
+		// a segment ends right before the first sequence of the next one, the current one is kept
+		for (int i = 0; i + 1 < segments.size() && segments.get(i + 1) - 1 <= sequence; i++) {
+			Files.deleteIfExists(JournalSegments.segmentPath(directory, segments.get(i)));
+			deleted++;
+		}
+		return deleted;
+	}
+	
+	@Override
+	public void close() {
+		segment.force();
+	}
+	
+	private void openSegment(long firstSequence) throws IOException {
+		segment = map(JournalSegments.segmentPath(directory, firstSequence), segmentSize);
+		position = 0;
+	}
+	
+	// Finds the end of the last segment and clears whatever a torn write left behind it
+	private void recover(long firstSequence) throws IOException {
+		Path path = JournalSegments.segmentPath(directory, firstSequence);
+		segment = map(path, (int) Math.max(Files.size(path), segmentSize));
+		position = 0;
+		nextSequence = firstSequence;
+		int recordSize;
+		while ((recordSize = JournalSegments.validRecordSize(segment, position, nextSequence)) > 0) {
+			position += recordSize;
+			nextSequence++;
+		}
+		for (int i = position; i < segment.limit(); i++) {
+			if (segment.get(i) != 0) {
+				segment.put(i, (byte) 0);
+			}
+		}
+		segment.force();
+	}
+	
+	private static MappedByteBuffer map(Path path, int size) throws IOException {
+		// the mapping stays valid after the channel is closed
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+	}
+	
+}
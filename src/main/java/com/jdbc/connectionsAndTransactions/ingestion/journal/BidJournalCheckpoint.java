@@ -0,0 +1,39 @@
+package com.jdbc.connectionsAndTransactions.ingestion.journal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Last journal sequence up to which every bid is in the bids table or was reported failed to its
+// caller. It is updated in the same transaction as the bids, so after a crash exactly the records
+// after it still have to be replayed.
+public class BidJournalCheckpoint {
+
+	public void createTable(Connection conn) throws SQLException {
+		conn.createStatement().execute("create table bid_journal_checkpoint (id int primary key, sequence bigint not null)");
+		conn.createStatement().execute("insert into bid_journal_checkpoint (id, sequence) values (1, 0)");
+	}
+	
+	public void dropTable(Connection conn) throws SQLException {
+		conn.createStatement().executeUpdate("drop table bid_journal_checkpoint");
+	}
+	
+	public long read(Connection connection) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("select sequence from bid_journal_checkpoint where id = 1");
+				ResultSet resultSet = statement.executeQuery()) {
+			return resultSet.next() ? resultSet.getLong(1) : 0;
+		}
+	}
+	
+	// Only moves forward
+	public void update(Connection connection, long sequence) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(
+				"update bid_journal_checkpoint set sequence = ? where id = 1 and sequence < ?")) {
+			statement.setLong(1, sequence);
+			statement.setLong(2, sequence);
+			statement.executeUpdate();
+		}
+	}
+	
+}
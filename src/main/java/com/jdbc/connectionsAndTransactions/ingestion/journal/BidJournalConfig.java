@@ -0,0 +1,21 @@
+package com.jdbc.connectionsAndTransactions.ingestion.journal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class BidJournalConfig {
+	@Builder.Default
+	private final Path directory = Paths.get("bid-journal");
+	// size of every segment file, a record never spans two segments
+	@Builder.Default
+	private final int segmentSize = 64 * 1024 * 1024;
+	// force every append to disk; otherwise records survive a crash of the JVM but not of the OS
+	// until flush() is called
+	@Builder.Default
+	private final boolean forceOnAppend = false;
+}
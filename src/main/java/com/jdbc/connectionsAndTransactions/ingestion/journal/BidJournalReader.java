@@ -0,0 +1,107 @@
+package com.jdbc.connectionsAndTransactions.ingestion.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Reads journal records in sequence order from a read-only mapping of the segments.
+// With the journal of the same process it stops at the journal's last published sequence,
+// without it (e.g. after a restart) at the first missing or torn record.
+public class BidJournalReader {
+
+	private final Path directory;
+	private final BidJournal journal;
+	private MappedByteBuffer segment;
+	private long segmentFirstSequence;
+	private int position;
+	private long nextSequence;
+	
+	public BidJournalReader(Path directory, long afterSequence) {
+		this(directory, afterSequence, null);
+	}
+	
+	BidJournalReader(Path directory, long afterSequence, BidJournal journal) {
+		this.directory = directory;
+		this.journal = journal;
+		this.nextSequence = afterSequence + 1;
+	}
+	
+	// The next record, null if there is none yet. Read errors surface as UncheckedIOException.
+	public JournalRecord poll() {
+		if (journal != null && nextSequence > journal.getLastSequence()) {
+			return null;
+		}
+		try {
+			if (segment == null && !openSegmentOf(nextSequence)) {
+				return null;
+			}
+			int recordSize = JournalSegments.validRecordSize(segment, position, nextSequence);
+			if (recordSize == 0) {
+				// the writer moved on to the next segment, or the record isn't there yet
+				if (!openSegmentStartingAt(nextSequence)) {
+					return null;
+				}
+				recordSize = JournalSegments.validRecordSize(segment, position, nextSequence);
+				if (recordSize == 0) {
+					return null;
+				}
+			}
+			JournalRecord record = new JournalRecord(nextSequence, JournalSegments.readBid(segment, position));
+			position += recordSize;
+			nextSequence++;
+			return record;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public long getNextSequence() {
+		return nextSequence;
+	}
+	
+	// Positions on the record with the sequence in the segment that holds it
+	private boolean openSegmentOf(long sequence) throws IOException {
+		List<Long> segments = JournalSegments.listSegments(directory);
+		long firstSequence = -1;
+		for (long segmentFirst : segments) {
+			if (segmentFirst <= sequence) {
+				firstSequence = segmentFirst;
+			}
+		}
+		if (firstSequence < 0) {
+			return false;
+		}
+		map(firstSequence);
+		for (long skipped = firstSequence; skipped < sequence; skipped++) {
+			int recordSize = JournalSegments.validRecordSize(segment, position, skipped);
+			if (recordSize == 0) {
+				segment = null;
+				return false;
+			}
+			position += recordSize;
+		}
+		return true;
+	}
+	
+	private boolean openSegmentStartingAt(long sequence) throws IOException {
+		if (segmentFirstSequence == sequence || !Files.exists(JournalSegments.segmentPath(directory, sequence))) {
+			return false;
+		}
+		map(sequence);
+		return true;
+	}
+	
+	private void map(long firstSequence) throws IOException {
+		try (FileChannel channel = FileChannel.open(JournalSegments.segmentPath(directory, firstSequence), StandardOpenOption.READ)) {
+			segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		segmentFirstSequence = firstSequence;
+		position = 0;
+	}
+	
+}
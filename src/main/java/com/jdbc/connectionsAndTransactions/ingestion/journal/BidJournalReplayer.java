@@ -0,0 +1,71 @@
+package com.jdbc.connectionsAndTransactions.ingestion.journal;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+// Pushes the journal records after the checkpoint into BidRepository, e.g. on startup after
+// a crash or a database outage. Every batch is committed together with the checkpoint.
+public class BidJournalReplayer {
+
+	private final BidRepository bidRepository;
+	private final BidJournalCheckpoint checkpoint;
+	private final int batchSize;
+	
+	public BidJournalReplayer(BidRepository bidRepository, BidJournalCheckpoint checkpoint) {
+		this(bidRepository, checkpoint, bidRepository.getBatchSize());
+	}
+	
+	public BidJournalReplayer(BidRepository bidRepository, BidJournalCheckpoint checkpoint, int batchSize) {
+		this.bidRepository = bidRepository;
+		this.checkpoint = checkpoint;
+		this.batchSize = batchSize;
+	}
+	
+	// Returns the number of replayed bids
+	public long replay(Connection connection, BidJournalReader reader) throws SQLException {
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		try {
+			long replayed = 0;
+			List<Bid> batch = new ArrayList<>(batchSize);
+			long lastSequence = 0;
+			JournalRecord record;
+			while ((record = reader.poll()) != null) {
+				batch.add(record.getBid());
+				lastSequence = record.getSequence();
+				if (batch.size() == batchSize) {
+					replayed += commit(connection, batch, lastSequence);
+				}
+			}
+			if (!batch.isEmpty()) {
+				replayed += commit(connection, batch, lastSequence);
+			}
+			return replayed;
+		} catch (SQLException | RuntimeException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommit);
+		}
+	}
+	
+	// Replays the journal's records after the checkpoint stored in the database
+	public long replay(Connection connection, BidJournal journal) throws SQLException {
+		return replay(connection, journal.newReader(checkpoint.read(connection)));
+	}
+	
+	private int commit(Connection connection, List<Bid> batch, long lastSequence) throws SQLException {
+		bidRepository.saveAll(connection, batch);
+		checkpoint.update(connection, lastSequence);
+		connection.commit();
+		int committed = batch.size();
+		batch.clear();
+		return committed;
+	}
+	
+}
@@ -0,0 +1,11 @@
+package com.jdbc.connectionsAndTransactions.ingestion.journal;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+
+import lombok.Value;
+
+@Value
+public class JournalRecord {
+	private final long sequence;
+	private final Bid bid;
+}
@@ -0,0 +1,175 @@
+package com.jdbc.connectionsAndTransactions.ingestion.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+
+// Segment files and the binary record format shared by BidJournal and BidJournalReader.
+//
+// A segment is named after the sequence of its first record. A record is
+//   int length, int checksum, long sequence, long epoch second, int nano, int amount,
+//   short user length, user UTF-8, short currency length, currency UTF-8
+// where length and checksum cover everything after the checksum. The time is the local date
+// time of the bid encoded as if it was UTC. Length is written last, a zero length marks the end
+// of the written records and a checksum or sequence mismatch a torn write.
+final class JournalSegments {
+
+	static final int HEADER_SIZE = 8;
+	// sequence, epoch second, nano, amount and the two string lengths
+	static final int FIXED_BODY_SIZE = 8 + 8 + 4 + 4 + 2 + 2;
+	
+	private static final String SUFFIX = ".journal";
+	
+	private JournalSegments() {
+	}
+	
+	static Path segmentPath(Path directory, long firstSequence) {
+		return directory.resolve(String.format("bids-%020d%s", firstSequence, SUFFIX));
+	}
+	
+	// first sequences of the segments in the directory, in ascending order
+	static List<Long> listSegments(Path directory) throws IOException {
+		List<Long> segments = new ArrayList<>();
+		if (!Files.isDirectory(directory)) {
+			return segments;
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			files.map(file -> file.getFileName().toString())
+					.filter(name -> name.startsWith("bids-") && name.endsWith(SUFFIX))
+					.forEach(name -> segments.add(Long.parseLong(name.substring(5, name.length() - SUFFIX.length()))));
+		}
+		Collections.sort(segments);
+		return segments;
+	}
+	
+	static int recordSize(Bid bid) {
+		return HEADER_SIZE + FIXED_BODY_SIZE + encodedLength(bid.getUser()) + encodedLength(bid.getCurrency());
+	}
+	
+	// Writes the record at the position without allocating, the length goes last
+	static void write(ByteBuffer buffer, int position, long sequence, Bid bid) {
+		LocalDateTime time = bid.getTime();
+		int offset = position + HEADER_SIZE;
+		buffer.putLong(offset, sequence);
+		buffer.putLong(offset + 8, time.toEpochSecond(ZoneOffset.UTC));
+		buffer.putInt(offset + 16, time.getNano());
+		buffer.putInt(offset + 20, bid.getAmount());
+		int end = putString(buffer, offset + 24, bid.getUser());
+		end = putString(buffer, end, bid.getCurrency());
+		int length = end - offset;
+		buffer.putInt(position + 4, checksum(buffer, offset, length));
+		buffer.putInt(position, length);
+	}
+	
+	// Size of the valid record at the position with the expected sequence, 0 if there is none
+	static int validRecordSize(ByteBuffer buffer, int position, long expectedSequence) {
+		if (position + HEADER_SIZE > buffer.limit()) {
+			return 0;
+		}
+		int length = buffer.getInt(position);
+		if (length < FIXED_BODY_SIZE || position + HEADER_SIZE + length > buffer.limit()) {
+			return 0;
+		}
+		int offset = position + HEADER_SIZE;
+		if (buffer.getLong(offset) != expectedSequence || buffer.getInt(position + 4) != checksum(buffer, offset, length)) {
+			return 0;
+		}
+		return HEADER_SIZE + length;
+	}
+	
+	static Bid readBid(ByteBuffer buffer, int position) {
+		int offset = position + HEADER_SIZE;
+		LocalDateTime time = LocalDateTime.ofEpochSecond(buffer.getLong(offset + 8), buffer.getInt(offset + 16), ZoneOffset.UTC);
+		int amount = buffer.getInt(offset + 20);
+		int userLength = buffer.getShort(offset + 24);
+		String user = getString(buffer, offset + 26, userLength);
+		int currencyOffset = offset + 26 + Math.max(userLength, 0);
+		String currency = getString(buffer, currencyOffset + 2, buffer.getShort(currencyOffset));
+		return new Bid(user, time, amount, currency);
+	}
+	
+	private static int checksum(ByteBuffer buffer, int offset, int length) {
+		// FNV-1a
+		int hash = 0x811c9dc5;
+		for (int i = offset; i < offset + length; i++) {
+			hash = (hash ^ (buffer.get(i) & 0xFF)) * 0x01000193;
+		}
+		return hash;
+	}
+	
+	// UTF-8 byte length, null is written as length -1 without bytes
+	private static int encodedLength(String value) {
+		if (value == null) {
+			return 0;
+		}
+		int length = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				length += 3;
+			}
+		}
+		if (length > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Value too long for the journal: " + value.length() + " chars");
+		}
+		return length;
+	}
+	
+	private static int putString(ByteBuffer buffer, int offset, String value) {
+		if (value == null) {
+			buffer.putShort(offset, (short) -1);
+			return offset + 2;
+		}
+		int position = offset + 2;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				buffer.put(position++, (byte) c);
+			} else if (c < 0x800) {
+				buffer.put(position++, (byte) (0xC0 | c >> 6));
+				buffer.put(position++, (byte) (0x80 | c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer.put(position++, (byte) (0xF0 | codePoint >> 18));
+				buffer.put(position++, (byte) (0x80 | codePoint >> 12 & 0x3F));
+				buffer.put(position++, (byte) (0x80 | codePoint >> 6 & 0x3F));
+				buffer.put(position++, (byte) (0x80 | codePoint & 0x3F));
+			} else {
+				buffer.put(position++, (byte) (0xE0 | c >> 12));
+				buffer.put(position++, (byte) (0x80 | c >> 6 & 0x3F));
+				buffer.put(position++, (byte) (0x80 | c & 0x3F));
+			}
+		}
+		buffer.putShort(offset, (short) (position - offset - 2));
+		return position;
+	}
+	
+	private static String getString(ByteBuffer buffer, int offset, int length) {
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(offset + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+}
@@ -4,25 +4,40 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.jdbc.connectionsAndTransactions.jdbc.pool.ConnectionPool;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+
 @Component
 public class JdbcConnectionManager {
 
 	private final String username;
 	private final String password;
 	private final String connectionUrl;
+	private final ConnectionPool connectionPool;
 
-	public JdbcConnectionManager(String username, String password, String connection) {
+	@Autowired
+	public JdbcConnectionManager(@Value("${spring.datasource.username:sa}") String username,
+			@Value("${spring.datasource.password:}") String password,
+			@Value("${spring.datasource.url:jdbc:h2:mem:testdb}") String connection) {
+		this(username, password, connection, null);
+	}
+	
+	// With poolConfig connections are borrowed from a pool and closing them returns them to the pool
+	public JdbcConnectionManager(String username, String password, String connection, PoolConfig poolConfig) {
 		this.username = username;
 		this.password = password;
 		this.connectionUrl = connection;
+		this.connectionPool = poolConfig != null ? new ConnectionPool(this::openPhysicalConnection, poolConfig) : null;
 	}
 	
 	public Connection createConnection() {
 		Connection connection = null;
 		try {
-			connection = DriverManager.getConnection(connectionUrl, username, password);
+			connection = openConnection();
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
@@ -30,6 +45,11 @@ public class JdbcConnectionManager {
 		
 	}
 	
+	// Like createConnection, but a failure is thrown instead of printed
+	public Connection openConnection() throws SQLException {
+		return connectionPool != null ? connectionPool.borrow() : openPhysicalConnection();
+	}
+	
 	public void executeOnNewConnection(ThrowingConsumer<Connection, SQLException> onGetConnection) {
 		executeOnNewConnection(onGetConnection, null);
 	}
@@ -49,16 +69,42 @@ public class JdbcConnectionManager {
 			e.printStackTrace();
 		} finally {
 			try {
-				connection.close();
+				if (connection != null) {
+					// for pooled connections close() returns the connection to the pool
+					connection.close();
+				}
 			} catch (SQLException e) {
 				e.printStackTrace();
 			}
 		}
 	}
+	
+	public boolean isPooled() {
+		return connectionPool != null;
+	}
+	
+	public ConnectionPool getConnectionPool() {
+		return connectionPool;
+	}
+	
+	public void shutdown() {
+		if (connectionPool != null) {
+			connectionPool.close();
+		}
+	}
+	
+	private Connection openPhysicalConnection() throws SQLException {
+		return DriverManager.getConnection(connectionUrl, username, password);
+	}
 
 	@FunctionalInterface
 	public interface ThrowingConsumer<T, E extends Throwable> {
 	    void accept(T t) throws E;
 	}
 	
+	@FunctionalInterface
+	public interface ThrowingFunction<T, R, E extends Throwable> {
+	    R apply(T t) throws E;
+	}
+	
 }
@@ -0,0 +1,22 @@
+package com.jdbc.connectionsAndTransactions.jdbc.async;
+
+import java.util.concurrent.Executor;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class AsyncJdbcConfig {
+	// runs the units of work; null for a fixed pool of maxConcurrency daemon threads.
+	// On Java 21+ Executors.newVirtualThreadPerTaskExecutor() can be passed here.
+	@Builder.Default
+	private final Executor executor = null;
+	// units of work running at the same time; 0 for the connection budget,
+	// the pool's maxPoolSize or DEFAULT_UNPOOLED_CONCURRENCY without a pool
+	@Builder.Default
+	private final int maxConcurrency = 0;
+	// units of work waiting for a slot before new ones are rejected
+	@Builder.Default
+	private final int maxQueued = Integer.MAX_VALUE;
+}
@@ -0,0 +1,188 @@
+package com.jdbc.connectionsAndTransactions.jdbc.async;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager.ThrowingConsumer;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager.ThrowingFunction;
+
+// Runs units of work of JdbcConnectionManager asynchronously, every one on its own connection.
+// At most maxConcurrency of them run at a time, the rest wait in a queue without holding a thread,
+// so thousands of callers don't end up as thousands of threads blocked on the pool.
+// Unlike executeOnNewConnection failures aren't swallowed: the future completes with the
+// SQLException, after a rollback if the unit left autocommit off.
+// Cancelling the future, or letting it time out, cancels the running statement of the unit
+// with Statement.cancel() and frees its connection; a queued unit is skipped.
+public class AsyncJdbcExecutor implements AutoCloseable {
+
+	public static final int DEFAULT_UNPOOLED_CONCURRENCY = 10;
+	
+	private final JdbcConnectionManager jdbcConnectionManager;
+	private final Executor executor;
+	private final ExecutorService ownedExecutor;
+	private final int maxConcurrency;
+	private final int maxQueued;
+	private final Queue<PendingUnit<?>> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final AtomicInteger running = new AtomicInteger();
+	
+	public AsyncJdbcExecutor(JdbcConnectionManager jdbcConnectionManager, AsyncJdbcConfig config) {
+		this.jdbcConnectionManager = jdbcConnectionManager;
+		this.maxConcurrency = config.getMaxConcurrency() > 0 ? config.getMaxConcurrency() : connectionBudget(jdbcConnectionManager);
+		this.maxQueued = config.getMaxQueued();
+		if (config.getExecutor() != null) {
+			this.executor = config.getExecutor();
+			this.ownedExecutor = null;
+		} else {
+			AtomicInteger threads = new AtomicInteger();
+			this.ownedExecutor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+				Thread thread = new Thread(runnable, "jdbc-async-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.executor = ownedExecutor;
+		}
+	}
+	
+	public CompletableFuture<Void> execute(ThrowingConsumer<Connection, SQLException> unitOfWork) {
+		return submit(connection -> {
+			unitOfWork.accept(connection);
+			return null;
+		});
+	}
+	
+	public <T> CompletableFuture<T> submit(ThrowingFunction<Connection, T, SQLException> unitOfWork) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		if (queued.incrementAndGet() > maxQueued) {
+			queued.decrementAndGet();
+			future.completeExceptionally(new RejectedExecutionException("Too many queued units of work"));
+			return future;
+		}
+		PendingUnit<T> unit = new PendingUnit<>(unitOfWork, future);
+		future.whenComplete((result, failure) -> {
+			if (failure instanceof CancellationException || failure instanceof TimeoutException) {
+				unit.canceller.cancel();
+			}
+		});
+		queue.add(unit);
+		dispatch();
+		return future;
+	}
+	
+	// The future fails with TimeoutException once the timeout passed, queued time included
+	public <T> CompletableFuture<T> submit(ThrowingFunction<Connection, T, SQLException> unitOfWork, Duration timeout) {
+		return submit(unitOfWork).orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+	}
+	
+	public int getRunningCount() {
+		return running.get();
+	}
+	
+	public int getQueuedCount() {
+		return queued.get();
+	}
+	
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+	
+	// Shuts down the own executor, a configured executor is left alone
+	@Override
+	public void close() {
+		if (ownedExecutor != null) {
+			ownedExecutor.shutdown();
+		}
+	}
+	
+	// Starts queued units of work while there are free slots
+	private void dispatch() {
+		while (!queue.isEmpty()) {
+			int current = running.get();
+			if (current >= maxConcurrency) {
+				// the unit of work holding the slot dispatches again when it finishes
+				return;
+			}
+			if (!running.compareAndSet(current, current + 1)) {
+				continue;
+			}
+			PendingUnit<?> unit = queue.poll();
+			if (unit == null) {
+				running.decrementAndGet();
+				continue;
+			}
+			queued.decrementAndGet();
+			try {
+				executor.execute(() -> {
+					try {
+						unit.run();
+					} finally {
+						running.decrementAndGet();
+						dispatch();
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				running.decrementAndGet();
+				unit.future.completeExceptionally(e);
+			}
+		}
+	}
+	
+	private static int connectionBudget(JdbcConnectionManager jdbcConnectionManager) {
+		return jdbcConnectionManager.isPooled()
+				? jdbcConnectionManager.getConnectionPool().getConfig().getMaxPoolSize()
+				: DEFAULT_UNPOOLED_CONCURRENCY;
+	}
+	
+	private class PendingUnit<T> {
+		private final ThrowingFunction<Connection, T, SQLException> unitOfWork;
+		private final CompletableFuture<T> future;
+		private final StatementCanceller canceller = new StatementCanceller();
+		
+		private PendingUnit(ThrowingFunction<Connection, T, SQLException> unitOfWork, CompletableFuture<T> future) {
+			this.unitOfWork = unitOfWork;
+			this.future = future;
+		}
+		
+		private void run() {
+			if (future.isDone()) {
+				// cancelled while queued
+				return;
+			}
+			try (Connection connection = jdbcConnectionManager.openConnection()) {
+				try {
+					future.complete(unitOfWork.apply(canceller.track(connection)));
+				} catch (Throwable e) {
+					rollback(connection, e);
+					throw e;
+				}
+			} catch (Throwable e) {
+				// like CompletableFuture.supplyAsync, errors end up in the future too
+				future.completeExceptionally(e);
+			}
+		}
+		
+		private void rollback(Connection connection, Throwable failure) {
+			try {
+				if (!connection.isClosed() && !connection.getAutoCommit()) {
+					connection.rollback();
+				}
+			} catch (SQLException e) {
+				failure.addSuppressed(e);
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,224 @@
+package com.jdbc.connectionsAndTransactions.jdbc.async;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tracks the statements created through a connection, so that another thread can cancel
+// the running one with Statement.cancel(). Once cancelled no new statements can be created
+// or executed. Drivers such as H2 forget a cancel that arrives just before execution starts,
+// so the cancel is repeated for as long as a statement is still executing.
+// Statements, result sets and metadata hand out the tracked connection and statements, and unwrap
+// is refused, so a unit of work can't reach the raw connection and use it after its cancel.
+class StatementCanceller {
+
+	private static final long RETRY_MILLIS = 10;
+	
+	private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger executing = new AtomicInteger();
+	private volatile boolean cancelled;
+	
+	Connection track(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new TrackingHandler(connection));
+	}
+	
+	void cancel() {
+		cancelled = true;
+		cancelStatements();
+	}
+	
+	private void cancelStatements() {
+		if (executing.get() > 0) {
+			CompletableFuture.runAsync(this::cancelStatements, CompletableFuture.delayedExecutor(RETRY_MILLIS, TimeUnit.MILLISECONDS));
+		}
+		for (Statement statement : statements) {
+			try {
+				if (!statement.isClosed()) {
+					statement.cancel();
+				}
+			} catch (SQLException e) {
+				// the statement finished or its connection is gone, nothing left to cancel
+			}
+		}
+	}
+	
+	boolean isCancelled() {
+		return cancelled;
+	}
+	
+	private class TrackingHandler implements InvocationHandler {
+		private final Connection connection;
+		
+		private TrackingHandler(Connection connection) {
+			this.connection = connection;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "unwrap":
+				return unwrap(proxy, (Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			case "getMetaData":
+				DatabaseMetaData metaData = (DatabaseMetaData) invokeDelegate(connection, method, args);
+				return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+						new Class<?>[] { DatabaseMetaData.class }, new MetaDataGuard(metaData, (Connection) proxy));
+			case "createStatement":
+			case "prepareStatement":
+			case "prepareCall":
+				checkNotCancelled();
+				Statement statement = (Statement) invokeDelegate(connection, method, args);
+				statements.add(statement);
+				if (cancelled) {
+					// cancel() may have missed it
+					statement.cancel();
+				}
+				return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+						new Class<?>[] { method.getReturnType() }, new ExecutionGuard(statement, (Connection) proxy));
+			default:
+				return invokeDelegate(connection, method, args);
+			}
+		}
+	}
+	
+	private class ExecutionGuard implements InvocationHandler {
+		private final Statement statement;
+		private final Connection trackedConnection;
+		
+		private ExecutionGuard(Statement statement, Connection trackedConnection) {
+			this.statement = statement;
+			this.trackedConnection = trackedConnection;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "getConnection":
+				return trackedConnection;
+			case "unwrap":
+				return unwrap(proxy, (Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			default:
+				if (!method.getName().startsWith("execute")) {
+					return guardResultSet(invokeDelegate(statement, method, args), (Statement) proxy);
+				}
+				executing.incrementAndGet();
+				try {
+					checkNotCancelled();
+					return guardResultSet(invokeDelegate(statement, method, args), (Statement) proxy);
+				} finally {
+					executing.decrementAndGet();
+				}
+			}
+		}
+	}
+	
+	// Result sets of DatabaseMetaData have no statement
+	private static class ResultSetGuard implements InvocationHandler {
+		private final ResultSet resultSet;
+		private final Statement trackedStatement;
+		
+		private ResultSetGuard(ResultSet resultSet, Statement trackedStatement) {
+			this.resultSet = resultSet;
+			this.trackedStatement = trackedStatement;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "getStatement":
+				return trackedStatement;
+			case "unwrap":
+				return unwrap(proxy, (Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			default:
+				return invokeDelegate(resultSet, method, args);
+			}
+		}
+	}
+	
+	private static class MetaDataGuard implements InvocationHandler {
+		private final DatabaseMetaData metaData;
+		private final Connection trackedConnection;
+		
+		private MetaDataGuard(DatabaseMetaData metaData, Connection trackedConnection) {
+			this.metaData = metaData;
+			this.trackedConnection = trackedConnection;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "getConnection":
+				return trackedConnection;
+			case "unwrap":
+				return unwrap(proxy, (Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			default:
+				return guardResultSet(invokeDelegate(metaData, method, args), null);
+			}
+		}
+	}
+	
+	private void checkNotCancelled() throws SQLException {
+		if (cancelled) {
+			throw new SQLException("Unit of work was cancelled");
+		}
+	}
+	
+	private static Object guardResultSet(Object result, Statement trackedStatement) {
+		if (!(result instanceof ResultSet)) {
+			return result;
+		}
+		return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class }, new ResultSetGuard((ResultSet) result, trackedStatement));
+	}
+	
+	private static Object unwrap(Object proxy, Class<?> iface) throws SQLException {
+		if (iface.isInstance(proxy)) {
+			return proxy;
+		}
+		throw new SQLException("unwrap to " + iface.getName() + " is not allowed for a cancellable unit of work");
+	}
+	
+	private static Object invokeDelegate(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+}
@@ -0,0 +1,183 @@
+package com.jdbc.connectionsAndTransactions.jdbc.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.QueryFinding.Type;
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.TransactionReport.Outcome;
+import com.jdbc.connectionsAndTransactions.jdbc.proxy.QueryListener;
+
+// Flags slow statements and fingerprints executed repeatedly within one transaction (N+1)
+// and reports them per transaction when it commits, rolls back or its connection is closed.
+// A transaction is what a connection runs between these events, so with autocommit
+// it spans the whole use of the connection. Transactions without findings are not reported.
+public class QueryDiagnostics implements QueryListener {
+
+	private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+	private static final String[] SKIPPED_FRAMES = { "java.", "jdk.", "sun.", "com.sun.proxy.", "org.h2.",
+			"com.jdbc.connectionsAndTransactions.jdbc.proxy.", "com.jdbc.connectionsAndTransactions.jdbc.diagnostics." };
+	
+	private final QueryDiagnosticsConfig config;
+	private final Consumer<TransactionReport> reporter;
+	private final long slowQueryThresholdNanos;
+	private final Map<Long, TransactionTrace> traces = new ConcurrentHashMap<>();
+	private final Deque<TransactionReport> reports = new ArrayDeque<>();
+	private final AtomicLong findingCount = new AtomicLong();
+	
+	public QueryDiagnostics(QueryDiagnosticsConfig config) {
+		this(config, report -> {
+		});
+	}
+	
+	public QueryDiagnostics(QueryDiagnosticsConfig config, Consumer<TransactionReport> reporter) {
+		this.config = config;
+		this.reporter = reporter;
+		this.slowQueryThresholdNanos = config.getSlowQueryThreshold().toNanos();
+	}
+	
+	@Override
+	public void afterQuery(long connectionId, String fingerprint, long elapsedNanos, long rowsAffected, Throwable error) {
+		TransactionTrace trace = traces.computeIfAbsent(connectionId, id -> new TransactionTrace());
+		int count = trace.record(fingerprint, elapsedNanos);
+		if (elapsedNanos >= slowQueryThresholdNanos) {
+			QueryFinding finding = new QueryFinding(Type.SLOW_QUERY, fingerprint, 1, elapsedNanos, sampleStack());
+			trace.slowQueries.add(finding);
+			failIfConfigured(finding);
+		}
+		if (count == config.getRepeatedQueryThreshold()) {
+			List<StackTraceElement> stack = sampleStack();
+			trace.repeatedQueryStacks.put(fingerprint, stack);
+			failIfConfigured(new QueryFinding(Type.REPEATED_QUERY, fingerprint, count, trace.maxNanos.get(fingerprint), stack));
+		}
+	}
+	
+	@Override
+	public void afterCommit(long connectionId) {
+		complete(connectionId, Outcome.COMMITTED);
+	}
+	
+	@Override
+	public void afterRollback(long connectionId) {
+		complete(connectionId, Outcome.ROLLED_BACK);
+	}
+	
+	@Override
+	public void afterClose(long connectionId) {
+		complete(connectionId, Outcome.CLOSED);
+	}
+	
+	// Most recent reports first
+	public List<TransactionReport> getReports() {
+		synchronized (reports) {
+			return new ArrayList<>(reports);
+		}
+	}
+	
+	public List<QueryFinding> getFindings(Type type) {
+		return getReports().stream()
+				.flatMap(report -> report.getFindings().stream())
+				.filter(finding -> finding.getType() == type)
+				.collect(Collectors.toList());
+	}
+	
+	public void clear() {
+		synchronized (reports) {
+			reports.clear();
+		}
+	}
+	
+	private void complete(long connectionId, Outcome outcome) {
+		TransactionTrace trace = traces.remove(connectionId);
+		if (trace == null || !trace.hasFindings()) {
+			return;
+		}
+		TransactionReport report = new TransactionReport(connectionId, outcome, trace.queryCount, trace.totalNanos, trace.findings());
+		synchronized (reports) {
+			reports.addFirst(report);
+			while (reports.size() > config.getMaxReports()) {
+				reports.removeLast();
+			}
+		}
+		reporter.accept(report);
+	}
+	
+	private void failIfConfigured(QueryFinding finding) {
+		if (config.getFailOn().contains(finding.getType())) {
+			throw new QueryPatternViolationException(finding);
+		}
+	}
+	
+	private List<StackTraceElement> sampleStack() {
+		if (findingCount.getAndIncrement() % config.getStackSamplingRate() != 0) {
+			return Collections.emptyList();
+		}
+		return STACK_WALKER.walk(frames -> frames
+				.filter(frame -> !isSkipped(frame.getClassName()))
+				.limit(config.getMaxStackDepth())
+				.map(StackWalker.StackFrame::toStackTraceElement)
+				.collect(Collectors.toList()));
+	}
+	
+	private static boolean isSkipped(String className) {
+		for (String prefix : SKIPPED_FRAMES) {
+			if (className.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	// Used by the thread running the transaction only
+	private static class TransactionTrace {
+		private final Map<String, Integer> counts = new HashMap<>();
+		private final Map<String, Long> maxNanos = new HashMap<>();
+		private final Map<String, List<StackTraceElement>> repeatedQueryStacks = new LinkedHashMap<>();
+		private final List<QueryFinding> slowQueries = new ArrayList<>();
+		private int queryCount;
+		private long totalNanos;
+		
+		int record(String fingerprint, long elapsedNanos) {
+			queryCount++;
+			totalNanos += elapsedNanos;
+			maxNanos.merge(fingerprint, elapsedNanos, Math::max);
+			return counts.merge(fingerprint, 1, Integer::sum);
+		}
+		
+		boolean hasFindings() {
+			return !slowQueries.isEmpty() || !repeatedQueryStacks.isEmpty();
+		}
+		
+		List<QueryFinding> findings() {
+			List<QueryFinding> findings = new ArrayList<>(slowQueries);
+			repeatedQueryStacks.forEach((fingerprint, stack) -> findings.add(
+					new QueryFinding(Type.REPEATED_QUERY, fingerprint, counts.get(fingerprint), maxNanos.get(fingerprint), stack)));
+			return findings;
+		}
+	}
+	
+	public static class QueryPatternViolationException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		
+		private final QueryFinding finding;
+		
+		public QueryPatternViolationException(QueryFinding finding) {
+			super(finding.getType() + " " + finding.getFingerprint() + " (" + finding.getCount() + " executions)");
+			this.finding = finding;
+		}
+		
+		public QueryFinding getFinding() {
+			return finding;
+		}
+	}
+	
+}
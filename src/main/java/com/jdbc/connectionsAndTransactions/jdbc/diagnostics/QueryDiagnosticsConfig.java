@@ -0,0 +1,30 @@
+package com.jdbc.connectionsAndTransactions.jdbc.diagnostics;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.QueryFinding.Type;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class QueryDiagnosticsConfig {
+	@Builder.Default
+	private final Duration slowQueryThreshold = Duration.ofMillis(100);
+	// executions of one fingerprint in a transaction reported as N+1
+	@Builder.Default
+	private final int repeatedQueryThreshold = 10;
+	// the calling stack is captured for every n-th finding
+	@Builder.Default
+	private final int stackSamplingRate = 1;
+	@Builder.Default
+	private final int maxStackDepth = 12;
+	@Builder.Default
+	private final int maxReports = 100;
+	// finding types failing the query with a QueryPatternViolationException, for tests
+	@Builder.Default
+	private final Set<Type> failOn = EnumSet.noneOf(Type.class);
+}
@@ -0,0 +1,33 @@
+package com.jdbc.connectionsAndTransactions.jdbc.diagnostics;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Logs a warning for every transaction with slow or repeated queries.
+// Enable with jdbc.query-diagnostics.enabled=true
+@Configuration
+@ConditionalOnProperty(name = "jdbc.query-diagnostics.enabled")
+public class QueryDiagnosticsConfiguration {
+
+	private static final Logger log = LoggerFactory.getLogger(QueryDiagnostics.class);
+	
+	@Bean
+	public QueryDiagnostics queryDiagnostics(
+			@Value("${jdbc.query-diagnostics.slow-query-threshold:100ms}") Duration slowQueryThreshold,
+			@Value("${jdbc.query-diagnostics.repeated-query-threshold:10}") int repeatedQueryThreshold,
+			@Value("${jdbc.query-diagnostics.stack-sampling-rate:1}") int stackSamplingRate) {
+		QueryDiagnosticsConfig config = QueryDiagnosticsConfig.builder()
+				.slowQueryThreshold(slowQueryThreshold)
+				.repeatedQueryThreshold(repeatedQueryThreshold)
+				.stackSamplingRate(stackSamplingRate)
+				.build();
+		return new QueryDiagnostics(config, report -> log.warn("{}", report));
+	}
+	
+}
@@ -0,0 +1,21 @@
+package com.jdbc.connectionsAndTransactions.jdbc.diagnostics;
+
+import java.util.List;
+
+import lombok.Value;
+
+// count is the number of executions in the transaction, elapsedNanos the slowest one.
+// stack is empty when the finding was not sampled.
+@Value
+public class QueryFinding {
+	public enum Type {
+		SLOW_QUERY,
+		REPEATED_QUERY
+	}
+	
+	private final Type type;
+	private final String fingerprint;
+	private final int count;
+	private final long elapsedNanos;
+	private final List<StackTraceElement> stack;
+}
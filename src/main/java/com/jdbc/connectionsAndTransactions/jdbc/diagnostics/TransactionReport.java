@@ -0,0 +1,20 @@
+package com.jdbc.connectionsAndTransactions.jdbc.diagnostics;
+
+import java.util.List;
+
+import lombok.Value;
+
+@Value
+public class TransactionReport {
+	public enum Outcome {
+		COMMITTED,
+		ROLLED_BACK,
+		CLOSED
+	}
+	
+	private final long connectionId;
+	private final Outcome outcome;
+	private final int queryCount;
+	private final long totalNanos;
+	private final List<QueryFinding> findings;
+}
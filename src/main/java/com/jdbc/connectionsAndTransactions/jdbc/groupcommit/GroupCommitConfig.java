@@ -0,0 +1,25 @@
+package com.jdbc.connectionsAndTransactions.jdbc.groupcommit;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class GroupCommitConfig {
+	// threads committing groups, each on its own connection
+	@Builder.Default
+	private final int writers = 1;
+	// units of work waiting for a writer before new ones are rejected
+	@Builder.Default
+	private final int queueCapacity = 8192;
+	// a group is committed as soon as it has this many units of work...
+	@Builder.Default
+	private final int maxGroupSize = 100;
+	// ...or when its first unit waited this long. With 0 a group is just what queued up
+	// during the previous commit, so a lone caller never waits for company.
+	@Builder.Default
+	private final Duration maxGroupDelay = Duration.ZERO;
+	
+}
@@ -0,0 +1,339 @@
+package com.jdbc.connectionsAndTransactions.jdbc.groupcommit;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager.ThrowingFunction;
+
+// Runs small write units of work of many callers in shared transactions, so one commit (and its
+// log flush) pays for a whole group instead of for every unit. Every unit runs behind its own
+// savepoint: a failing unit is rolled back to it and only its caller's future fails, the rest
+// of the group still commits. The futures of the others complete after the commit.
+// Units get a connection they must not commit, roll back, close or switch to autocommit, neither
+// directly nor through its statements. A failure of the commit itself fails every unit of the group,
+// any failure, Errors included, only fails futures and never ends a writer.
+public class GroupCommitCoordinator implements AutoCloseable {
+
+	private final JdbcConnectionManager jdbcConnectionManager;
+	private final BlockingQueue<PendingUnit<?>> queue;
+	private final int maxGroupSize;
+	private final long maxGroupDelayNanos;
+	private final Thread[] writers;
+	private final AtomicLong commits = new AtomicLong();
+	private final AtomicLong committedUnits = new AtomicLong();
+	private final AtomicLong failedUnits = new AtomicLong();
+	private volatile boolean running = true;
+	
+	public GroupCommitCoordinator(JdbcConnectionManager jdbcConnectionManager, GroupCommitConfig config) {
+		this.jdbcConnectionManager = jdbcConnectionManager;
+		this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+		this.maxGroupSize = config.getMaxGroupSize();
+		this.maxGroupDelayNanos = config.getMaxGroupDelay().toNanos();
+		this.writers = new Thread[config.getWriters()];
+		for (int i = 0; i < writers.length; i++) {
+			writers[i] = new Thread(new Writer(), "group-commit-writer-" + (i + 1));
+			writers[i].setDaemon(true);
+			writers[i].start();
+		}
+	}
+	
+	// Never blocks. When the queue is full the future fails with RejectedExecutionException.
+	public <T> CompletableFuture<T> submit(ThrowingFunction<Connection, T, SQLException> unitOfWork) {
+		PendingUnit<T> unit = new PendingUnit<>(unitOfWork);
+		if (!running) {
+			unit.future.completeExceptionally(new RejectedExecutionException("Group commit is shut down"));
+		} else if (!queue.offer(unit)) {
+			unit.future.completeExceptionally(new RejectedExecutionException("Group commit queue is full"));
+		} else if (!running && queue.remove(unit)) {
+			// close() raced with the offer and the writers may be gone already
+			unit.future.completeExceptionally(new RejectedExecutionException("Group commit is shut down"));
+		}
+		return unit.future;
+	}
+	
+	public long getCommitCount() {
+		return commits.get();
+	}
+	
+	public long getCommittedUnitCount() {
+		return committedUnits.get();
+	}
+	
+	public long getFailedUnitCount() {
+		return failedUnits.get();
+	}
+	
+	public int getPendingCount() {
+		return queue.size();
+	}
+	
+	// Stops accepting units of work and returns after all queued ones were committed
+	@Override
+	public void close() {
+		running = false;
+		for (Thread writer : writers) {
+			try {
+				writer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	private class Writer implements Runnable {
+		private final List<PendingUnit<?>> group = new ArrayList<>(maxGroupSize);
+		private Connection connection;
+		private Connection guardedConnection;
+		
+		@Override
+		public void run() {
+			try {
+				while (running || !queue.isEmpty()) {
+					fillGroup();
+					if (!group.isEmpty()) {
+						commitGroup();
+						group.clear();
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				for (PendingUnit<?> unit : group) {
+					unit.fail(new RejectedExecutionException("Group commit writer was interrupted"));
+				}
+			} finally {
+				closeConnection();
+			}
+		}
+		
+		private void fillGroup() throws InterruptedException {
+			PendingUnit<?> first = queue.poll(10, TimeUnit.MILLISECONDS);
+			if (first == null) {
+				return;
+			}
+			group.add(first);
+			queue.drainTo(group, maxGroupSize - group.size());
+			long deadline = System.nanoTime() + maxGroupDelayNanos;
+			while (group.size() < maxGroupSize && running) {
+				long remainingNanos = deadline - System.nanoTime();
+				if (remainingNanos <= 0) {
+					return;
+				}
+				PendingUnit<?> next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+				if (next == null) {
+					return;
+				}
+				group.add(next);
+				queue.drainTo(group, maxGroupSize - group.size());
+			}
+		}
+		
+		private void commitGroup() {
+			List<PendingUnit<?>> succeeded = new ArrayList<>(group.size());
+			try {
+				Connection connection = getConnection();
+				for (PendingUnit<?> unit : group) {
+					if (unit.runBehindSavepoint(connection, guardedConnection)) {
+						succeeded.add(unit);
+					} else {
+						failedUnits.incrementAndGet();
+					}
+				}
+				if (!succeeded.isEmpty()) {
+					connection.commit();
+					commits.incrementAndGet();
+				}
+			} catch (Throwable e) {
+				rollback();
+				for (PendingUnit<?> unit : group) {
+					// units that failed on their own are counted already
+					if (unit.fail(e)) {
+						failedUnits.incrementAndGet();
+					}
+				}
+				return;
+			}
+			committedUnits.addAndGet(succeeded.size());
+			for (PendingUnit<?> unit : succeeded) {
+				unit.complete();
+			}
+		}
+		
+		private Connection getConnection() throws SQLException {
+			if (connection == null || connection.isClosed()) {
+				connection = jdbcConnectionManager.createConnection();
+				if (connection == null) {
+					throw new SQLException("Could not open connection for group commit");
+				}
+				connection.setAutoCommit(false);
+				guardedConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+						new Class<?>[] { Connection.class }, new TransactionGuard(connection));
+			}
+			return connection;
+		}
+		
+		private void rollback() {
+			if (connection == null) {
+				return;
+			}
+			try {
+				connection.rollback();
+			} catch (SQLException e) {
+				// connection is broken, the next group opens a new one
+				e.printStackTrace();
+				closeConnection();
+			}
+		}
+		
+		private void closeConnection() {
+			if (connection != null) {
+				try {
+					connection.close();
+				} catch (SQLException e) {
+					e.printStackTrace();
+				}
+				connection = null;
+				guardedConnection = null;
+			}
+		}
+	}
+	
+	private static class PendingUnit<T> {
+		private final ThrowingFunction<Connection, T, SQLException> unitOfWork;
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+		private T result;
+		
+		private PendingUnit(ThrowingFunction<Connection, T, SQLException> unitOfWork) {
+			this.unitOfWork = unitOfWork;
+		}
+		
+		// False if the unit failed and was rolled back to its savepoint. Throws if even that
+		// failed, then the whole transaction is lost.
+		private boolean runBehindSavepoint(Connection connection, Connection guardedConnection) throws SQLException {
+			Savepoint savepoint = connection.setSavepoint();
+			try {
+				result = unitOfWork.apply(guardedConnection);
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+				connection.rollback(savepoint);
+				return false;
+			}
+			connection.releaseSavepoint(savepoint);
+			return true;
+		}
+		
+		private void complete() {
+			future.complete(result);
+		}
+		
+		private boolean fail(Throwable failure) {
+			return future.completeExceptionally(failure);
+		}
+	}
+	
+	// Keeps units of work from ending the shared transaction
+	private static class TransactionGuard implements InvocationHandler {
+		private final Connection connection;
+		
+		private TransactionGuard(Connection connection) {
+			this.connection = connection;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "commit":
+			case "close":
+			case "abort":
+			case "setAutoCommit":
+				throw notAllowed(method);
+			case "rollback":
+				if (args == null) {
+					throw notAllowed(method);
+				}
+				// rolling back to a savepoint of the unit itself is fine
+				return delegate(connection, method, args);
+			case "unwrap":
+				return unwrap(proxy, (Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			default:
+				Object result = delegate(connection, method, args);
+				if (result instanceof Statement) {
+					// createStatement, prepareStatement and prepareCall
+					return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { method.getReturnType() },
+							new StatementGuard((Statement) result, (Connection) proxy));
+				}
+				return result;
+			}
+		}
+	}
+	
+	// Hands out the guarded connection instead of the shared one
+	private static class StatementGuard implements InvocationHandler {
+		private final Statement statement;
+		private final Connection guardedConnection;
+		
+		private StatementGuard(Statement statement, Connection guardedConnection) {
+			this.statement = statement;
+			this.guardedConnection = guardedConnection;
+		}
+		
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "getConnection":
+				return guardedConnection;
+			case "unwrap":
+				return unwrap(proxy, (Class<?>) args[0]);
+			case "isWrapperFor":
+				return ((Class<?>) args[0]).isInstance(proxy);
+			default:
+				return delegate(statement, method, args);
+			}
+		}
+	}
+	
+	private static SQLException notAllowed(Method method) {
+		return new SQLException(method.getName() + " is not allowed inside a group commit");
+	}
+	
+	private static Object unwrap(Object proxy, Class<?> iface) throws SQLException {
+		if (iface.isInstance(proxy)) {
+			return proxy;
+		}
+		throw new SQLException("unwrap to " + iface.getName() + " is not allowed inside a group commit");
+	}
+	
+	private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+}
@@ -0,0 +1,101 @@
+package com.jdbc.connectionsAndTransactions.jdbc.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.jdbc.connectionsAndTransactions.jdbc.proxy.QueryListener;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Per SQL fingerprint call counts, latency histograms, rows affected and errors,
+// recorded from a ProxyDataSource. Bound meter registries get the meters of every
+// fingerprint, including the ones seen after binding. Past maxFingerprints distinct
+// statements the rest are recorded under OTHER to keep the meter count bounded.
+public class QueryMetrics implements QueryListener, MeterBinder {
+
+	public static final int DEFAULT_MAX_FINGERPRINTS = 1_000;
+	public static final String OTHER = "<other>";
+	
+	private final int maxFingerprints;
+	private final Map<String, StatementMetrics> metrics = new ConcurrentHashMap<>();
+	private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+	
+	public QueryMetrics() {
+		this(DEFAULT_MAX_FINGERPRINTS);
+	}
+	
+	public QueryMetrics(int maxFingerprints) {
+		this.maxFingerprints = maxFingerprints;
+	}
+	
+	@Override
+	public void afterQuery(long connectionId, String fingerprint, long elapsedNanos, long rowsAffected, Throwable error) {
+		StatementMetrics statementMetrics = metrics.get(fingerprint);
+		if (statementMetrics == null && metrics.size() >= maxFingerprints) {
+			statementMetrics = metrics.get(OTHER);
+		}
+		if (statementMetrics == null) {
+			statementMetrics = register(metrics.size() < maxFingerprints ? fingerprint : OTHER);
+		}
+		statementMetrics.record(elapsedNanos, rowsAffected, error != null);
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		registries.add(registry);
+		metrics.values().forEach(statementMetrics -> registerMeters(registry, statementMetrics));
+	}
+	
+	public StatementMetrics getMetrics(String fingerprint) {
+		return metrics.get(fingerprint);
+	}
+	
+	// Slowest statements in total first
+	public List<StatementMetricsSnapshot> snapshot() {
+		return metrics.values().stream()
+				.map(StatementMetrics::snapshot)
+				.sorted(Comparator.comparingLong(StatementMetricsSnapshot::getTotalMicros).reversed())
+				.collect(Collectors.toList());
+	}
+	
+	private StatementMetrics register(String fingerprint) {
+		StatementMetrics created = new StatementMetrics(fingerprint);
+		StatementMetrics existing = metrics.putIfAbsent(fingerprint, created);
+		if (existing != null) {
+			return existing;
+		}
+		registries.forEach(registry -> registerMeters(registry, created));
+		return created;
+	}
+	
+	private static void registerMeters(MeterRegistry registry, StatementMetrics statementMetrics) {
+		String sql = statementMetrics.getFingerprint();
+		FunctionTimer.builder("jdbc.query", statementMetrics, StatementMetrics::getCalls,
+				m -> m.getLatency().getTotalNanos(), TimeUnit.NANOSECONDS)
+				.tag("sql", sql)
+				.register(registry);
+		TimeGauge.builder("jdbc.query.max", statementMetrics, TimeUnit.NANOSECONDS, m -> m.getLatency().getMaxNanos())
+				.tag("sql", sql)
+				.register(registry);
+		TimeGauge.builder("jdbc.query.percentile", statementMetrics, TimeUnit.NANOSECONDS, m -> m.getLatency().getValueAtPercentile(99))
+				.tag("sql", sql)
+				.tag("percentile", "99")
+				.register(registry);
+		FunctionCounter.builder("jdbc.query.rows", statementMetrics, StatementMetrics::getRowsAffected)
+				.tag("sql", sql)
+				.register(registry);
+		FunctionCounter.builder("jdbc.query.errors", statementMetrics, StatementMetrics::getErrors)
+				.tag("sql", sql)
+				.register(registry);
+	}
+	
+}
@@ -0,0 +1,18 @@
+package com.jdbc.connectionsAndTransactions.jdbc.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// QueryMetrics is a MeterBinder, so a Micrometer registry (e.g. from actuator) picks its meters up.
+// Disable with jdbc.query-metrics.enabled=false
+@Configuration
+@ConditionalOnProperty(name = "jdbc.query-metrics.enabled", matchIfMissing = true)
+public class QueryMetricsConfiguration {
+
+	@Bean
+	public QueryMetrics queryMetrics() {
+		return new QueryMetrics();
+	}
+	
+}
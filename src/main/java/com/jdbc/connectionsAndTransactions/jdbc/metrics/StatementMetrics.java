@@ -0,0 +1,48 @@
+package com.jdbc.connectionsAndTransactions.jdbc.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+// Counters of one SQL fingerprint; calls are the number of recorded latencies
+public class StatementMetrics {
+
+	@Getter
+	private final String fingerprint;
+	@Getter
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder rowsAffected = new LongAdder();
+	
+	StatementMetrics(String fingerprint) {
+		this.fingerprint = fingerprint;
+	}
+	
+	void record(long elapsedNanos, long rows, boolean failed) {
+		latency.record(elapsedNanos);
+		rowsAffected.add(rows);
+		if (failed) {
+			errors.increment();
+		}
+	}
+	
+	public long getCalls() {
+		return latency.getCount();
+	}
+	
+	public long getErrors() {
+		return errors.sum();
+	}
+	
+	public long getRowsAffected() {
+		return rowsAffected.sum();
+	}
+	
+	public StatementMetricsSnapshot snapshot() {
+		return new StatementMetricsSnapshot(fingerprint, getCalls(), getErrors(), getRowsAffected(),
+				latency.getTotalNanos() / 1_000, (long) latency.getMeanNanos() / 1_000,
+				latency.getValueAtPercentile(50) / 1_000, latency.getValueAtPercentile(95) / 1_000,
+				latency.getValueAtPercentile(99) / 1_000, latency.getMaxNanos() / 1_000);
+	}
+	
+}
@@ -0,0 +1,18 @@
+package com.jdbc.connectionsAndTransactions.jdbc.metrics;
+
+import lombok.Value;
+
+// Point in time view of StatementMetrics, latencies in microseconds
+@Value
+public class StatementMetricsSnapshot {
+	private final String fingerprint;
+	private final long calls;
+	private final long errors;
+	private final long rowsAffected;
+	private final long totalMicros;
+	private final long meanMicros;
+	private final long p50Micros;
+	private final long p95Micros;
+	private final long p99Micros;
+	private final long maxMicros;
+}
@@ -0,0 +1,66 @@
+package com.jdbc.connectionsAndTransactions.jdbc.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import com.jdbc.connectionsAndTransactions.jdbc.pool.StatementCache.StatementKey;
+
+// close() puts the statement back into the statement cache of its connection instead of closing it
+class CachedStatementHandler implements InvocationHandler {
+
+	private final StatementCache cache;
+	private final StatementKey key;
+	private final PreparedStatement statement;
+	private final Connection connection;
+	private boolean closed;
+	
+	private CachedStatementHandler(StatementCache cache, StatementKey key, PreparedStatement statement, Connection connection) {
+		this.cache = cache;
+		this.key = key;
+		this.statement = statement;
+		this.connection = connection;
+	}
+	
+	static PreparedStatement createProxy(StatementCache cache, StatementKey key, PreparedStatement statement, Connection connection) {
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, new CachedStatementHandler(cache, key, statement, connection));
+	}
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		switch (method.getName()) {
+		case "close":
+			if (!closed) {
+				closed = true;
+				cache.offer(key, statement);
+			}
+			return null;
+		case "isClosed":
+			return closed || statement.isClosed();
+		case "getConnection":
+			return connection;
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "toString":
+			return "Cached" + statement;
+		default:
+			break;
+		}
+		if (closed) {
+			throw new SQLException("Statement is closed");
+		}
+		try {
+			return method.invoke(statement, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+}
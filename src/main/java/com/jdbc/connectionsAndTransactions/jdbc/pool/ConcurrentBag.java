@@ -0,0 +1,164 @@
+package com.jdbc.connectionsAndTransactions.jdbc.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+// Lock-free collection of pooled items, modelled after HikariCP's ConcurrentBag.
+// Items are claimed with a CAS on their state instead of being moved between queues:
+// 1. the borrowing thread first checks the items it returned last (thread-local list),
+// 2. then scans the shared list,
+// 3. and only then waits for an item handed off by a returning thread.
+public class ConcurrentBag<T extends ConcurrentBag.BagEntry> {
+
+	private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+	
+	private final CopyOnWriteArrayList<T> sharedList = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<List<T>> threadList = ThreadLocal.withInitial(() -> new ArrayList<>(MAX_THREAD_LOCAL_ENTRIES));
+	private final SynchronousQueue<T> handoffQueue = new SynchronousQueue<>(true);
+	private final AtomicInteger waiters = new AtomicInteger();
+	
+	// Claims a free item without waiting, returns null if there is none
+	public T poll() {
+		List<T> list = threadList.get();
+		for (int i = list.size() - 1; i >= 0; i--) {
+			T entry = list.remove(i);
+			if (entry.compareAndSetState(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+				return entry;
+			}
+		}
+		return scanSharedList();
+	}
+	
+	public T borrow(long timeout, TimeUnit timeUnit) throws InterruptedException {
+		T entry = poll();
+		if (entry != null) {
+			return entry;
+		}
+		// register as waiter before the second scan, so an item returned in
+		// between is either seen by the scan or handed off to this thread
+		waiters.incrementAndGet();
+		try {
+			entry = scanSharedList();
+			if (entry != null) {
+				return entry;
+			}
+			long remainingNanos = timeUnit.toNanos(timeout);
+			while (remainingNanos > 0) {
+				long start = System.nanoTime();
+				entry = handoffQueue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+				if (entry == null || entry.compareAndSetState(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+					return entry;
+				}
+				remainingNanos -= System.nanoTime() - start;
+			}
+			return null;
+		} finally {
+			waiters.decrementAndGet();
+		}
+	}
+	
+	public void requite(T entry) {
+		entry.setState(BagEntry.STATE_NOT_IN_USE);
+		for (int i = 0; waiters.get() > 0; i++) {
+			if (entry.getState() != BagEntry.STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+				return;
+			} else if ((i & 0xff) == 0xff) {
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+			} else {
+				Thread.yield();
+			}
+		}
+		List<T> list = threadList.get();
+		if (list.size() < MAX_THREAD_LOCAL_ENTRIES) {
+			list.add(entry);
+		}
+	}
+	
+	// Adds an item in its current state, e.g. already in use by the thread that created it
+	public void add(T entry) {
+		sharedList.add(entry);
+		// give the new item to a waiting thread if it is free
+		while (waiters.get() > 0 && entry.getState() == BagEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+			Thread.yield();
+		}
+	}
+	
+	// Items can only be removed when borrowed or reserved
+	public boolean remove(T entry) {
+		if (!entry.compareAndSetState(BagEntry.STATE_IN_USE, BagEntry.STATE_REMOVED)
+				&& !entry.compareAndSetState(BagEntry.STATE_RESERVED, BagEntry.STATE_REMOVED)) {
+			return false;
+		}
+		return sharedList.remove(entry);
+	}
+	
+	// Takes a free item out of circulation without borrowing it
+	public boolean reserve(T entry) {
+		return entry.compareAndSetState(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_RESERVED);
+	}
+	
+	public List<T> values() {
+		return new ArrayList<>(sharedList);
+	}
+	
+	public int getCount(int state) {
+		int count = 0;
+		for (T entry : sharedList) {
+			if (entry.getState() == state) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	public int size() {
+		return sharedList.size();
+	}
+	
+	public int getWaitingThreadCount() {
+		return waiters.get();
+	}
+	
+	private T scanSharedList() {
+		for (T entry : sharedList) {
+			if (entry.compareAndSetState(BagEntry.STATE_NOT_IN_USE, BagEntry.STATE_IN_USE)) {
+				return entry;
+			}
+		}
+		return null;
+	}
+	
+	public abstract static class BagEntry {
+		public static final int STATE_NOT_IN_USE = 0;
+		public static final int STATE_IN_USE = 1;
+		public static final int STATE_REMOVED = -1;
+		public static final int STATE_RESERVED = -2;
+		
+		private static final AtomicIntegerFieldUpdater<BagEntry> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(BagEntry.class, "state");
+		
+		private volatile int state;
+		
+		protected BagEntry(int initialState) {
+			this.state = initialState;
+		}
+		
+		public int getState() {
+			return state;
+		}
+		
+		public void setState(int state) {
+			this.state = state;
+		}
+		
+		public boolean compareAndSetState(int expected, int newState) {
+			return STATE_UPDATER.compareAndSet(this, expected, newState);
+		}
+	}
+	
+}
@@ -0,0 +1,210 @@
+package com.jdbc.connectionsAndTransactions.jdbc.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jdbc.connectionsAndTransactions.jdbc.pool.ConcurrentBag.BagEntry;
+
+public class ConnectionPool implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+	
+	// upper bound of a single wait, so waiters notice slots freed by discarded connections
+	private static final long MAX_WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+	
+	private final ConnectionFactory connectionFactory;
+	private final PoolConfig config;
+	private final ConcurrentBag<PoolEntry> bag = new ConcurrentBag<>();
+	private final AtomicInteger totalConnections = new AtomicInteger();
+	private final PoolMetrics metrics = new PoolMetrics(this);
+	private final long leakDetectionThresholdNanos;
+	private final ScheduledExecutorService leakDetector;
+	private volatile boolean closed;
+	
+	public ConnectionPool(ConnectionFactory connectionFactory, PoolConfig config) {
+		if (config.getMinIdle() > config.getMaxPoolSize() || config.getMaxIdle() < config.getMinIdle()) {
+			throw new IllegalArgumentException("Expected minIdle <= maxIdle and minIdle <= maxPoolSize");
+		}
+		this.connectionFactory = connectionFactory;
+		this.config = config;
+		this.leakDetectionThresholdNanos = config.getLeakDetectionThreshold().toNanos();
+		this.leakDetector = leakDetectionThresholdNanos > 0 ? startLeakDetector() : null;
+		fillMinIdle();
+	}
+	
+	public Connection borrow() throws SQLException {
+		long timeoutNanos = config.getBorrowTimeout().toNanos();
+		long start = System.nanoTime();
+		long remainingNanos = timeoutNanos;
+		try {
+			do {
+				if (closed) {
+					throw new SQLException("Connection pool is closed");
+				}
+				PoolEntry entry = bag.poll();
+				if (entry == null) {
+					entry = createEntryIfBelowLimit();
+				}
+				if (entry == null) {
+					entry = bag.borrow(Math.min(remainingNanos, MAX_WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+				}
+				if (entry != null) {
+					if (entry.isValid(config.getValidationTimeoutSeconds())) {
+						metrics.recordBorrow(System.nanoTime() - start);
+						return PooledConnectionHandler.createProxy(this, entry, leakDetector != null);
+					}
+					discard(entry);
+				}
+				remainingNanos = timeoutNanos - (System.nanoTime() - start);
+			} while (remainingNanos > 0);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+		}
+		metrics.recordBorrowTimeout();
+		throw new SQLTransientConnectionException("Connection is not available, request timed out after "
+				+ TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+	}
+	
+	void release(PoolEntry entry) {
+		metrics.recordRelease(System.nanoTime() - entry.borrowedAt);
+		entry.returned();
+		try {
+			entry.resetState();
+		} catch (SQLException e) {
+			e.printStackTrace();
+			discard(entry);
+			return;
+		}
+		if (closed || getIdleCount() >= config.getMaxIdle()) {
+			discard(entry);
+		} else {
+			bag.requite(entry);
+			if (closed && bag.reserve(entry)) {
+				discard(entry);
+			}
+		}
+	}
+	
+	public int getIdleCount() {
+		return bag.getCount(BagEntry.STATE_NOT_IN_USE);
+	}
+	
+	public int getActiveCount() {
+		return bag.getCount(BagEntry.STATE_IN_USE);
+	}
+	
+	public int getTotalCount() {
+		return totalConnections.get();
+	}
+	
+	public int getPendingCount() {
+		return bag.getWaitingThreadCount();
+	}
+	
+	public PoolConfig getConfig() {
+		return config;
+	}
+	
+	public PoolMetrics getMetrics() {
+		return metrics;
+	}
+	
+	@Override
+	public void close() {
+		closed = true;
+		if (leakDetector != null) {
+			leakDetector.shutdownNow();
+		}
+		for (PoolEntry entry : bag.values()) {
+			// borrowed connections are closed when they are returned
+			if (bag.reserve(entry)) {
+				discard(entry);
+			}
+		}
+	}
+	
+	private PoolEntry createEntryIfBelowLimit() throws SQLException {
+		int total;
+		do {
+			total = totalConnections.get();
+			if (total >= config.getMaxPoolSize()) {
+				return null;
+			}
+		} while (!totalConnections.compareAndSet(total, total + 1));
+		try {
+			PoolEntry entry = new PoolEntry(connectionFactory.create(), BagEntry.STATE_IN_USE, config.getStatementCacheSize());
+			bag.add(entry);
+			return entry;
+		} catch (SQLException | RuntimeException e) {
+			totalConnections.decrementAndGet();
+			throw e;
+		}
+	}
+	
+	private void discard(PoolEntry entry) {
+		if (bag.remove(entry)) {
+			totalConnections.decrementAndGet();
+			entry.closeConnection();
+		}
+	}
+	
+	private ScheduledExecutorService startLeakDetector() {
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "connection-leak-detector");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long periodNanos = Math.max(leakDetectionThresholdNanos / 4, TimeUnit.MILLISECONDS.toNanos(10));
+		executor.scheduleAtFixedRate(this::detectLeaks, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+		return executor;
+	}
+	
+	// Reports every connection borrowed longer than the threshold once, with the stack that borrowed it
+	void detectLeaks() {
+		long now = System.nanoTime();
+		for (PoolEntry entry : bag.values()) {
+			PooledConnectionHandler borrower = entry.borrower;
+			if (borrower == null || entry.leakReported || entry.getState() != BagEntry.STATE_IN_USE
+					|| now - entry.borrowedAt < leakDetectionThresholdNanos) {
+				continue;
+			}
+			entry.leakReported = true;
+			boolean reclaimed = config.isReclaimLeakedConnections() && borrower.reclaim();
+			metrics.recordLeak(reclaimed);
+			log.warn("Connection {} held for {}ms, longer than the leak detection threshold{}", entry.getConnection(),
+					TimeUnit.NANOSECONDS.toMillis(now - entry.borrowedAt), reclaimed ? ", reclaimed" : "", entry.acquisitionTrace);
+			if (reclaimed) {
+				entry.returned();
+				discard(entry);
+			}
+		}
+	}
+	
+	private void fillMinIdle() {
+		for (int i = 0; i < config.getMinIdle(); i++) {
+			try {
+				PoolEntry entry = new PoolEntry(connectionFactory.create(), BagEntry.STATE_NOT_IN_USE, config.getStatementCacheSize());
+				totalConnections.incrementAndGet();
+				bag.add(entry);
+			} catch (SQLException e) {
+				e.printStackTrace();
+				return;
+			}
+		}
+	}
+	
+	@FunctionalInterface
+	public interface ConnectionFactory {
+		Connection create() throws SQLException;
+	}
+	
+}
@@ -0,0 +1,34 @@
+package com.jdbc.connectionsAndTransactions.jdbc.pool;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class PoolConfig {
+	// connections opened eagerly when the pool starts
+	@Builder.Default
+	private final int minIdle = 2;
+	// idle connections above this number are closed physically when returned
+	@Builder.Default
+	private final int maxIdle = 10;
+	// upper bound of connections (idle + borrowed) opened by the pool
+	@Builder.Default
+	private final int maxPoolSize = 10;
+	@Builder.Default
+	private final Duration borrowTimeout = Duration.ofSeconds(30);
+	@Builder.Default
+	private final int validationTimeoutSeconds = 1;
+	// prepared statements kept open per connection, 0 disables statement caching
+	@Builder.Default
+	private final int statementCacheSize = 32;
+	// connections borrowed for longer are reported with their acquisition stack, ZERO disables leak detection
+	@Builder.Default
+	private final Duration leakDetectionThreshold = Duration.ZERO;
+	// closes leaked connections instead of only reporting them, their borrowers get SQLExceptions afterwards
+	@Builder.Default
+	private final boolean reclaimLeakedConnections = false;
+	
+}
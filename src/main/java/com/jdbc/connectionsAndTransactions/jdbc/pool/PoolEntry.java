@@ -0,0 +1,93 @@
+package com.jdbc.connectionsAndTransactions.jdbc.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+class PoolEntry extends ConcurrentBag.BagEntry {
+
+	private final Connection connection;
+	private final boolean defaultAutoCommit;
+	private final int defaultTransactionIsolation;
+	private final boolean defaultReadOnly;
+	private final StatementCache statementCache;
+	
+	// set by the connection proxy when the borrower changed connection state
+	boolean autoCommitDirty;
+	boolean transactionIsolationDirty;
+	boolean readOnlyDirty;
+	
+	// set on every borrow, read by the leak detector
+	volatile long borrowedAt;
+	volatile Throwable acquisitionTrace;
+	volatile PooledConnectionHandler borrower;
+	volatile boolean leakReported;
+	
+	PoolEntry(Connection connection, int initialState, int statementCacheSize) throws SQLException {
+		super(initialState);
+		this.connection = connection;
+		this.statementCache = statementCacheSize > 0 ? new StatementCache(statementCacheSize) : null;
+		this.defaultAutoCommit = connection.getAutoCommit();
+		this.defaultTransactionIsolation = connection.getTransactionIsolation();
+		this.defaultReadOnly = connection.isReadOnly();
+	}
+	
+	Connection getConnection() {
+		return connection;
+	}
+	
+	StatementCache getStatementCache() {
+		return statementCache;
+	}
+	
+	void borrowed(PooledConnectionHandler borrower, boolean traceAcquisition) {
+		this.borrowedAt = System.nanoTime();
+		this.acquisitionTrace = traceAcquisition ? new Throwable("Connection acquired here") : null;
+		this.borrower = borrower;
+		this.leakReported = false;
+	}
+	
+	void returned() {
+		borrower = null;
+		acquisitionTrace = null;
+	}
+	
+	boolean isValid(int timeoutSeconds) {
+		try {
+			return !connection.isClosed() && connection.isValid(timeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+	
+	void resetState() throws SQLException {
+		// switching autocommit on would commit pending work, so roll it back first
+		if (!connection.getAutoCommit()) {
+			connection.rollback();
+		}
+		if (autoCommitDirty) {
+			connection.setAutoCommit(defaultAutoCommit);
+			autoCommitDirty = false;
+		}
+		if (transactionIsolationDirty) {
+			connection.setTransactionIsolation(defaultTransactionIsolation);
+			transactionIsolationDirty = false;
+		}
+		if (readOnlyDirty) {
+			connection.setReadOnly(defaultReadOnly);
+			readOnlyDirty = false;
+		}
+		connection.clearWarnings();
+	}
+	
+	void closeConnection() {
+		if (statementCache != null) {
+			statementCache.close();
+		}
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+}
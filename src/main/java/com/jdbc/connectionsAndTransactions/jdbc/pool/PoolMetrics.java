@@ -0,0 +1,93 @@
+package com.jdbc.connectionsAndTransactions.jdbc.pool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.jdbc.connectionsAndTransactions.jdbc.metrics.LatencyHistogram;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Connection lifecycle of a pool: how long borrowers waited, how long they held connections
+// and how many connections leaked. The gauges read the pool counts when they are sampled.
+public class PoolMetrics implements MeterBinder {
+
+	private final ConnectionPool pool;
+	private final LatencyHistogram borrowWait = new LatencyHistogram();
+	private final LatencyHistogram holdTime = new LatencyHistogram();
+	private final LongAdder borrowTimeouts = new LongAdder();
+	private final LongAdder leaksDetected = new LongAdder();
+	private final LongAdder leaksReclaimed = new LongAdder();
+	
+	PoolMetrics(ConnectionPool pool) {
+		this.pool = pool;
+	}
+	
+	void recordBorrow(long waitNanos) {
+		borrowWait.record(waitNanos);
+	}
+	
+	void recordBorrowTimeout() {
+		borrowTimeouts.increment();
+	}
+	
+	void recordRelease(long heldNanos) {
+		holdTime.record(heldNanos);
+	}
+	
+	void recordLeak(boolean reclaimed) {
+		leaksDetected.increment();
+		if (reclaimed) {
+			leaksReclaimed.increment();
+		}
+	}
+	
+	public LatencyHistogram getBorrowWait() {
+		return borrowWait;
+	}
+	
+	public LatencyHistogram getHoldTime() {
+		return holdTime;
+	}
+	
+	public long getBorrowTimeouts() {
+		return borrowTimeouts.sum();
+	}
+	
+	public long getLeaksDetected() {
+		return leaksDetected.sum();
+	}
+	
+	public long getLeaksReclaimed() {
+		return leaksReclaimed.sum();
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("jdbc.pool.active", pool, ConnectionPool::getActiveCount).register(registry);
+		Gauge.builder("jdbc.pool.idle", pool, ConnectionPool::getIdleCount).register(registry);
+		Gauge.builder("jdbc.pool.pending", pool, ConnectionPool::getPendingCount).register(registry);
+		Gauge.builder("jdbc.pool.total", pool, ConnectionPool::getTotalCount).register(registry);
+		FunctionTimer.builder("jdbc.pool.borrow.wait", borrowWait, LatencyHistogram::getCount,
+				LatencyHistogram::getTotalNanos, TimeUnit.NANOSECONDS).register(registry);
+		TimeGauge.builder("jdbc.pool.borrow.wait.max", borrowWait, TimeUnit.NANOSECONDS, LatencyHistogram::getMaxNanos).register(registry);
+		FunctionTimer.builder("jdbc.pool.hold", holdTime, LatencyHistogram::getCount,
+				LatencyHistogram::getTotalNanos, TimeUnit.NANOSECONDS).register(registry);
+		TimeGauge.builder("jdbc.pool.hold.max", holdTime, TimeUnit.NANOSECONDS, LatencyHistogram::getMaxNanos).register(registry);
+		FunctionCounter.builder("jdbc.pool.borrow.timeouts", this, PoolMetrics::getBorrowTimeouts).register(registry);
+		FunctionCounter.builder("jdbc.pool.leaks", this, PoolMetrics::getLeaksDetected).register(registry);
+	}
+	
+	@Override
+	public String toString() {
+		return "PoolMetrics(active=" + pool.getActiveCount() + ", idle=" + pool.getIdleCount() + ", pending=" + pool.getPendingCount()
+				+ ", borrowWaitP99Micros=" + borrowWait.getValueAtPercentile(99) / 1_000
+				+ ", holdTimeP99Micros=" + holdTime.getValueAtPercentile(99) / 1_000
+				+ ", borrowTimeouts=" + getBorrowTimeouts() + ", leaks=" + getLeaksDetected() + ")";
+	}
+	
+}
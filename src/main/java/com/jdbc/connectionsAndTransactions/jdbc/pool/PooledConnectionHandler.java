@@ -0,0 +1,105 @@
+package com.jdbc.connectionsAndTransactions.jdbc.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.jdbc.connectionsAndTransactions.jdbc.pool.StatementCache.StatementKey;
+
+// Hands out the physical connection of a pool entry to a single borrower.
+// close() gives the connection back to the pool instead of closing it. The physical connection
+// is never handed out, unwrap() only returns the proxy itself.
+class PooledConnectionHandler implements InvocationHandler {
+
+	private final ConnectionPool pool;
+	private final PoolEntry entry;
+	private final AtomicBoolean closed = new AtomicBoolean();
+	
+	private PooledConnectionHandler(ConnectionPool pool, PoolEntry entry) {
+		this.pool = pool;
+		this.entry = entry;
+	}
+	
+	static Connection createProxy(ConnectionPool pool, PoolEntry entry, boolean traceAcquisition) {
+		PooledConnectionHandler handler = new PooledConnectionHandler(pool, entry);
+		entry.borrowed(handler, traceAcquisition);
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, handler);
+	}
+	
+	// Takes the connection away from its borrower, the caller then discards the entry
+	boolean reclaim() {
+		return closed.compareAndSet(false, true);
+	}
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		switch (method.getName()) {
+		case "close":
+			if (closed.compareAndSet(false, true)) {
+				pool.release(entry);
+			}
+			return null;
+		case "isClosed":
+			return closed.get() || entry.getConnection().isClosed();
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "toString":
+			return "Pooled" + entry.getConnection();
+		case "unwrap":
+			if (((Class<?>) args[0]).isInstance(proxy)) {
+				return proxy;
+			}
+			throw new SQLException("Pooled connection can't be unwrapped to " + ((Class<?>) args[0]).getName());
+		case "isWrapperFor":
+			return ((Class<?>) args[0]).isInstance(proxy);
+		case "prepareStatement":
+			if (!closed.get() && entry.getStatementCache() != null && isCacheable(args)) {
+				return prepareCachedStatement(proxy, (String) args[0], args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS);
+			}
+			break;
+		case "setAutoCommit":
+			entry.autoCommitDirty = true;
+			break;
+		case "setTransactionIsolation":
+			entry.transactionIsolationDirty = true;
+			break;
+		case "setReadOnly":
+			entry.readOnlyDirty = true;
+			break;
+		default:
+			break;
+		}
+		if (closed.get()) {
+			throw new SQLException("Connection is closed");
+		}
+		try {
+			return method.invoke(entry.getConnection(), args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+	// prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys)
+	private static boolean isCacheable(Object[] args) {
+		return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+	}
+	
+	private PreparedStatement prepareCachedStatement(Object proxy, String sql, int autoGeneratedKeys) throws SQLException {
+		StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+		PreparedStatement statement = entry.getStatementCache().take(key);
+		if (statement == null) {
+			statement = entry.getConnection().prepareStatement(sql, autoGeneratedKeys);
+		}
+		return CachedStatementHandler.createProxy(entry.getStatementCache(), key, statement, (Connection) proxy);
+	}
+	
+}
@@ -0,0 +1,100 @@
+package com.jdbc.connectionsAndTransactions.jdbc.pool;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Value;
+
+// LRU cache of prepared statements of a single physical connection.
+// A statement is taken out of the cache while it is in use, so two callers never share it.
+// Synchronized because the leak detector may close the cache while the borrower still returns
+// statements to it, those are closed instead of cached.
+class StatementCache {
+
+	private final Map<StatementKey, PreparedStatement> statements;
+	private long hitCount;
+	private long missCount;
+	private boolean closed;
+	
+	StatementCache(int maxSize) {
+		this.statements = new LinkedHashMap<StatementKey, PreparedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+				if (size() > maxSize) {
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	synchronized PreparedStatement take(StatementKey key) {
+		PreparedStatement statement = statements.remove(key);
+		if (statement != null) {
+			hitCount++;
+		} else {
+			missCount++;
+		}
+		return statement;
+	}
+	
+	synchronized void offer(StatementKey key, PreparedStatement statement) {
+		if (closed) {
+			closeQuietly(statement);
+			return;
+		}
+		try {
+			if (statement.isClosed()) {
+				return;
+			}
+			statement.clearParameters();
+			statement.clearBatch();
+			statement.clearWarnings();
+		} catch (SQLException e) {
+			closeQuietly(statement);
+			return;
+		}
+		PreparedStatement replaced = statements.put(key, statement);
+		if (replaced != null) {
+			closeQuietly(replaced);
+		}
+	}
+	
+	synchronized void close() {
+		closed = true;
+		statements.values().forEach(StatementCache::closeQuietly);
+		statements.clear();
+	}
+	
+	synchronized int size() {
+		return statements.size();
+	}
+	
+	synchronized long getHitCount() {
+		return hitCount;
+	}
+	
+	synchronized long getMissCount() {
+		return missCount;
+	}
+	
+	private static void closeQuietly(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	@Value
+	static class StatementKey {
+		String sql;
+		int autoGeneratedKeys;
+	}
+	
+}
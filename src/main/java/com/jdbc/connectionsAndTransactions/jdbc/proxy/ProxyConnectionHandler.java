@@ -0,0 +1,101 @@
+package com.jdbc.connectionsAndTransactions.jdbc.proxy;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Wraps statements created by the connection and reports transaction boundaries to the listeners
+class ProxyConnectionHandler implements InvocationHandler {
+
+	private static final AtomicLong CONNECTION_IDS = new AtomicLong();
+	
+	private final Connection connection;
+	private final QueryListener[] listeners;
+	private final long id = CONNECTION_IDS.incrementAndGet();
+	
+	private ProxyConnectionHandler(Connection connection, QueryListener[] listeners) {
+		this.connection = connection;
+		this.listeners = listeners;
+	}
+	
+	static Connection createProxy(Connection connection, QueryListener[] listeners) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new ProxyConnectionHandler(connection, listeners));
+	}
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		switch (method.getName()) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "toString":
+			return "Proxy" + connection;
+		case "createStatement":
+			return ProxyStatementHandler.createProxy(Statement.class, (Statement) invokeDelegate(method, args), null, (Connection) proxy, this);
+		case "prepareStatement":
+			return ProxyStatementHandler.createProxy(PreparedStatement.class, (Statement) invokeDelegate(method, args),
+					SqlFingerprint.of((String) args[0]), (Connection) proxy, this);
+		case "prepareCall":
+			return ProxyStatementHandler.createProxy(CallableStatement.class, (Statement) invokeDelegate(method, args),
+					SqlFingerprint.of((String) args[0]), (Connection) proxy, this);
+		case "commit":
+			invokeDelegate(method, args);
+			for (QueryListener listener : listeners) {
+				listener.afterCommit(id);
+			}
+			return null;
+		case "rollback":
+			invokeDelegate(method, args);
+			// rollback(Savepoint) keeps the transaction open
+			if (args == null) {
+				for (QueryListener listener : listeners) {
+					listener.afterRollback(id);
+				}
+			}
+			return null;
+		case "setAutoCommit":
+			// switching autocommit on commits the running transaction
+			boolean commits = (Boolean) args[0] && !connection.isClosed() && !connection.getAutoCommit();
+			invokeDelegate(method, args);
+			if (commits) {
+				for (QueryListener listener : listeners) {
+					listener.afterCommit(id);
+				}
+			}
+			return null;
+		case "close":
+			invokeDelegate(method, args);
+			for (QueryListener listener : listeners) {
+				listener.afterClose(id);
+			}
+			return null;
+		default:
+			return invokeDelegate(method, args);
+		}
+	}
+	
+	long getId() {
+		return id;
+	}
+	
+	QueryListener[] getListeners() {
+		return listeners;
+	}
+	
+	private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(connection, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+}
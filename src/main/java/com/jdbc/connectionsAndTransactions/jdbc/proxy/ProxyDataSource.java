@@ -0,0 +1,78 @@
+package com.jdbc.connectionsAndTransactions.jdbc.proxy;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+// Wraps the connections and statements of a DataSource and reports every statement
+// execution, commit, rollback and close to the listeners. Unlike P6DataSource it
+// formats nothing, the listeners only get the SQL fingerprint computed once per statement.
+public class ProxyDataSource implements DataSource {
+
+	private final DataSource delegate;
+	private final QueryListener[] listeners;
+	
+	public ProxyDataSource(DataSource delegate, List<? extends QueryListener> listeners) {
+		this.delegate = delegate;
+		this.listeners = listeners.toArray(new QueryListener[0]);
+	}
+	
+	public ProxyDataSource(DataSource delegate, QueryListener... listeners) {
+		this(delegate, List.of(listeners));
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		return ProxyConnectionHandler.createProxy(delegate.getConnection(), listeners);
+	}
+	
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return ProxyConnectionHandler.createProxy(delegate.getConnection(username, password), listeners);
+	}
+	
+	public DataSource getDelegate() {
+		return delegate;
+	}
+	
+	@Override
+	public PrintWriter getLogWriter() throws SQLException {
+		return delegate.getLogWriter();
+	}
+	
+	@Override
+	public void setLogWriter(PrintWriter out) throws SQLException {
+		delegate.setLogWriter(out);
+	}
+	
+	@Override
+	public void setLoginTimeout(int seconds) throws SQLException {
+		delegate.setLoginTimeout(seconds);
+	}
+	
+	@Override
+	public int getLoginTimeout() throws SQLException {
+		return delegate.getLoginTimeout();
+	}
+	
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		return delegate.getParentLogger();
+	}
+	
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		return iface.isInstance(this) ? iface.cast(this) : delegate.unwrap(iface);
+	}
+	
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || delegate.isWrapperFor(iface);
+	}
+	
+}
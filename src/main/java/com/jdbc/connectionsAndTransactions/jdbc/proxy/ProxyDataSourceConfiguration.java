@@ -0,0 +1,31 @@
+package com.jdbc.connectionsAndTransactions.jdbc.proxy;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Wraps every DataSource bean of the application in a ProxyDataSource reporting to all QueryListener beans
+@Configuration
+public class ProxyDataSourceConfiguration {
+
+	@Bean
+	public static BeanPostProcessor queryListenerDataSourceWrapper(ObjectProvider<QueryListener> queryListeners) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+					List<QueryListener> listeners = queryListeners.orderedStream().collect(Collectors.toList());
+					return listeners.isEmpty() ? bean : new ProxyDataSource((DataSource) bean, listeners);
+				}
+				return bean;
+			}
+		};
+	}
+	
+}
@@ -0,0 +1,129 @@
+package com.jdbc.connectionsAndTransactions.jdbc.proxy;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+// Times every execute* call of the statement and reports it with the rows it affected
+class ProxyStatementHandler implements InvocationHandler {
+
+	private final Statement statement;
+	// fixed for prepared and callable statements, null for plain statements
+	private final String fingerprint;
+	private final Connection connection;
+	private final ProxyConnectionHandler connectionHandler;
+	private String batchFingerprint;
+	
+	private ProxyStatementHandler(Statement statement, String fingerprint, Connection connection, ProxyConnectionHandler connectionHandler) {
+		this.statement = statement;
+		this.fingerprint = fingerprint;
+		this.connection = connection;
+		this.connectionHandler = connectionHandler;
+	}
+	
+	static Object createProxy(Class<? extends Statement> type, Statement statement, String fingerprint, Connection connection,
+			ProxyConnectionHandler connectionHandler) {
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				new ProxyStatementHandler(statement, fingerprint, connection, connectionHandler));
+	}
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		switch (name) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "toString":
+			return "Proxy" + statement;
+		case "getConnection":
+			return connection;
+		case "addBatch":
+			// a plain statement batch is reported under its first statement
+			if (args != null && batchFingerprint == null) {
+				batchFingerprint = SqlFingerprint.of((String) args[0]);
+			}
+			break;
+		case "clearBatch":
+			batchFingerprint = null;
+			break;
+		default:
+			if (name.startsWith("execute")) {
+				return execute(name, method, args);
+			}
+			break;
+		}
+		return invokeDelegate(method, args);
+	}
+	
+	private Object execute(String name, Method method, Object[] args) throws Throwable {
+		String executed = executedFingerprint(name, args);
+		long start = System.nanoTime();
+		Object result;
+		try {
+			result = method.invoke(statement, args);
+		} catch (InvocationTargetException e) {
+			long elapsed = System.nanoTime() - start;
+			for (QueryListener listener : connectionHandler.getListeners()) {
+				listener.afterQuery(connectionHandler.getId(), executed, elapsed, 0, e.getCause());
+			}
+			throw e.getCause();
+		}
+		long elapsed = System.nanoTime() - start;
+		long rows = rowsAffected(result);
+		for (QueryListener listener : connectionHandler.getListeners()) {
+			listener.afterQuery(connectionHandler.getId(), executed, elapsed, rows, null);
+		}
+		return result;
+	}
+	
+	private String executedFingerprint(String name, Object[] args) {
+		if (fingerprint != null) {
+			return fingerprint;
+		}
+		if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+			String executed = batchFingerprint != null ? batchFingerprint : SqlFingerprint.UNKNOWN;
+			batchFingerprint = null;
+			return executed;
+		}
+		return args != null && args[0] instanceof String ? SqlFingerprint.of((String) args[0]) : SqlFingerprint.UNKNOWN;
+	}
+	
+	private long rowsAffected(Object result) throws Exception {
+		if (result instanceof Integer || result instanceof Long) {
+			return ((Number) result).longValue();
+		}
+		if (result instanceof int[]) {
+			long rows = 0;
+			for (int count : (int[]) result) {
+				rows += Math.max(count, 0);
+			}
+			return rows;
+		}
+		if (result instanceof long[]) {
+			long rows = 0;
+			for (long count : (long[]) result) {
+				rows += Math.max(count, 0);
+			}
+			return rows;
+		}
+		// execute() returns false when the statement produced an update count
+		if (Boolean.FALSE.equals(result)) {
+			return Math.max(statement.getUpdateCount(), 0);
+		}
+		return 0;
+	}
+	
+	private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(statement, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+}
@@ -0,0 +1,18 @@
+package com.jdbc.connectionsAndTransactions.jdbc.proxy;
+
+// Callbacks of a ProxyDataSource. They run on the calling thread right after the JDBC call,
+// so implementations must be cheap; an exception thrown here is propagated to the caller.
+public interface QueryListener {
+
+	void afterQuery(long connectionId, String fingerprint, long elapsedNanos, long rowsAffected, Throwable error);
+	
+	default void afterCommit(long connectionId) {
+	}
+	
+	default void afterRollback(long connectionId) {
+	}
+	
+	default void afterClose(long connectionId) {
+	}
+	
+}
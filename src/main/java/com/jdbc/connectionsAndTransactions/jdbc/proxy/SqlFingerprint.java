@@ -0,0 +1,54 @@
+package com.jdbc.connectionsAndTransactions.jdbc.proxy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Normalizes SQL so that statements differing only in literal values share one fingerprint:
+// literals become '?', IN lists collapse to 'in (?)', whitespace and case are normalized.
+// Fingerprints are cached by the raw SQL, so repeated statements cost a map lookup.
+// Lookups don't lock, as every statement of every connection goes through here. The cache is
+// cleared once it holds MAX_CACHED statements, so one-off statements with inlined literals can't
+// fill it up for good and send every statement seen later through the regexes; hot statements
+// are normalized once more after a clear.
+public final class SqlFingerprint {
+
+	public static final String UNKNOWN = "<unknown>";
+	
+	private static final int MAX_CACHED = 10_000;
+	
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+	private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	
+	private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+	
+	private SqlFingerprint() {
+	}
+	
+	public static String of(String sql) {
+		if (sql == null) {
+			return UNKNOWN;
+		}
+		String fingerprint = CACHE.get(sql);
+		if (fingerprint == null) {
+			fingerprint = normalize(sql);
+			if (CACHE.size() >= MAX_CACHED) {
+				// racing threads may clear twice or overshoot by a few entries, both are harmless
+				CACHE.clear();
+			}
+			CACHE.put(sql, fingerprint);
+		}
+		return fingerprint;
+	}
+	
+	static String normalize(String sql) {
+		String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+		normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+		normalized = WHITESPACE.matcher(normalized.trim()).replaceAll(" ").toLowerCase();
+		normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+		return normalized.endsWith(";") ? normalized.substring(0, normalized.length() - 1).trim() : normalized;
+	}
+	
+}
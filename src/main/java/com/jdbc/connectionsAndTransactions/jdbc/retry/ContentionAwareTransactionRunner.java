@@ -0,0 +1,64 @@
+package com.jdbc.connectionsAndTransactions.jdbc.retry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager.ThrowingFunction;
+
+// Runs a unit of work in its own transaction and retries it with bounded backoff
+// when it fails with a deadlock, lock timeout or serialization failure.
+// Any other SQLException is rethrown right away instead of being printed and swallowed.
+public class ContentionAwareTransactionRunner {
+
+	private final JdbcConnectionManager jdbcConnectionManager;
+	private final RetryConfig config;
+	private final Map<String, LockWaitStatistics> statistics = new ConcurrentHashMap<>();
+	
+	public ContentionAwareTransactionRunner(JdbcConnectionManager jdbcConnectionManager, RetryConfig config) {
+		this.jdbcConnectionManager = jdbcConnectionManager;
+		this.config = config;
+	}
+	
+	public <T> T execute(String key, ThrowingFunction<Connection, T, SQLException> unitOfWork) throws SQLException {
+		LockWaitStatistics keyStatistics = statistics.computeIfAbsent(key, k -> new LockWaitStatistics());
+		for (int attempt = 1; ; attempt++) {
+			keyStatistics.recordAttempt();
+			long start = System.nanoTime();
+			TransactionAttempt<T> result = TransactionAttempt.run(jdbcConnectionManager, unitOfWork);
+			if (result.getRuntimeError() != null) {
+				throw result.getRuntimeError();
+			}
+			if (result.isSuccessful()) {
+				keyStatistics.recordSuccess();
+				return result.getValue();
+			}
+			SqlFailureType failureType = SqlFailureType.classify(result.getError());
+			keyStatistics.recordFailure(failureType, System.nanoTime() - start);
+			if (!failureType.isRetryable() || attempt >= config.getMaxAttempts()) {
+				throw result.getError();
+			}
+			long backoffNanos = config.backoffNanos(attempt, ThreadLocalRandom.current().nextDouble());
+			if (backoffNanos > 0) {
+				LockSupport.parkNanos(backoffNanos);
+			}
+			if (Thread.currentThread().isInterrupted()) {
+				throw result.getError();
+			}
+		}
+	}
+	
+	public LockWaitStatistics getStatistics(String key) {
+		return statistics.getOrDefault(key, new LockWaitStatistics());
+	}
+	
+	public Map<String, LockWaitStatistics> getStatistics() {
+		return Collections.unmodifiableMap(statistics);
+	}
+	
+}
@@ -0,0 +1,66 @@
+package com.jdbc.connectionsAndTransactions.jdbc.retry;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock contention seen by one kind of unit of work. The wait of a failure is the time
+// from the start of the attempt until the database gave up on the lock.
+public class LockWaitStatistics {
+
+	private final Map<SqlFailureType, LongAdder> failures = new EnumMap<>(SqlFailureType.class);
+	private final LongAdder attempts = new LongAdder();
+	private final LongAdder successes = new LongAdder();
+	private final LongAdder totalWaitNanos = new LongAdder();
+	private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+	
+	public LockWaitStatistics() {
+		for (SqlFailureType type : SqlFailureType.values()) {
+			failures.put(type, new LongAdder());
+		}
+	}
+	
+	void recordAttempt() {
+		attempts.increment();
+	}
+	
+	void recordSuccess() {
+		successes.increment();
+	}
+	
+	void recordFailure(SqlFailureType type, long waitNanos) {
+		failures.get(type).increment();
+		if (type.isRetryable()) {
+			totalWaitNanos.add(waitNanos);
+			maxWaitNanos.accumulate(waitNanos);
+		}
+	}
+	
+	public long getAttempts() {
+		return attempts.sum();
+	}
+	
+	public long getSuccesses() {
+		return successes.sum();
+	}
+	
+	public long getFailures(SqlFailureType type) {
+		return failures.get(type).sum();
+	}
+	
+	public long getTotalWaitNanos() {
+		return totalWaitNanos.sum();
+	}
+	
+	public long getMaxWaitNanos() {
+		return maxWaitNanos.get();
+	}
+	
+	@Override
+	public String toString() {
+		return "LockWaitStatistics(attempts=" + getAttempts() + ", successes=" + getSuccesses() + ", failures=" + failures
+				+ ", totalWaitMillis=" + getTotalWaitNanos() / 1_000_000 + ", maxWaitMillis=" + getMaxWaitNanos() / 1_000_000 + ")";
+	}
+	
+}
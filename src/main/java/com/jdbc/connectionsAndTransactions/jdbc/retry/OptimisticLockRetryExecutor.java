@@ -0,0 +1,68 @@
+package com.jdbc.connectionsAndTransactions.jdbc.retry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager.ThrowingFunction;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository.OptimisticLockingException;
+
+// Runs a unit of work in its own transaction on a new connection and runs it again
+// in a fresh transaction when it fails with OptimisticLockingException.
+// Retries wait with exponential backoff and jitter. Statistics are kept per key, e.g. per item id.
+public class OptimisticLockRetryExecutor {
+
+	private final JdbcConnectionManager jdbcConnectionManager;
+	private final RetryConfig config;
+	private final Map<String, RetryStatistics> statistics = new ConcurrentHashMap<>();
+	
+	public OptimisticLockRetryExecutor(JdbcConnectionManager jdbcConnectionManager, RetryConfig config) {
+		this.jdbcConnectionManager = jdbcConnectionManager;
+		this.config = config;
+	}
+	
+	public <T> T execute(String key, ThrowingFunction<Connection, T, SQLException> unitOfWork) throws SQLException {
+		RetryStatistics keyStatistics = statistics.computeIfAbsent(key, k -> new RetryStatistics());
+		for (int attempt = 1; ; attempt++) {
+			keyStatistics.recordAttempt();
+			TransactionAttempt<T> result = TransactionAttempt.run(jdbcConnectionManager, unitOfWork);
+			if (result.getError() != null) {
+				throw result.getError();
+			}
+			if (result.isSuccessful()) {
+				keyStatistics.recordSuccess();
+				return result.getValue();
+			}
+			if (!(result.getRuntimeError() instanceof OptimisticLockingException)) {
+				throw result.getRuntimeError();
+			}
+			OptimisticLockingException conflict = (OptimisticLockingException) result.getRuntimeError();
+			if (attempt >= config.getMaxAttempts()) {
+				keyStatistics.recordExhausted();
+				throw conflict;
+			}
+			long backoffNanos = config.backoffNanos(attempt, ThreadLocalRandom.current().nextDouble());
+			keyStatistics.recordRetry(backoffNanos);
+			if (backoffNanos > 0) {
+				LockSupport.parkNanos(backoffNanos);
+			}
+			if (Thread.currentThread().isInterrupted()) {
+				throw conflict;
+			}
+		}
+	}
+	
+	public RetryStatistics getStatistics(String key) {
+		return statistics.getOrDefault(key, new RetryStatistics());
+	}
+	
+	public Map<String, RetryStatistics> getStatistics() {
+		return Collections.unmodifiableMap(statistics);
+	}
+	
+}
@@ -0,0 +1,36 @@
+package com.jdbc.connectionsAndTransactions.jdbc.retry;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class RetryConfig {
+	// including the first attempt
+	@Builder.Default
+	private final int maxAttempts = 5;
+	// backoff before the first retry, doubled for every further retry; zero retries immediately
+	@Builder.Default
+	private final Duration initialBackoff = Duration.ofMillis(5);
+	@Builder.Default
+	private final Duration maxBackoff = Duration.ofMillis(500);
+	// wait a random time between zero and the backoff, so conflicting callers don't retry together
+	@Builder.Default
+	private final boolean jitter = true;
+	
+	long backoffNanos(int failedAttempts, double random) {
+		long initialNanos = initialBackoff.toNanos();
+		if (initialNanos <= 0) {
+			return 0;
+		}
+		int exponent = Math.min(failedAttempts - 1, 30);
+		long backoff = Math.min(maxBackoff.toNanos(), initialNanos << exponent);
+		if (backoff < 0) {
+			backoff = maxBackoff.toNanos();
+		}
+		return jitter ? (long) (backoff * random) : backoff;
+	}
+	
+}
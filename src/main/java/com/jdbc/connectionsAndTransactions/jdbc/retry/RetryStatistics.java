@@ -0,0 +1,57 @@
+package com.jdbc.connectionsAndTransactions.jdbc.retry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class RetryStatistics {
+
+	private final LongAdder attempts = new LongAdder();
+	private final LongAdder successes = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder exhausted = new LongAdder();
+	private final LongAdder backoffNanos = new LongAdder();
+	
+	void recordAttempt() {
+		attempts.increment();
+	}
+	
+	void recordSuccess() {
+		successes.increment();
+	}
+	
+	void recordRetry(long backoffNanos) {
+		retries.increment();
+		this.backoffNanos.add(backoffNanos);
+	}
+	
+	void recordExhausted() {
+		exhausted.increment();
+	}
+	
+	public long getAttempts() {
+		return attempts.sum();
+	}
+	
+	public long getSuccesses() {
+		return successes.sum();
+	}
+	
+	public long getRetries() {
+		return retries.sum();
+	}
+	
+	// units of work that failed after maxAttempts conflicts
+	public long getExhausted() {
+		return exhausted.sum();
+	}
+	
+	public long getBackoffNanos() {
+		return backoffNanos.sum();
+	}
+	
+	@Override
+	public String toString() {
+		return "RetryStatistics(attempts=" + getAttempts() + ", successes=" + getSuccesses() + ", retries=" + getRetries()
+				+ ", exhausted=" + getExhausted() + ", backoffMillis=" + getBackoffNanos() / 1_000_000 + ")";
+	}
+	
+}
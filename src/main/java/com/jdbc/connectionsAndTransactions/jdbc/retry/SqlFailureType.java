@@ -0,0 +1,99 @@
+package com.jdbc.connectionsAndTransactions.jdbc.retry;
+
+import java.sql.SQLException;
+
+// Classifies SQLExceptions caused by lock contention, which are worth retrying in a new transaction
+public enum SqlFailureType {
+	DEADLOCK(true),
+	LOCK_TIMEOUT(true),
+	SERIALIZATION_FAILURE(true),
+	OTHER(false);
+	
+	// vendor error codes overlap, so each one is only trusted together with the SQLState its vendor reports
+	private static final String SERIALIZATION_FAILURE_STATE = "40001";
+	private static final String POSTGRES_DEADLOCK_STATE = "40P01";
+	private static final String POSTGRES_LOCK_NOT_AVAILABLE_STATE = "55P03";
+	private static final String H2_LOCK_TIMEOUT_STATE = "HYT00";
+	private static final String H2_CONCURRENT_UPDATE_STATE = "90131";
+	private static final String MYSQL_GENERAL_ERROR_STATE = "HY000";
+	private static final String ORACLE_RESOURCE_STATE = "61000";
+	private static final String ORACLE_TRANSACTION_STATE = "72000";
+	
+	private static final int H2_DEADLOCK = 40001;
+	private static final int H2_LOCK_TIMEOUT = 50200;
+	private static final int H2_CONCURRENT_UPDATE = 90131;
+	private static final int MYSQL_DEADLOCK = 1213;
+	// SQL Server reports deadlocks with 1205 and SQLState 40001, MySQL lock wait timeouts with 1205 and HY000
+	private static final int MYSQL_LOCK_WAIT_TIMEOUT_OR_SQLSERVER_DEADLOCK = 1205;
+	private static final int ORACLE_DEADLOCK = 60;
+	private static final int ORACLE_RESOURCE_BUSY = 54;
+	private static final int ORACLE_LOCK_TIMEOUT = 30006;
+	private static final int ORACLE_SERIALIZATION_FAILURE = 8177;
+	
+	private final boolean retryable;
+	
+	SqlFailureType(boolean retryable) {
+		this.retryable = retryable;
+	}
+	
+	public boolean isRetryable() {
+		return retryable;
+	}
+	
+	// Checks the exception, its chained exceptions and causes
+	public static SqlFailureType classify(SQLException exception) {
+		Throwable current = exception;
+		while (current != null) {
+			if (current instanceof SQLException) {
+				SqlFailureType type = classifySingle((SQLException) current);
+				if (type != OTHER) {
+					return type;
+				}
+				SQLException next = ((SQLException) current).getNextException();
+				if (next != null && next != current) {
+					type = classify(next);
+					if (type != OTHER) {
+						return type;
+					}
+				}
+			}
+			current = current.getCause() != current ? current.getCause() : null;
+		}
+		return OTHER;
+	}
+	
+	private static SqlFailureType classifySingle(SQLException exception) {
+		String state = exception.getSQLState();
+		int code = exception.getErrorCode();
+		if (state == null) {
+			return OTHER;
+		}
+		switch (state) {
+		case POSTGRES_DEADLOCK_STATE:
+			return DEADLOCK;
+		case POSTGRES_LOCK_NOT_AVAILABLE_STATE:
+			return LOCK_TIMEOUT;
+		case SERIALIZATION_FAILURE_STATE:
+			if (code == H2_DEADLOCK || code == MYSQL_DEADLOCK || code == MYSQL_LOCK_WAIT_TIMEOUT_OR_SQLSERVER_DEADLOCK) {
+				return DEADLOCK;
+			}
+			return SERIALIZATION_FAILURE;
+		case H2_LOCK_TIMEOUT_STATE:
+			return code == H2_LOCK_TIMEOUT ? LOCK_TIMEOUT : OTHER;
+		case H2_CONCURRENT_UPDATE_STATE:
+			return code == H2_CONCURRENT_UPDATE ? SERIALIZATION_FAILURE : OTHER;
+		case MYSQL_GENERAL_ERROR_STATE:
+			return code == MYSQL_LOCK_WAIT_TIMEOUT_OR_SQLSERVER_DEADLOCK ? LOCK_TIMEOUT : OTHER;
+		case ORACLE_RESOURCE_STATE:
+			if (code == ORACLE_DEADLOCK) {
+				return DEADLOCK;
+			}
+			return code == ORACLE_RESOURCE_BUSY || code == ORACLE_LOCK_TIMEOUT ? LOCK_TIMEOUT : OTHER;
+		case ORACLE_TRANSACTION_STATE:
+			return code == ORACLE_SERIALIZATION_FAILURE ? SERIALIZATION_FAILURE : OTHER;
+		default:
+			return OTHER;
+		}
+	}
+	
+}
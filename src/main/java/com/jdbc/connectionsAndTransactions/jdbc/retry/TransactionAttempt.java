@@ -0,0 +1,76 @@
+package com.jdbc.connectionsAndTransactions.jdbc.retry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager.ThrowingFunction;
+
+// Outcome of running a unit of work once in its own transaction on a new connection.
+// A failure is recorded before the rollback, so a failing rollback can't turn it into a success.
+class TransactionAttempt<T> {
+
+	private T value;
+	private SQLException error;
+	private RuntimeException runtimeError;
+	
+	static <T> TransactionAttempt<T> run(JdbcConnectionManager jdbcConnectionManager, ThrowingFunction<Connection, T, SQLException> unitOfWork) {
+		TransactionAttempt<T> attempt = new TransactionAttempt<>();
+		Connection connection;
+		try {
+			connection = jdbcConnectionManager.openConnection();
+		} catch (SQLException e) {
+			// a pool timeout or connect failure keeps its SQLState, so it is classified like any other failure
+			attempt.error = e;
+			return attempt;
+		}
+		try {
+			connection.setAutoCommit(false);
+			attempt.value = unitOfWork.apply(connection);
+			connection.commit();
+		} catch (SQLException e) {
+			attempt.error = e;
+			rollbackQuietly(connection);
+		} catch (RuntimeException e) {
+			attempt.runtimeError = e;
+			rollbackQuietly(connection);
+		} finally {
+			closeQuietly(connection);
+		}
+		return attempt;
+	}
+	
+	T getValue() {
+		return value;
+	}
+	
+	SQLException getError() {
+		return error;
+	}
+	
+	RuntimeException getRuntimeError() {
+		return runtimeError;
+	}
+	
+	boolean isSuccessful() {
+		return error == null && runtimeError == null;
+	}
+	
+	private static void rollbackQuietly(Connection connection) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	private static void closeQuietly(Connection connection) {
+		try {
+			// for pooled connections close() returns the connection to the pool
+			connection.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+	
+}
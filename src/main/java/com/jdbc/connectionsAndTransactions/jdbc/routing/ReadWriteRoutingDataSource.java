@@ -0,0 +1,284 @@
+package com.jdbc.connectionsAndTransactions.jdbc.routing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Sends connections of read-only transactions (@Transactional(readOnly = true), a read-only
+// TransactionTemplate) to one of the replicas, everything else to the primary.
+// The transaction managers fetch their connection before the transaction is marked read-only,
+// so give them and the JdbcTemplates the lazy() DataSource, which fetches it at the first statement.
+// With ReplicationPositions, a thread bound to a ReadYourWritesSession reads its own writes:
+// commits of its transactions on the primary record the primary position in afterCommit and its
+// reads go only to replicas that replayed that position, to the primary if none has yet.
+// Autocommit writes outside of a Spring transaction are not tracked.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+	private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+	
+	private static final int PRIMARY = -1;
+	
+	private final List<Replica> replicas = new ArrayList<>();
+	private final ReplicaBalancing balancing;
+	private final ReplicationPositions replicationPositions;
+	private final AtomicInteger nextReplica = new AtomicInteger();
+	private final AtomicLong writeRoutes = new AtomicLong();
+	private final AtomicLong laggingReplicaRoutes = new AtomicLong();
+	
+	public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaBalancing balancing) {
+		this(primary, replicas, balancing, null);
+	}
+	
+	public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaBalancing balancing,
+			ReplicationPositions replicationPositions) {
+		this.balancing = balancing;
+		this.replicationPositions = replicationPositions;
+		Map<Object, Object> targetDataSources = new HashMap<>();
+		targetDataSources.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			Replica replica = new Replica(replicas.get(i));
+			this.replicas.add(replica);
+			targetDataSources.put(i, replica);
+		}
+		setTargetDataSources(targetDataSources);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+	
+	public DataSource lazy() {
+		return new LazyConnectionDataSourceProxy(this);
+	}
+	
+	public int getReplicaCount() {
+		return replicas.size();
+	}
+	
+	public long getPrimaryRouteCount() {
+		return writeRoutes.get() + laggingReplicaRoutes.get();
+	}
+	
+	// Reads sent to the primary because no replica had caught up with the session's last commit
+	public long getLaggingReplicaRouteCount() {
+		return laggingReplicaRoutes.get();
+	}
+	
+	public long getReplicaRouteCount(int replica) {
+		return replicas.get(replica).routes.get();
+	}
+	
+	// Connections of the replica currently open
+	public int getOutstandingCount(int replica) {
+		return replicas.get(replica).outstanding.get();
+	}
+	
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("jdbc.routing.routes", writeRoutes, AtomicLong::get)
+				.tag("target", "primary")
+				.tag("reason", "write")
+				.register(registry);
+		FunctionCounter.builder("jdbc.routing.routes", laggingReplicaRoutes, AtomicLong::get)
+				.tag("target", "primary")
+				.tag("reason", "replica-lag")
+				.register(registry);
+		for (int i = 0; i < replicas.size(); i++) {
+			Replica replica = replicas.get(i);
+			FunctionCounter.builder("jdbc.routing.routes", replica.routes, AtomicLong::get)
+					.tag("target", "replica-" + i)
+					.tag("reason", "read")
+					.register(registry);
+			Gauge.builder("jdbc.routing.outstanding", replica.outstanding, AtomicInteger::get)
+					.tag("target", "replica-" + i)
+					.register(registry);
+		}
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		ReadYourWritesSession session = replicationPositions != null ? ReadYourWritesSession.current() : null;
+		if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (session != null) {
+				trackCommitPosition(session);
+			}
+			writeRoutes.incrementAndGet();
+			return PRIMARY;
+		}
+		int replica = balancing == ReplicaBalancing.LEAST_OUTSTANDING ? leastOutstanding(session) : roundRobin(session);
+		if (replica == PRIMARY) {
+			laggingReplicaRoutes.incrementAndGet();
+			return PRIMARY;
+		}
+		replicas.get(replica).routes.incrementAndGet();
+		return replica;
+	}
+	
+	private int roundRobin(ReadYourWritesSession session) {
+		int start = nextReplica();
+		for (int i = 0; i < replicas.size(); i++) {
+			int candidate = (start + i) % replicas.size();
+			if (hasCaughtUp(candidate, session)) {
+				return candidate;
+			}
+		}
+		return PRIMARY;
+	}
+	
+	private int leastOutstanding(ReadYourWritesSession session) {
+		// starting the scan at the next round-robin replica spreads ties
+		int start = nextReplica();
+		int best = PRIMARY;
+		int bestOutstanding = Integer.MAX_VALUE;
+		for (int i = 0; i < replicas.size(); i++) {
+			int candidate = (start + i) % replicas.size();
+			int outstanding = replicas.get(candidate).outstanding.get();
+			if (outstanding < bestOutstanding && hasCaughtUp(candidate, session)) {
+				best = candidate;
+				bestOutstanding = outstanding;
+			}
+		}
+		return best;
+	}
+	
+	private int nextReplica() {
+		return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+	}
+	
+	private boolean hasCaughtUp(int replica, ReadYourWritesSession session) {
+		if (session == null || !session.hasCommitted()) {
+			return true;
+		}
+		try {
+			return session.isVisibleAt(replicationPositions.getReplicaPosition(replica));
+		} catch (SQLException | RuntimeException e) {
+			log.warn("Could not read the position of replica {}, skipping it", replica, e);
+			return false;
+		}
+	}
+	
+	// Registers one synchronization per transaction recording the primary position after commit
+	private void trackCommitPosition(ReadYourWritesSession session) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(this)) {
+			return;
+		}
+		CommitPositionTracker tracker = new CommitPositionTracker(session);
+		TransactionSynchronizationManager.bindResource(this, tracker);
+		TransactionSynchronizationManager.registerSynchronization(tracker);
+	}
+	
+	private class CommitPositionTracker extends TransactionSynchronizationAdapter {
+		private final ReadYourWritesSession session;
+		
+		private CommitPositionTracker(ReadYourWritesSession session) {
+			this.session = session;
+		}
+		
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(ReadWriteRoutingDataSource.this);
+		}
+		
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(ReadWriteRoutingDataSource.this, this);
+		}
+		
+		@Override
+		public void afterCommit() {
+			try {
+				session.committedAt(replicationPositions.getPrimaryPosition());
+			} catch (SQLException | RuntimeException e) {
+				// keeps the session on the primary until a later commit has a known position
+				log.warn("Could not read the primary position after commit", e);
+				session.committedAtUnknownPosition();
+			}
+		}
+		
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(ReadWriteRoutingDataSource.this);
+		}
+	}
+	
+	// Counts the open connections of a replica
+	private static class Replica extends DelegatingDataSource {
+		private final AtomicInteger outstanding = new AtomicInteger();
+		private final AtomicLong routes = new AtomicLong();
+		
+		private Replica(DataSource target) {
+			super(target);
+		}
+		
+		@Override
+		public Connection getConnection() throws SQLException {
+			return track(super.getConnection());
+		}
+		
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			return track(super.getConnection(username, password));
+		}
+		
+		private Connection track(Connection connection) {
+			outstanding.incrementAndGet();
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new ClosingHandler(connection));
+		}
+		
+		private class ClosingHandler implements InvocationHandler {
+			private final Connection connection;
+			private final AtomicBoolean closed = new AtomicBoolean();
+			
+			private ClosingHandler(Connection connection) {
+				this.connection = connection;
+			}
+			
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "close":
+					if (closed.compareAndSet(false, true)) {
+						outstanding.decrementAndGet();
+					}
+					break;
+				default:
+					break;
+				}
+				try {
+					return method.invoke(connection, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,49 @@
+package com.jdbc.connectionsAndTransactions.jdbc.routing;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Primary position of the last commit of a user session. While one is bound to the thread,
+// ReadWriteRoutingDataSource routes reads only to replicas that replayed that position.
+// Bind it per request, e.g. from a filter keeping it in the HTTP session.
+public class ReadYourWritesSession {
+
+	private static final ThreadLocal<ReadYourWritesSession> CURRENT = new ThreadLocal<>();
+	
+	private final AtomicLong lastCommitPosition = new AtomicLong(Long.MIN_VALUE);
+	// set when the position of a commit could not be read, cleared by the next known one
+	private volatile boolean lastCommitPositionUnknown;
+	
+	public static ReadYourWritesSession current() {
+		return CURRENT.get();
+	}
+	
+	public static void bind(ReadYourWritesSession session) {
+		CURRENT.set(session);
+	}
+	
+	public static void unbind() {
+		CURRENT.remove();
+	}
+	
+	public boolean hasCommitted() {
+		return lastCommitPositionUnknown || lastCommitPosition.get() != Long.MIN_VALUE;
+	}
+	
+	public long getLastCommitPosition() {
+		return lastCommitPosition.get();
+	}
+	
+	boolean isVisibleAt(long replicaPosition) {
+		return !lastCommitPositionUnknown && replicaPosition >= lastCommitPosition.get();
+	}
+	
+	void committedAt(long primaryPosition) {
+		lastCommitPosition.accumulateAndGet(primaryPosition, Math::max);
+		lastCommitPositionUnknown = false;
+	}
+	
+	void committedAtUnknownPosition() {
+		lastCommitPositionUnknown = true;
+	}
+	
+}
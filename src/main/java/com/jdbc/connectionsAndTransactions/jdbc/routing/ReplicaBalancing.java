@@ -0,0 +1,8 @@
+package com.jdbc.connectionsAndTransactions.jdbc.routing;
+
+public enum ReplicaBalancing {
+	// replicas take turns
+	ROUND_ROBIN,
+	// the replica with the fewest connections currently open, ties taking turns
+	LEAST_OUTSTANDING
+}
@@ -0,0 +1,15 @@
+package com.jdbc.connectionsAndTransactions.jdbc.routing;
+
+import java.sql.SQLException;
+
+// Where the primary's log is and how far each replica has replayed it, as comparable numbers:
+// an LSN (pg_current_wal_lsn() / pg_last_wal_replay_lsn()), a GTID sequence, or the commit
+// timestamp of a heartbeat row. Called on every routed read of a session that wrote, so
+// implementations querying the database should cache the replica positions for a moment.
+public interface ReplicationPositions {
+
+	long getPrimaryPosition() throws SQLException;
+	
+	long getReplicaPosition(int replica) throws SQLException;
+	
+}
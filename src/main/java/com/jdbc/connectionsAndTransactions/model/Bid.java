@@ -17,7 +17,11 @@ public class Bid {
 	}
 	
 	public Bid(String user, LocalDateTime time, int amount, String currency) {
-		this.id = null;
+		this(null, user, time, amount, currency);
+	}
+	
+	public Bid(Integer id, String user, LocalDateTime time, int amount, String currency) {
+		this.id = id;
 		this.user = user;
 		this.time = time;
 		this.amount = amount;
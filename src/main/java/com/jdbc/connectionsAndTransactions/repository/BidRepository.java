@@ -2,37 +2,184 @@ package com.jdbc.connectionsAndTransactions.repository;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Repository;
 
 import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.mapping.BidRow;
+import com.jdbc.connectionsAndTransactions.repository.mapping.BidRowMapper;
+import com.jdbc.connectionsAndTransactions.repository.mapping.RowMapperCache;
 
 @Repository
 public class BidRepository {
 
+	public static final int DEFAULT_BATCH_SIZE = 500;
+	
+	public static final int DEFAULT_FETCH_SIZE = 1_000;
+	
+	private static final String INSERT_SQL = "insert into bids (user,"
+			+ " time, amount, currency) values (?, ?, ?"
+			+ ", ?)";
+	
+	private final int batchSize;
+	
+	private final RowMapperCache<BidRowMapper> bidMappers = new RowMapperCache<>(BidRowMapper::compile);
+	
+	public BidRepository() {
+		this(DEFAULT_BATCH_SIZE);
+	}
+	
+	public BidRepository(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive");
+		}
+		this.batchSize = batchSize;
+	}
+	
 	public int save(Connection connection, Bid bid) throws SQLException {
-		String sql = "insert into bids (user,"
-				+ " time, amount, currency) values (?, ?, ?"
-				+ ", ?)";
-		PreparedStatement preparedStatement = connection.prepareStatement(sql);
-		preparedStatement.setString(1, bid.getUser());
-		preparedStatement.setTimestamp(2, Timestamp.valueOf(bid.getTime()));
-		preparedStatement.setInt(3, bid.getAmount());
-		preparedStatement.setString(4, bid.getCurrency());
-		int rowsAffected = preparedStatement.executeUpdate();
+		try (PreparedStatement preparedStatement = connection.prepareStatement(INSERT_SQL)) {
+			bindBid(preparedStatement, bid);
+			int rowsAffected = preparedStatement.executeUpdate();
+			return rowsAffected;
+		}
+	}
+	
+	// Inserts bids with JDBC batches of batchSize rows, all sent through a single statement.
+	// Returns the update count of every bid in iteration order.
+	public int[] saveAll(Connection connection, Collection<Bid> bids) throws SQLException {
+		int[] rowsAffected = new int[bids.size()];
+		int executed = 0;
+		int batched = 0;
+		try (PreparedStatement preparedStatement = connection.prepareStatement(INSERT_SQL)) {
+			for (Bid bid : bids) {
+				bindBid(preparedStatement, bid);
+				preparedStatement.addBatch();
+				if (++batched == batchSize) {
+					executed = executeBatch(preparedStatement, rowsAffected, executed);
+					batched = 0;
+				}
+			}
+			if (batched > 0) {
+				executeBatch(preparedStatement, rowsAffected, executed);
+			}
+		}
 		return rowsAffected;
 	}
 	
+	// Keyset pagination in (time, id) order: the page after the given bid, null for the first page.
+	// The seek predicate is written so that the (time, id) index can range scan it.
+	// Bids without time come first, as H2 sorts NULL first; pages after one of them seek by id
+	// among the NULL times and then continue with all timed bids.
+	public List<Bid> findPage(Connection connection, Bid after, int limit) throws SQLException {
+		if (after != null && after.getId() == null) {
+			throw new IllegalArgumentException("Pages continue after a stored bid, this one has no id");
+		}
+		String sql;
+		if (after == null) {
+			sql = "select id, user, time, amount, currency from bids order by time, id limit ?";
+		} else if (after.getTime() == null) {
+			sql = "select id, user, time, amount, currency from bids where time is null and id > ? or time is not null"
+					+ " order by time, id limit ?";
+		} else {
+			sql = "select id, user, time, amount, currency from bids where time >= ? and (time > ? or id > ?)"
+					+ " order by time, id limit ?";
+		}
+		try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+			int index = 1;
+			if (after != null && after.getTime() != null) {
+				Timestamp afterTime = Timestamp.valueOf(after.getTime());
+				preparedStatement.setTimestamp(index++, afterTime);
+				preparedStatement.setTimestamp(index++, afterTime);
+			}
+			if (after != null) {
+				preparedStatement.setInt(index++, after.getId());
+			}
+			preparedStatement.setInt(index, limit);
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				// not sized by limit, the caller may pass a huge one for "all remaining"
+				List<Bid> bids = new ArrayList<>();
+				BidRowMapper mapper = bidMappers.get(sql, resultSet);
+				while (resultSet.next()) {
+					bids.add(mapper.map(resultSet));
+				}
+				return bids;
+			}
+		}
+	}
+	
+	// Bids with fromId <= id < toId in id order, read with a forward-only cursor
+	public List<Bid> findByIdRange(Connection connection, int fromId, int toId, int fetchSize) throws SQLException {
+		String sql = "select id, user, time, amount, currency from bids where id >= ? and id < ? order by id";
+		try (PreparedStatement preparedStatement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			preparedStatement.setFetchSize(fetchSize);
+			preparedStatement.setInt(1, fromId);
+			preparedStatement.setInt(2, toId);
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				List<Bid> bids = new ArrayList<>();
+				BidRowMapper mapper = bidMappers.get(sql, resultSet);
+				while (resultSet.next()) {
+					bids.add(mapper.map(resultSet));
+				}
+				return bids;
+			}
+		}
+	}
+	
+	public void forEachBid(Connection connection, Consumer<BidRow> consumer) throws SQLException {
+		forEachBid(connection, consumer, DEFAULT_FETCH_SIZE);
+	}
+	
+	// Flyweight scan in id order: every row is read into the same BidRow, which the consumer
+	// must not keep. No Bid or LocalDateTime is created per row.
+	public void forEachBid(Connection connection, Consumer<BidRow> consumer, int fetchSize) throws SQLException {
+		String sql = "select id, user, time, amount, currency from bids order by id";
+		BidRow row = new BidRow();
+		try (Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			statement.setFetchSize(fetchSize);
+			try (ResultSet resultSet = statement.executeQuery(sql)) {
+				BidRowMapper mapper = bidMappers.get(sql, resultSet);
+				while (resultSet.next()) {
+					mapper.readInto(resultSet, row);
+					consumer.accept(row);
+				}
+			}
+		}
+	}
+	
+	public int getBatchSize() {
+		return batchSize;
+	}
+	
 	public void createTable(Connection conn) throws SQLException {
 		conn.createStatement().execute("create table bids "
 				+ "(id identity, user VARCHAR, time TIMESTAMP ,"
 				+ " amount NUMBER, currency VARCHAR)");
+		conn.createStatement().execute("create index bids_time_id on bids (time, id)");
 	}
 	
 	public void dropTable(Connection conn) throws SQLException {
 		conn.createStatement().executeUpdate("drop table bids");
 	}
 	
+	private static void bindBid(PreparedStatement preparedStatement, Bid bid) throws SQLException {
+		preparedStatement.setString(1, bid.getUser());
+		preparedStatement.setTimestamp(2, Timestamp.valueOf(bid.getTime()));
+		preparedStatement.setInt(3, bid.getAmount());
+		preparedStatement.setString(4, bid.getCurrency());
+	}
+	
+	private static int executeBatch(PreparedStatement preparedStatement, int[] rowsAffected, int offset) throws SQLException {
+		int[] batchRowsAffected = preparedStatement.executeBatch();
+		System.arraycopy(batchRowsAffected, 0, rowsAffected, offset, batchRowsAffected.length);
+		return offset + batchRowsAffected.length;
+	}
+	
 }
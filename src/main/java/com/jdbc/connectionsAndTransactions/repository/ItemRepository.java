@@ -7,16 +7,32 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.stereotype.Repository;
 
 import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.mapping.ItemRow;
+import com.jdbc.connectionsAndTransactions.repository.mapping.ItemRowMapper;
+import com.jdbc.connectionsAndTransactions.repository.mapping.RowMapperCache;
 
 @Repository
 public class ItemRepository {
 
+	private static final int BATCH_SIZE = 500;
+	
+	public static final int DEFAULT_FETCH_SIZE = 1_000;
+	
+	private final RowMapperCache<ItemRowMapper> itemMappers = new RowMapperCache<>(ItemRowMapper::compile);
+
 	public Item save(Connection connection, Item item) throws SQLException {
 		Optional<Item> foundItem = item.getId() != null ? findById(connection, item.getId()) : Optional.empty();
 		if (foundItem.isPresent()) {
@@ -26,56 +42,192 @@ public class ItemRepository {
 		}
 	}
 
+	// Saves all items with batched statements instead of a select per item:
+	// items without id are inserted, the others are updated and inserted if no row was updated.
+	// Returned items are in the order of the given list.
+	public List<Item> saveAll(Connection connection, List<Item> items) throws SQLException {
+		Item[] savedItems = new Item[items.size()];
+		List<Integer> insertIndexes = new ArrayList<>();
+		List<Integer> updateIndexes = new ArrayList<>();
+		for (int i = 0; i < items.size(); i++) {
+			(items.get(i).getId() == null ? insertIndexes : updateIndexes).add(i);
+		}
+		if (!updateIndexes.isEmpty()) {
+			int[] affectedRows = executeBatch(connection, getUpdateSql(), Statement.NO_GENERATED_KEYS, items, updateIndexes, this::bindUpdate, null);
+			for (int i = 0; i < updateIndexes.size(); i++) {
+				int index = updateIndexes.get(i);
+				Item item = items.get(index);
+				if (affectedRows[i] > 0 || affectedRows[i] == Statement.SUCCESS_NO_INFO) {
+					savedItems[index] = toUpdatedItem(item, true);
+				} else if (findById(connection, item.getId()).isPresent()) {
+					savedItems[index] = toUpdatedItem(item, false);
+				} else {
+					insertIndexes.add(index);
+				}
+			}
+			Collections.sort(insertIndexes);
+		}
+		if (!insertIndexes.isEmpty()) {
+			executeBatch(connection, getInsertSql(), Statement.RETURN_GENERATED_KEYS, items, insertIndexes, this::bindInsert,
+					(index, generatedId) -> {
+						Item item = items.get(index);
+						savedItems[index] = new Item(generatedId, item.getName(), item.getReleaseDate(), item.getVersion());
+					});
+		}
+		return Arrays.asList(savedItems);
+	}
+	
+	// Single MERGE statement per batch: rows are updated by id or inserted, without reading them first.
+	// Items with an id that doesn't exist are inserted with that id.
+	public List<Item> upsertAll(Connection connection, List<Item> items) throws SQLException {
+		Item[] savedItems = new Item[items.size()];
+		List<Integer> indexes = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			indexes.add(i);
+		}
+		Integer[] ids = new Integer[items.size()];
+		int[] affectedRows = executeBatch(connection, getUpsertSql(), Statement.RETURN_GENERATED_KEYS, items, indexes, this::bindUpsert,
+				(index, generatedId) -> ids[index] = generatedId);
+		for (int i = 0; i < savedItems.length; i++) {
+			Item item = items.get(i);
+			Item savedItem = new Item(ids[i] != null ? ids[i] : item.getId(), item.getName(), item.getReleaseDate(), item.getVersion());
+			savedItems[i] = toUpsertedItem(savedItem, item.getId() == null, affectedRows[i] != 0);
+		}
+		return Arrays.asList(savedItems);
+	}
+
 	protected Item insert(Connection connection, Item item) throws SQLException {
-		String sql = "insert into items (name, release_date) values (?, ?)";
-		PreparedStatement preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-		preparedStatement.setString(1, item.getName());
-		preparedStatement.setDate(2, Date.valueOf(item.getReleaseDate()));
-		int affectedRows = preparedStatement.executeUpdate();
-		if (affectedRows > 0) {
-            try (ResultSet rs = preparedStatement.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return new Item(rs.getInt(1), item.getName(), item.getReleaseDate(), item.getVersion());
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        }
+		try (PreparedStatement preparedStatement = connection.prepareStatement(getInsertSql(), Statement.RETURN_GENERATED_KEYS)) {
+			bindInsert(preparedStatement, item);
+			int affectedRows = preparedStatement.executeUpdate();
+			if (affectedRows > 0) {
+	            try (ResultSet rs = preparedStatement.getGeneratedKeys()) {
+	                if (rs.next()) {
+	                    return new Item(rs.getInt(1), item.getName(), item.getReleaseDate(), item.getVersion());
+	                }
+	            } catch (SQLException e) {
+	                e.printStackTrace();
+	            }
+	        }
+		}
 		return null;
 	}
 
 	protected Item update(Connection connection, Item newItem, Item oldItem) throws SQLException {
-		String sql = "update items set name = ?, release_date = ? where id = ?";
-		PreparedStatement preparedStatement = connection.prepareStatement(sql);
-		preparedStatement.setString(1, newItem.getName());
-		preparedStatement.setDate(2, Date.valueOf(newItem.getReleaseDate()));
-		preparedStatement.setInt(3, oldItem.getId());
-		preparedStatement.executeUpdate();
-		return new Item(oldItem.getId(), newItem.getName(), newItem.getReleaseDate(), newItem.getVersion());
+		Item item = new Item(oldItem.getId(), newItem.getName(), newItem.getReleaseDate(), newItem.getVersion());
+		try (PreparedStatement preparedStatement = connection.prepareStatement(getUpdateSql())) {
+			bindUpdate(preparedStatement, item);
+			int affectedRows = preparedStatement.executeUpdate();
+			return toUpdatedItem(item, affectedRows > 0);
+		}
+	}
+	
+	protected String getInsertSql() {
+		return "insert into items (name, release_date) values (?, ?)";
+	}
+	
+	protected void bindInsert(PreparedStatement preparedStatement, Item item) throws SQLException {
+		preparedStatement.setString(1, item.getName());
+		preparedStatement.setDate(2, Date.valueOf(item.getReleaseDate()));
+	}
+	
+	protected String getUpdateSql() {
+		return "update items set name = ?, release_date = ? where id = ?";
+	}
+	
+	protected void bindUpdate(PreparedStatement preparedStatement, Item item) throws SQLException {
+		preparedStatement.setString(1, item.getName());
+		preparedStatement.setDate(2, Date.valueOf(item.getReleaseDate()));
+		preparedStatement.setInt(3, item.getId());
+	}
+	
+	// Item as stored by the update statement, rowUpdated is false if the row exists but wasn't updated
+	protected Item toUpdatedItem(Item item, boolean rowUpdated) {
+		return item;
+	}
+	
+	protected String getUpsertSql() {
+		return "merge into items (id, name, release_date) key (id) values (?, ?, ?)";
+	}
+	
+	protected void bindUpsert(PreparedStatement preparedStatement, Item item) throws SQLException {
+		preparedStatement.setObject(1, item.getId());
+		preparedStatement.setString(2, item.getName());
+		preparedStatement.setDate(3, Date.valueOf(item.getReleaseDate()));
+	}
+	
+	// Item as stored by the upsert statement, newItem if it had no id before,
+	// rowUpserted is false if the statement left an existing row alone
+	protected Item toUpsertedItem(Item item, boolean newItem, boolean rowUpserted) {
+		return item;
+	}
+	
+	private int[] executeBatch(Connection connection, String sql, int autoGeneratedKeys, List<Item> items, List<Integer> indexes,
+			ItemBinder binder, GeneratedIdConsumer generatedIdConsumer) throws SQLException {
+		int[] affectedRows = new int[indexes.size()];
+		try (PreparedStatement preparedStatement = connection.prepareStatement(sql, autoGeneratedKeys)) {
+			for (int from = 0; from < indexes.size(); from += BATCH_SIZE) {
+				List<Integer> chunk = indexes.subList(from, Math.min(from + BATCH_SIZE, indexes.size()));
+				for (int index : chunk) {
+					binder.bind(preparedStatement, items.get(index));
+					preparedStatement.addBatch();
+				}
+				int[] chunkAffectedRows = preparedStatement.executeBatch();
+				System.arraycopy(chunkAffectedRows, 0, affectedRows, from, chunkAffectedRows.length);
+				if (generatedIdConsumer != null) {
+					try (ResultSet rs = preparedStatement.getGeneratedKeys()) {
+						for (int i = 0; i < chunk.size(); i++) {
+							if (chunkAffectedRows[i] == 0) {
+								// no row written, no key
+								continue;
+							}
+							int index = chunk.get(i);
+							if (!rs.next()) {
+								throw new SQLException("Missing generated key for item " + items.get(index));
+							}
+							generatedIdConsumer.accept(index, rs.getInt(1));
+						}
+					}
+				}
+			}
+		}
+		return affectedRows;
+	}
+	
+	@FunctionalInterface
+	private interface ItemBinder {
+		void bind(PreparedStatement preparedStatement, Item item) throws SQLException;
+	}
+	
+	@FunctionalInterface
+	private interface GeneratedIdConsumer {
+		void accept(int index, int generatedId);
 	}
 	
 	public Optional<Item> findById(Connection connection, int id) throws SQLException {
-		String sql = "select * from items where id = ?";
-		PreparedStatement statement = connection.prepareStatement(sql);
-		statement.setInt(1, id);
-		try (ResultSet resultSet = statement.executeQuery()) {
-			if (resultSet.next()) {				
-				return Optional.of(new Item(resultSet.getInt("id"), resultSet.getString("name"), resultSet.getDate("release_date").toLocalDate(), null));
-			} else {
-				return Optional.empty();
+		String sql = "select " + getItemColumns() + " from items where id = ?";
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setInt(1, id);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				if (resultSet.next()) {				
+					return Optional.of(itemMappers.get(sql, resultSet).map(resultSet));
+				} else {
+					return Optional.empty();
+				}
 			}
 		}
 	}
 	
 	public Optional<Item> findByName(Connection connection, String name) throws SQLException {
-		String sql = "select * from items where name = ?";
-		PreparedStatement statement = connection.prepareStatement(sql);
-		statement.setString(1, name);
-		try (ResultSet resultSet = statement.executeQuery()) {
-			if (resultSet.next()) {				
-				return Optional.of(new Item(resultSet.getInt("id"), resultSet.getString("name"), resultSet.getDate("release_date").toLocalDate(), resultSet.getInt("version")));
-			} else {
-				return Optional.empty();
+		String sql = "select " + getItemColumns() + " from items where name = ?";
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setString(1, name);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				if (resultSet.next()) {				
+					return Optional.of(itemMappers.get(sql, resultSet).map(resultSet));
+				} else {
+					return Optional.empty();
+				}
 			}
 		}
 	}
@@ -95,13 +247,116 @@ public class ItemRepository {
 	}
 	
 	public List<String> findNames(Connection conn) throws SQLException {
-		try (ResultSet resultSet = conn.createStatement().executeQuery("select * from items;")) {
-			List<String> names = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		forEachName(conn, names::add);
+		return names;
+	}
+	
+	public void forEachName(Connection connection, Consumer<String> consumer) throws SQLException {
+		forEachName(connection, consumer, DEFAULT_FETCH_SIZE);
+	}
+	
+	// Hands every name to the consumer while reading, rows are never collected
+	public void forEachName(Connection connection, Consumer<String> consumer, int fetchSize) throws SQLException {
+		try (Statement statement = createCursorStatement(connection, fetchSize);
+				ResultSet resultSet = statement.executeQuery("select name from items")) {
 			while (resultSet.next()) {
-				names.add(resultSet.getString("name"));
+				consumer.accept(resultSet.getString(1));
 			}
-			return names;
 		}
 	}
 	
+	public Stream<Item> streamAll(Connection connection) throws SQLException {
+		return streamAll(connection, DEFAULT_FETCH_SIZE);
+	}
+	
+	// Lazily reads items from a forward-only cursor fetching fetchSize rows at a time.
+	// The stream must be closed (e.g. try-with-resources) to close its statement;
+	// the connection has to stay open until then. Read errors surface as UncheckedSQLException.
+	public Stream<Item> streamAll(Connection connection, int fetchSize) throws SQLException {
+		String sql = "select " + getItemColumns() + " from items order by id";
+		Statement statement = createCursorStatement(connection, fetchSize);
+		ResultSet resultSet;
+		ItemRowMapper mapper;
+		try {
+			resultSet = statement.executeQuery(sql);
+			mapper = itemMappers.get(sql, resultSet);
+		} catch (SQLException e) {
+			statement.close();
+			throw e;
+		}
+		Spliterator<Item> spliterator = new Spliterators.AbstractSpliterator<Item>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			public boolean tryAdvance(Consumer<? super Item> action) {
+				try {
+					if (!resultSet.next()) {
+						return false;
+					}
+					action.accept(mapper.map(resultSet));
+					return true;
+				} catch (SQLException e) {
+					throw new UncheckedSQLException(e);
+				}
+			}
+		};
+		return StreamSupport.stream(spliterator, false).onClose(() -> {
+			try {
+				// closing the statement closes its result set
+				statement.close();
+			} catch (SQLException e) {
+				throw new UncheckedSQLException(e);
+			}
+		});
+	}
+	
+	// Keyset pagination: the page after the item with afterId (0 for the first page), in id order.
+	// Seeking on the primary key makes every page cost the same, unlike OFFSET.
+	public List<Item> findPage(Connection connection, int afterId, int limit) throws SQLException {
+		String sql = "select " + getItemColumns() + " from items where id > ? order by id limit ?";
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setInt(1, afterId);
+			statement.setInt(2, limit);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				// not sized by limit, the caller may pass a huge one for "all remaining"
+				List<Item> items = new ArrayList<>();
+				ItemRowMapper mapper = itemMappers.get(sql, resultSet);
+				while (resultSet.next()) {
+					items.add(mapper.map(resultSet));
+				}
+				return items;
+			}
+		}
+	}
+	
+	public void forEachItem(Connection connection, Consumer<ItemRow> consumer) throws SQLException {
+		forEachItem(connection, consumer, DEFAULT_FETCH_SIZE);
+	}
+	
+	// Flyweight scan in id order: every row is read into the same ItemRow, which the consumer
+	// must not keep. No Item is created per row.
+	public void forEachItem(Connection connection, Consumer<ItemRow> consumer, int fetchSize) throws SQLException {
+		String sql = "select " + getItemColumns() + " from items order by id";
+		ItemRow row = new ItemRow();
+		try (Statement statement = createCursorStatement(connection, fetchSize);
+				ResultSet resultSet = statement.executeQuery(sql)) {
+			ItemRowMapper mapper = itemMappers.get(sql, resultSet);
+			while (resultSet.next()) {
+				mapper.readInto(resultSet, row);
+				consumer.accept(row);
+			}
+		}
+	}
+	
+	// columns of every item query, mapped by label so subclasses can add columns
+	protected String getItemColumns() {
+		return "id, name, release_date";
+	}
+	
+	private static Statement createCursorStatement(Connection connection, int fetchSize) throws SQLException {
+		Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		statement.setFetchSize(fetchSize);
+		return statement;
+	}
+	
 }
@@ -5,7 +5,6 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.Optional;
 
 import org.springframework.stereotype.Repository;
@@ -16,54 +15,84 @@ import com.jdbc.connectionsAndTransactions.model.Item;
 public class ItemVersionedRepository extends ItemRepository {
 
 	@Override
-	protected Item insert(Connection connection, Item item) throws SQLException {
-		String sql = "insert into items (name, release_date, version) values (?, ?, ?)";
-		PreparedStatement preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-		preparedStatement.setString(1, item.getName());
-		preparedStatement.setDate(2, Date.valueOf(item.getReleaseDate()));
+	protected String getInsertSql() {
+		return "insert into items (name, release_date, version) values (?, ?, ?)";
+	}
+	
+	@Override
+	protected void bindInsert(PreparedStatement preparedStatement, Item item) throws SQLException {
+		super.bindInsert(preparedStatement, item);
 		preparedStatement.setInt(3, 0);
-		int affectedRows = preparedStatement.executeUpdate();
-		if (affectedRows > 0) {
-            try (ResultSet rs = preparedStatement.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return new Item(rs.getInt(1), item.getName(), item.getReleaseDate(), item.getVersion());
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        }
-		return null;
 	}
-
+	
+	@Override
+	protected String getUpdateSql() {
+		return "update items set name = ?, release_date = ?, version = ? where id = ? and version = ?";
+	}
+	
 	@Override
-	protected Item update(Connection connection, Item newItem, Item oldItem) throws SQLException {
-		String sql = "update items set name = ?, release_date = ?, version = ? where id = ? and version = ?";
-		PreparedStatement preparedStatement = connection.prepareStatement(sql);
-		preparedStatement.setString(1, newItem.getName());
-		preparedStatement.setDate(2, Date.valueOf(newItem.getReleaseDate()));
-		int actualVersion = newItem.getVersion();
+	protected void bindUpdate(PreparedStatement preparedStatement, Item item) throws SQLException {
+		preparedStatement.setString(1, item.getName());
+		preparedStatement.setDate(2, Date.valueOf(item.getReleaseDate()));
+		int actualVersion = item.getVersion();
 		int newVersion = actualVersion+1;
 		preparedStatement.setInt(3, newVersion);
-		preparedStatement.setInt(4, oldItem.getId());
+		preparedStatement.setInt(4, item.getId());
 		preparedStatement.setInt(5, actualVersion);
-		int affectedRows = preparedStatement.executeUpdate();
-		if (affectedRows > 0) {
-			return new Item(oldItem.getId(), newItem.getName(), newItem.getReleaseDate(), newVersion);
+	}
+	
+	@Override
+	protected Item toUpdatedItem(Item item, boolean rowUpdated) {
+		if (rowUpdated) {
+			return new Item(item.getId(), item.getName(), item.getReleaseDate(), item.getVersion()+1);
         } else {
         	throw new OptimisticLockingException();
         }
 	}
 	
+	// Updates only rows still at the item's version and bumps it, a row at another version is left
+	// alone and fails the upsert like a conflicting save. New items are inserted at version 0, items
+	// with an id that doesn't exist one version ahead, as if their row had been updated.
+	@Override
+	protected String getUpsertSql() {
+		return "merge into items t using (select cast(? as int) id, cast(? as varchar) name, cast(? as date) release_date,"
+				+ " cast(? as int) version from dual) s on t.id = s.id"
+				+ " when matched and t.version = s.version then update set name = s.name, release_date = s.release_date, version = s.version + 1"
+				+ " when not matched then insert (id, name, release_date, version) values (s.id, s.name, s.release_date,"
+				+ " case when s.id is null then 0 else coalesce(s.version + 1, 0) end)";
+	}
+	
+	@Override
+	protected void bindUpsert(PreparedStatement preparedStatement, Item item) throws SQLException {
+		super.bindUpsert(preparedStatement, item);
+		preparedStatement.setObject(4, item.getVersion());
+	}
+	
 	@Override
-	public Optional<Item> findById(Connection connection, int id) throws SQLException {
-		String sql = "select * from items where id = ?";
-		PreparedStatement statement = connection.prepareStatement(sql);
-		statement.setInt(1, id);
-		try (ResultSet resultSet = statement.executeQuery()) {
-			if (resultSet.next()) {				
-				return Optional.of(new Item(resultSet.getInt("id"), resultSet.getString("name"), resultSet.getDate("release_date").toLocalDate(), resultSet.getInt("version")));
-			} else {
-				return Optional.empty();
+	protected Item toUpsertedItem(Item item, boolean newItem, boolean rowUpserted) {
+		if (!rowUpserted) {
+			throw new OptimisticLockingException();
+		}
+		int version = !newItem && item.getVersion() != null ? item.getVersion() + 1 : 0;
+		return new Item(item.getId(), item.getName(), item.getReleaseDate(), version);
+	}
+	
+	@Override
+	protected String getItemColumns() {
+		return "id, name, release_date, version";
+	}
+	
+	// Reads only the version column, cheap check if a cached item is still current
+	public Optional<Integer> findVersionById(Connection connection, int id) throws SQLException {
+		String sql = "select version from items where id = ?";
+		try (PreparedStatement statement = connection.prepareStatement(sql)) {
+			statement.setInt(1, id);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				if (resultSet.next()) {
+					return Optional.of(resultSet.getInt(1));
+				} else {
+					return Optional.empty();
+				}
 			}
 		}
 	}
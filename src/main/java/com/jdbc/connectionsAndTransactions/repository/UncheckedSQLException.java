@@ -0,0 +1,19 @@
+package com.jdbc.connectionsAndTransactions.repository;
+
+import java.sql.SQLException;
+
+// Carries a SQLException out of callbacks and streams that can't throw checked exceptions
+public class UncheckedSQLException extends RuntimeException {
+
+	private static final long serialVersionUID = -4619436112353540152L;
+	
+	public UncheckedSQLException(SQLException cause) {
+		super(cause);
+	}
+	
+	@Override
+	public synchronized SQLException getCause() {
+		return (SQLException) super.getCause();
+	}
+	
+}
@@ -0,0 +1,96 @@
+package com.jdbc.connectionsAndTransactions.repository.aggregation;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+import com.jdbc.connectionsAndTransactions.repository.mapping.BidRow;
+
+// BidRepository that feeds saved bids into a BidAggregator.
+// Bids saved in autocommit mode are aggregated right away. Inside a Spring managed transaction
+// they are aggregated after the commit and dropped on rollback. In a plain JDBC transaction
+// the commit can't be observed, so they are aggregated right away as well.
+public class AggregatingBidRepository extends BidRepository {
+
+	private final BidRepository delegate;
+	private final BidAggregator aggregator;
+	
+	public AggregatingBidRepository(BidRepository delegate, BidAggregator aggregator) {
+		super(delegate.getBatchSize());
+		this.delegate = delegate;
+		this.aggregator = aggregator;
+	}
+	
+	// Aggregates all bids of the table, for example after a restart
+	public void load(Connection connection) throws SQLException {
+		delegate.forEachBid(connection, aggregator::add);
+	}
+	
+	@Override
+	public int save(Connection connection, Bid bid) throws SQLException {
+		int rowsAffected = delegate.save(connection, bid);
+		aggregateAfterCommit(connection, Collections.singletonList(bid));
+		return rowsAffected;
+	}
+	
+	@Override
+	public int[] saveAll(Connection connection, Collection<Bid> bids) throws SQLException {
+		int[] rowsAffected = delegate.saveAll(connection, bids);
+		aggregateAfterCommit(connection, bids);
+		return rowsAffected;
+	}
+	
+	@Override
+	public List<Bid> findPage(Connection connection, Bid after, int limit) throws SQLException {
+		return delegate.findPage(connection, after, limit);
+	}
+	
+	@Override
+	public List<Bid> findByIdRange(Connection connection, int fromId, int toId, int fetchSize) throws SQLException {
+		return delegate.findByIdRange(connection, fromId, toId, fetchSize);
+	}
+	
+	@Override
+	public void forEachBid(Connection connection, Consumer<BidRow> consumer, int fetchSize) throws SQLException {
+		delegate.forEachBid(connection, consumer, fetchSize);
+	}
+	
+	@Override
+	public void createTable(Connection conn) throws SQLException {
+		delegate.createTable(conn);
+	}
+	
+	@Override
+	public void dropTable(Connection conn) throws SQLException {
+		delegate.dropTable(conn);
+		aggregator.clear();
+	}
+	
+	public BidAggregator getAggregator() {
+		return aggregator;
+	}
+	
+	private void aggregateAfterCommit(Connection connection, Collection<Bid> bids) throws SQLException {
+		if (connection.getAutoCommit() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			bids.forEach(aggregator::add);
+			return;
+		}
+		List<Bid> pending = new ArrayList<>(bids);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				pending.forEach(aggregator::add);
+			}
+		});
+	}
+	
+}
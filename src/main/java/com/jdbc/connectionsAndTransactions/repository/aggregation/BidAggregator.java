@@ -0,0 +1,186 @@
+package com.jdbc.connectionsAndTransactions.repository.aggregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalInt;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.mapping.BidRow;
+
+// Columnar in-memory store of bids with running count, sum and max amount per user and currency.
+// Users and currencies are interned to int codes, every bid is appended to primitive columns
+// and its (user, currency) group is updated in place. Adding a bid of a known user and currency
+// allocates nothing apart from the occasional doubling of the columns.
+// Times are epoch millis as in BidRow. All methods are synchronized.
+public class BidAggregator {
+
+	private static final int INITIAL_CAPACITY = 1_024;
+	
+	private final StringDictionary users = new StringDictionary();
+	private final StringDictionary currencies = new StringDictionary();
+	
+	// one entry per bid
+	private int[] bidUsers = new int[INITIAL_CAPACITY];
+	private int[] bidCurrencies = new int[INITIAL_CAPACITY];
+	private int[] bidAmounts = new int[INITIAL_CAPACITY];
+	private long[] bidTimes = new long[INITIAL_CAPACITY];
+	private int size;
+	
+	// one entry per (user, currency) group, found by key through groupSlots (group + 1, 0 for empty)
+	private long[] groupKeys = new long[64];
+	private int[] groupCounts = new int[64];
+	private long[] groupSums = new long[64];
+	private int[] groupMaxes = new int[64];
+	private int[] groupSlots = new int[128];
+	private int groups;
+	
+	public synchronized void add(String user, String currency, int amount, long timeMillis) {
+		int userCode = users.intern(user);
+		int currencyCode = currencies.intern(currency);
+		if (size == bidAmounts.length) {
+			int capacity = size * 2;
+			bidUsers = Arrays.copyOf(bidUsers, capacity);
+			bidCurrencies = Arrays.copyOf(bidCurrencies, capacity);
+			bidAmounts = Arrays.copyOf(bidAmounts, capacity);
+			bidTimes = Arrays.copyOf(bidTimes, capacity);
+		}
+		bidUsers[size] = userCode;
+		bidCurrencies[size] = currencyCode;
+		bidAmounts[size] = amount;
+		bidTimes[size] = timeMillis;
+		size++;
+		
+		int group = groupOf(userCode, currencyCode);
+		groupCounts[group]++;
+		groupSums[group] += amount;
+		if (amount > groupMaxes[group]) {
+			groupMaxes[group] = amount;
+		}
+	}
+	
+	public void add(BidRow row) {
+		add(row.getUser(), row.getCurrency(), row.getAmount(), row.getTimeMillis());
+	}
+	
+	public void add(Bid bid) {
+		add(bid.getUser(), bid.getCurrency(), bid.getAmount(), BidRow.toTimeMillis(bid.getTime()));
+	}
+	
+	public synchronized int getCount(String user, String currency) {
+		int group = findGroup(user, currency);
+		return group < 0 ? 0 : groupCounts[group];
+	}
+	
+	public synchronized long getSum(String user, String currency) {
+		int group = findGroup(user, currency);
+		return group < 0 ? 0 : groupSums[group];
+	}
+	
+	public synchronized OptionalInt getMax(String user, String currency) {
+		int group = findGroup(user, currency);
+		return group < 0 ? OptionalInt.empty() : OptionalInt.of(groupMaxes[group]);
+	}
+	
+	// Sum of the user's bids in the currency with fromMillis <= time < toMillis, scans the columns
+	public synchronized long getSum(String user, String currency, long fromMillis, long toMillis) {
+		int userCode = users.find(user);
+		int currencyCode = currencies.find(currency);
+		if (userCode < 0 || currencyCode < 0) {
+			return 0;
+		}
+		long sum = 0;
+		for (int i = 0; i < size; i++) {
+			if (bidUsers[i] == userCode && bidCurrencies[i] == currencyCode && bidTimes[i] >= fromMillis && bidTimes[i] < toMillis) {
+				sum += bidAmounts[i];
+			}
+		}
+		return sum;
+	}
+	
+	// Users with bids in the currency, highest bid first, ties broken by the higher sum
+	public synchronized List<BidTotals> getLeaderboard(String currency, int limit) {
+		int currencyCode = currencies.find(currency);
+		List<BidTotals> leaderboard = new ArrayList<>();
+		if (currencyCode < 0) {
+			return leaderboard;
+		}
+		for (int group = 0; group < groups; group++) {
+			if ((int) groupKeys[group] == currencyCode) {
+				leaderboard.add(new BidTotals(users.get((int) (groupKeys[group] >>> 32)), currency,
+						groupCounts[group], groupSums[group], groupMaxes[group]));
+			}
+		}
+		leaderboard.sort(Comparator.comparingInt(BidTotals::getMax).thenComparingLong(BidTotals::getSum).reversed());
+		return leaderboard.size() > limit ? new ArrayList<>(leaderboard.subList(0, limit)) : leaderboard;
+	}
+	
+	public synchronized int size() {
+		return size;
+	}
+	
+	// Forgets all bids, the columns keep their capacity
+	public synchronized void clear() {
+		users.clear();
+		currencies.clear();
+		size = 0;
+		groups = 0;
+		Arrays.fill(groupSlots, 0);
+	}
+	
+	private int findGroup(String user, String currency) {
+		int userCode = users.find(user);
+		int currencyCode = currencies.find(currency);
+		if (userCode < 0 || currencyCode < 0) {
+			return -1;
+		}
+		return groupSlots[slotOf(key(userCode, currencyCode))] - 1;
+	}
+	
+	private int groupOf(int userCode, int currencyCode) {
+		long key = key(userCode, currencyCode);
+		int slot = slotOf(key);
+		if (groupSlots[slot] != 0) {
+			return groupSlots[slot] - 1;
+		}
+		if (groups == groupKeys.length) {
+			int capacity = groups * 2;
+			groupKeys = Arrays.copyOf(groupKeys, capacity);
+			groupCounts = Arrays.copyOf(groupCounts, capacity);
+			groupSums = Arrays.copyOf(groupSums, capacity);
+			groupMaxes = Arrays.copyOf(groupMaxes, capacity);
+		}
+		int group = groups++;
+		groupKeys[group] = key;
+		groupCounts[group] = 0;
+		groupSums[group] = 0;
+		groupMaxes[group] = Integer.MIN_VALUE;
+		groupSlots[slot] = group + 1;
+		if (groups * 2 > groupSlots.length) {
+			rehashGroups();
+		}
+		return group;
+	}
+	
+	private int slotOf(long key) {
+		int mask = groupSlots.length - 1;
+		int slot = StringDictionary.mix(Long.hashCode(key * 0x9E3779B97F4A7C15L)) & mask;
+		while (groupSlots[slot] != 0 && groupKeys[groupSlots[slot] - 1] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	private void rehashGroups() {
+		groupSlots = new int[groupSlots.length * 2];
+		for (int group = 0; group < groups; group++) {
+			groupSlots[slotOf(groupKeys[group])] = group + 1;
+		}
+	}
+	
+	private static long key(int userCode, int currencyCode) {
+		return (long) userCode << 32 | currencyCode & 0xFFFFFFFFL;
+	}
+	
+}
@@ -0,0 +1,12 @@
+package com.jdbc.connectionsAndTransactions.repository.aggregation;
+
+import lombok.Value;
+
+@Value
+public class BidTotals {
+	private final String user;
+	private final String currency;
+	private final int count;
+	private final long sum;
+	private final int max;
+}
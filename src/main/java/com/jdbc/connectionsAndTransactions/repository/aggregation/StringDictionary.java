@@ -0,0 +1,77 @@
+package com.jdbc.connectionsAndTransactions.repository.aggregation;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// Interns strings to dense int codes 0..size-1 with an open addressing table.
+// Looking up a string that is already known doesn't allocate. Not thread safe.
+final class StringDictionary {
+
+	private String[] values = new String[16];
+	// code + 1 of the string hashed to the slot, 0 for an empty slot
+	private int[] slots = new int[32];
+	private int size;
+	
+	int intern(String value) {
+		int slot = slotOf(value);
+		if (slots[slot] != 0) {
+			return slots[slot] - 1;
+		}
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size] = value;
+		slots[slot] = ++size;
+		if (size * 2 > slots.length) {
+			rehash();
+		}
+		return size - 1;
+	}
+	
+	// -1 for a string that was never interned
+	int find(String value) {
+		return slots[slotOf(value)] - 1;
+	}
+	
+	String get(int code) {
+		return values[code];
+	}
+	
+	int size() {
+		return size;
+	}
+	
+	void clear() {
+		Arrays.fill(values, 0, size, null);
+		Arrays.fill(slots, 0);
+		size = 0;
+	}
+	
+	private int slotOf(String value) {
+		int mask = slots.length - 1;
+		int slot = mix(Objects.hashCode(value)) & mask;
+		while (slots[slot] != 0 && !Objects.equals(values[slots[slot] - 1], value)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+	
+	private void rehash() {
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		for (int code = 0; code < size; code++) {
+			int slot = mix(Objects.hashCode(values[code])) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = code + 1;
+		}
+	}
+	
+	// spreads the high bits into the low bits used by the masks
+	static int mix(int hash) {
+		int spread = hash * 0x9E3779B9;
+		return spread ^ (spread >>> 16);
+	}
+	
+}
@@ -0,0 +1,51 @@
+package com.jdbc.connectionsAndTransactions.repository.async;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcExecutor;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+// Non-blocking front of a BidRepository, see AsyncItemRepository
+public class AsyncBidRepository {
+
+	private final BidRepository bidRepository;
+	private final AsyncJdbcExecutor executor;
+	private final Duration defaultTimeout;
+	
+	public AsyncBidRepository(BidRepository bidRepository, AsyncJdbcExecutor executor, Duration defaultTimeout) {
+		this.bidRepository = bidRepository;
+		this.executor = executor;
+		this.defaultTimeout = defaultTimeout;
+	}
+	
+	public CompletableFuture<Integer> saveAsync(Bid bid) {
+		return saveAsync(bid, defaultTimeout);
+	}
+	
+	public CompletableFuture<Integer> saveAsync(Bid bid, Duration timeout) {
+		return executor.submit(connection -> bidRepository.save(connection, bid), timeout);
+	}
+	
+	// All bids in one transaction
+	public CompletableFuture<int[]> saveAllAsync(Collection<Bid> bids) {
+		List<Bid> copy = new ArrayList<>(bids);
+		return executor.submit(connection -> {
+			connection.setAutoCommit(false);
+			int[] rowsAffected = bidRepository.saveAll(connection, copy);
+			connection.commit();
+			connection.setAutoCommit(true);
+			return rowsAffected;
+		}, defaultTimeout);
+	}
+	
+	public CompletableFuture<List<Bid>> findPageAsync(Bid after, int limit) {
+		return executor.submit((Connection connection) -> bidRepository.findPage(connection, after, limit), defaultTimeout);
+	}
+	
+}
@@ -0,0 +1,52 @@
+package com.jdbc.connectionsAndTransactions.repository.async;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcExecutor;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+// Non-blocking front of an ItemRepository: every call borrows its own connection on the
+// executor's worker pool and runs in autocommit mode. Calls fail with TimeoutException after
+// their timeout and cancelling a future cancels its running statement. A save that timed out
+// may still have been committed.
+public class AsyncItemRepository {
+
+	private final ItemRepository itemRepository;
+	private final AsyncJdbcExecutor executor;
+	private final Duration defaultTimeout;
+	
+	public AsyncItemRepository(ItemRepository itemRepository, AsyncJdbcExecutor executor, Duration defaultTimeout) {
+		this.itemRepository = itemRepository;
+		this.executor = executor;
+		this.defaultTimeout = defaultTimeout;
+	}
+	
+	public CompletableFuture<Optional<Item>> findByIdAsync(int id) {
+		return findByIdAsync(id, defaultTimeout);
+	}
+	
+	public CompletableFuture<Optional<Item>> findByIdAsync(int id, Duration timeout) {
+		return executor.submit(connection -> itemRepository.findById(connection, id), timeout);
+	}
+	
+	public CompletableFuture<Optional<Item>> findByNameAsync(String name) {
+		return executor.submit(connection -> itemRepository.findByName(connection, name), defaultTimeout);
+	}
+	
+	public CompletableFuture<List<Item>> findPageAsync(int afterId, int limit) {
+		return executor.submit(connection -> itemRepository.findPage(connection, afterId, limit), defaultTimeout);
+	}
+	
+	public CompletableFuture<Item> saveAsync(Item item) {
+		return saveAsync(item, defaultTimeout);
+	}
+	
+	public CompletableFuture<Item> saveAsync(Item item, Duration timeout) {
+		return executor.submit(connection -> itemRepository.save(connection, item), timeout);
+	}
+	
+}
@@ -0,0 +1,39 @@
+package com.jdbc.connectionsAndTransactions.repository.async;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcExecutor;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+// Serves items without blocking request threads, see AsyncItemController.
+// Enable with jdbc.async.enabled=true. Items are read through the application's ItemRepository bean,
+// a @Primary caching or decorated repository is picked up over the plain itemRepository.
+@Configuration
+@ConditionalOnProperty(name = "jdbc.async.enabled")
+public class AsyncRepositoryConfiguration {
+
+	@Bean
+	public AsyncJdbcExecutor asyncJdbcExecutor(JdbcConnectionManager jdbcConnectionManager,
+			@Value("${jdbc.async.max-concurrency:0}") int maxConcurrency,
+			@Value("${jdbc.async.max-queued:1000}") int maxQueued) {
+		AsyncJdbcConfig config = AsyncJdbcConfig.builder()
+				.maxConcurrency(maxConcurrency)
+				.maxQueued(maxQueued)
+				.build();
+		return new AsyncJdbcExecutor(jdbcConnectionManager, config);
+	}
+	
+	@Bean
+	public AsyncItemRepository asyncItemRepository(ItemRepository itemRepository, AsyncJdbcExecutor asyncJdbcExecutor,
+			@Value("${jdbc.async.timeout:5s}") Duration timeout) {
+		return new AsyncItemRepository(itemRepository, asyncJdbcExecutor, timeout);
+	}
+	
+}
@@ -0,0 +1,207 @@
+package com.jdbc.connectionsAndTransactions.repository.cache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+import com.jdbc.connectionsAndTransactions.repository.mapping.ItemRow;
+
+// Read-through cache in front of an ItemRepository or ItemVersionedRepository.
+// Inside a Spring managed transaction written items are invalidated only after the commit,
+// until then lookups of the transaction's own writes bypass the cache.
+// Without transaction synchronization items are invalidated right after the write, and rows read
+// with autocommit off are not cached, as the plain JDBC transaction may still roll them back.
+public class CachingItemRepository extends ItemRepository {
+
+	private final ItemRepository delegate;
+	private final LruTtlCache<Integer, Item> itemsById;
+	private final LruTtlCache<String, Item> itemsByName;
+	
+	public CachingItemRepository(ItemRepository delegate, int maxSize, Duration ttl) {
+		this.delegate = delegate;
+		this.itemsById = new LruTtlCache<>(maxSize, ttl);
+		this.itemsByName = new LruTtlCache<>(maxSize, ttl);
+	}
+	
+	@Override
+	public Item save(Connection connection, Item item) throws SQLException {
+		Item savedItem = delegate.save(connection, item);
+		invalidateAfterCommit(savedItem);
+		return savedItem;
+	}
+	
+	@Override
+	public List<Item> saveAll(Connection connection, List<Item> items) throws SQLException {
+		List<Item> savedItems = delegate.saveAll(connection, items);
+		savedItems.forEach(this::invalidateAfterCommit);
+		return savedItems;
+	}
+	
+	@Override
+	public List<Item> upsertAll(Connection connection, List<Item> items) throws SQLException {
+		List<Item> savedItems = delegate.upsertAll(connection, items);
+		savedItems.forEach(this::invalidateAfterCommit);
+		return savedItems;
+	}
+	
+	@Override
+	public Optional<Item> findById(Connection connection, int id) throws SQLException {
+		PendingInvalidations pending = getPendingInvalidations();
+		if (pending != null && pending.ids.contains(id)) {
+			return delegate.findById(connection, id);
+		}
+		Item item = itemsById.get(id);
+		if (item != null) {
+			return Optional.of(item);
+		}
+		Optional<Item> foundItem = delegate.findById(connection, id);
+		if (pending == null && mayCache(connection)) {
+			foundItem.ifPresent(found -> itemsById.put(id, found));
+		}
+		return foundItem;
+	}
+	
+	@Override
+	public Optional<Item> findByName(Connection connection, String name) throws SQLException {
+		PendingInvalidations pending = getPendingInvalidations();
+		if (pending != null) {
+			// a rename in this transaction may have changed what the name resolves to
+			return delegate.findByName(connection, name);
+		}
+		Item item = itemsByName.get(name);
+		if (item != null) {
+			return Optional.of(item);
+		}
+		Optional<Item> foundItem = delegate.findByName(connection, name);
+		if (mayCache(connection)) {
+			foundItem.ifPresent(found -> itemsByName.put(name, found));
+		}
+		return foundItem;
+	}
+	
+	@Override
+	public List<String> findNames(Connection conn) throws SQLException {
+		return delegate.findNames(conn);
+	}
+	
+	@Override
+	public void forEachName(Connection connection, Consumer<String> consumer, int fetchSize) throws SQLException {
+		delegate.forEachName(connection, consumer, fetchSize);
+	}
+	
+	// streamed items bypass the cache
+	@Override
+	public Stream<Item> streamAll(Connection connection, int fetchSize) throws SQLException {
+		return delegate.streamAll(connection, fetchSize);
+	}
+	
+	@Override
+	public List<Item> findPage(Connection connection, int afterId, int limit) throws SQLException {
+		return delegate.findPage(connection, afterId, limit);
+	}
+	
+	@Override
+	public void forEachItem(Connection connection, Consumer<ItemRow> consumer, int fetchSize) throws SQLException {
+		delegate.forEachItem(connection, consumer, fetchSize);
+	}
+	
+	@Override
+	public void createTable(Connection conn) throws SQLException {
+		delegate.createTable(conn);
+	}
+	
+	@Override
+	public void createTableWithUniqueName(Connection conn) throws SQLException {
+		delegate.createTableWithUniqueName(conn);
+	}
+	
+	@Override
+	public void dropTable(Connection conn) throws SQLException {
+		delegate.dropTable(conn);
+		invalidateAll();
+	}
+	
+	public void invalidate(Item item) {
+		itemsById.remove(item.getId());
+		itemsByName.remove(item.getName());
+		itemsByName.removeIf(cached -> cached.getId().equals(item.getId()));
+	}
+	
+	public void invalidateAll() {
+		itemsById.clear();
+		itemsByName.clear();
+	}
+	
+	public long getHitCount() {
+		return itemsById.getHitCount() + itemsByName.getHitCount();
+	}
+	
+	public long getMissCount() {
+		return itemsById.getMissCount() + itemsByName.getMissCount();
+	}
+	
+	public long getEvictionCount() {
+		return itemsById.getEvictionCount() + itemsByName.getEvictionCount();
+	}
+	
+	private void invalidateAfterCommit(Item item) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			invalidate(item);
+			return;
+		}
+		PendingInvalidations pending = getPendingInvalidations();
+		if (pending == null) {
+			pending = new PendingInvalidations();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(pending);
+		}
+		pending.ids.add(item.getId());
+		pending.items.add(item);
+	}
+	
+	// Spring managed transactions are tracked by PendingInvalidations instead
+	private boolean mayCache(Connection connection) throws SQLException {
+		return TransactionSynchronizationManager.isSynchronizationActive() || connection.getAutoCommit();
+	}
+	
+	private PendingInvalidations getPendingInvalidations() {
+		return (PendingInvalidations) TransactionSynchronizationManager.getResource(this);
+	}
+	
+	private class PendingInvalidations extends TransactionSynchronizationAdapter {
+		private final Set<Integer> ids = new HashSet<>();
+		private final List<Item> items = new ArrayList<>();
+		
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResource(CachingItemRepository.this);
+		}
+		
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(CachingItemRepository.this, this);
+		}
+		
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(CachingItemRepository.this);
+			if (status == TransactionSynchronization.STATUS_COMMITTED) {
+				items.forEach(CachingItemRepository.this::invalidate);
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,101 @@
+package com.jdbc.connectionsAndTransactions.repository.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+// Size bounded LRU map whose entries also expire a fixed time after they were put
+public class LruTtlCache<K, V> {
+
+	private final int maxSize;
+	private final long ttlNanos;
+	private final LinkedHashMap<K, CacheEntry<V>> entries;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	
+	public LruTtlCache(int maxSize, Duration ttl) {
+		this.maxSize = maxSize;
+		this.ttlNanos = ttl.toNanos();
+		this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+				if (size() > LruTtlCache.this.maxSize) {
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	public synchronized V get(K key) {
+		CacheEntry<V> entry = entries.get(key);
+		if (entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		if (System.nanoTime() - entry.expiresAtNanos >= 0) {
+			entries.remove(key);
+			evictionCount.incrementAndGet();
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return entry.value;
+	}
+	
+	public synchronized void put(K key, V value) {
+		entries.put(key, new CacheEntry<>(value, System.nanoTime() + ttlNanos));
+	}
+	
+	public synchronized void remove(K key) {
+		entries.remove(key);
+	}
+	
+	public synchronized void removeIf(Predicate<V> predicate) {
+		Iterator<CacheEntry<V>> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			if (predicate.test(iterator.next().value)) {
+				iterator.remove();
+			}
+		}
+	}
+	
+	public synchronized void clear() {
+		entries.clear();
+	}
+	
+	public synchronized int size() {
+		return entries.size();
+	}
+	
+	public long getHitCount() {
+		return hitCount.get();
+	}
+	
+	public long getMissCount() {
+		return missCount.get();
+	}
+	
+	// entries removed because the cache was full or they expired
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+	
+	private static class CacheEntry<V> {
+		private final V value;
+		private final long expiresAtNanos;
+		
+		private CacheEntry(V value, long expiresAtNanos) {
+			this.value = value;
+			this.expiresAtNanos = expiresAtNanos;
+		}
+	}
+	
+}
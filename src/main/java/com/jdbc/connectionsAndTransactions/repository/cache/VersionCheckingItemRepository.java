@@ -0,0 +1,176 @@
+package com.jdbc.connectionsAndTransactions.repository.cache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository;
+import com.jdbc.connectionsAndTransactions.repository.mapping.ItemRow;
+
+// Item cache for ItemVersionedRepository that revalidates entries with the version column.
+// A cached item is served unchecked within the staleness window after it was last validated,
+// after that only if "select version" still returns its version, otherwise the row is reloaded.
+// Writes evict the item, so the optimistic locking checks of updates are unaffected.
+// Rows read inside a transaction are served but never cached, as they may not be committed.
+public class VersionCheckingItemRepository extends ItemVersionedRepository {
+
+	private final ItemVersionedRepository delegate;
+	private final LruTtlCache<Integer, CachedItem> itemsById;
+	private final long stalenessWindowNanos;
+	private final AtomicLong uncheckedHitCount = new AtomicLong();
+	private final AtomicLong validatedHitCount = new AtomicLong();
+	private final AtomicLong reloadCount = new AtomicLong();
+	
+	public VersionCheckingItemRepository(ItemVersionedRepository delegate, int maxSize, Duration stalenessWindow, Duration maxAge) {
+		this.delegate = delegate;
+		this.itemsById = new LruTtlCache<>(maxSize, maxAge);
+		this.stalenessWindowNanos = stalenessWindow.toNanos();
+	}
+	
+	@Override
+	public Item save(Connection connection, Item item) throws SQLException {
+		evict(item);
+		try {
+			return delegate.save(connection, item);
+		} catch (OptimisticLockingException e) {
+			// another reader may have cached the outdated row meanwhile
+			evict(item);
+			throw e;
+		}
+	}
+	
+	@Override
+	public List<Item> saveAll(Connection connection, List<Item> items) throws SQLException {
+		items.forEach(this::evict);
+		try {
+			return delegate.saveAll(connection, items);
+		} catch (OptimisticLockingException e) {
+			items.forEach(this::evict);
+			throw e;
+		}
+	}
+	
+	@Override
+	public Optional<Item> findById(Connection connection, int id) throws SQLException {
+		CachedItem cachedItem = itemsById.get(id);
+		if (cachedItem != null) {
+			if (System.nanoTime() - cachedItem.validatedAtNanos < stalenessWindowNanos) {
+				uncheckedHitCount.incrementAndGet();
+				return Optional.of(cachedItem.item);
+			}
+			Optional<Integer> version = delegate.findVersionById(connection, id);
+			if (version.isPresent() && version.get().equals(cachedItem.item.getVersion())) {
+				validatedHitCount.incrementAndGet();
+				if (connection.getAutoCommit()) {
+					itemsById.put(id, new CachedItem(cachedItem.item));
+				}
+				return Optional.of(cachedItem.item);
+			}
+			reloadCount.incrementAndGet();
+		}
+		Optional<Item> foundItem = delegate.findById(connection, id);
+		if (!connection.getAutoCommit()) {
+			// a Spring managed transaction switches auto-commit off as well
+			return foundItem;
+		}
+		if (foundItem.isPresent()) {
+			itemsById.put(id, new CachedItem(foundItem.get()));
+		} else {
+			itemsById.remove(id);
+		}
+		return foundItem;
+	}
+	
+	@Override
+	public Optional<Item> findByName(Connection connection, String name) throws SQLException {
+		return delegate.findByName(connection, name);
+	}
+	
+	@Override
+	public Optional<Integer> findVersionById(Connection connection, int id) throws SQLException {
+		return delegate.findVersionById(connection, id);
+	}
+	
+	@Override
+	public List<String> findNames(Connection conn) throws SQLException {
+		return delegate.findNames(conn);
+	}
+	
+	@Override
+	public void forEachName(Connection connection, Consumer<String> consumer, int fetchSize) throws SQLException {
+		delegate.forEachName(connection, consumer, fetchSize);
+	}
+	
+	// streamed items bypass the cache
+	@Override
+	public Stream<Item> streamAll(Connection connection, int fetchSize) throws SQLException {
+		return delegate.streamAll(connection, fetchSize);
+	}
+	
+	@Override
+	public List<Item> findPage(Connection connection, int afterId, int limit) throws SQLException {
+		return delegate.findPage(connection, afterId, limit);
+	}
+	
+	@Override
+	public void forEachItem(Connection connection, Consumer<ItemRow> consumer, int fetchSize) throws SQLException {
+		delegate.forEachItem(connection, consumer, fetchSize);
+	}
+	
+	@Override
+	public void createTable(Connection conn) throws SQLException {
+		delegate.createTable(conn);
+	}
+	
+	@Override
+	public void createTableWithUniqueName(Connection conn) throws SQLException {
+		delegate.createTableWithUniqueName(conn);
+	}
+	
+	@Override
+	public void dropTable(Connection conn) throws SQLException {
+		delegate.dropTable(conn);
+		itemsById.clear();
+	}
+	
+	// served without querying the database
+	public long getUncheckedHitCount() {
+		return uncheckedHitCount.get();
+	}
+	
+	// served after the version check
+	public long getValidatedHitCount() {
+		return validatedHitCount.get();
+	}
+	
+	// version check failed and the row was read again
+	public long getReloadCount() {
+		return reloadCount.get();
+	}
+	
+	public long getMissCount() {
+		return itemsById.getMissCount();
+	}
+	
+	private void evict(Item item) {
+		if (item.getId() != null) {
+			itemsById.remove(item.getId());
+		}
+	}
+	
+	private static class CachedItem {
+		private final Item item;
+		private final long validatedAtNanos = System.nanoTime();
+		
+		private CachedItem(Item item) {
+			this.item = item;
+		}
+	}
+	
+}
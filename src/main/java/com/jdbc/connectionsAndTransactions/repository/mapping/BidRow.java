@@ -0,0 +1,64 @@
+package com.jdbc.connectionsAndTransactions.repository.mapping;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+
+// Reusable view of the current row of a bid scan. It is overwritten by the next row,
+// use toBid() to keep one. The time is kept as epoch seconds and nanos of the local
+// date time read as UTC, so toBid() keeps full precision and no time zone is involved.
+public final class BidRow {
+
+	// getTimeMillis() of rows whose time is NULL
+	public static final long NO_TIME = Long.MIN_VALUE;
+	
+	int id;
+	String user;
+	boolean hasTime;
+	long epochSecond;
+	int nano;
+	int amount;
+	String currency;
+	
+	public static long toTimeMillis(LocalDateTime time) {
+		return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC) * 1_000 + time.getNano() / 1_000_000;
+	}
+	
+	public int getId() {
+		return id;
+	}
+	
+	public String getUser() {
+		return user;
+	}
+	
+	public long getTimeMillis() {
+		return hasTime ? epochSecond * 1_000 + nano / 1_000_000 : NO_TIME;
+	}
+	
+	public LocalDateTime getTime() {
+		return hasTime ? LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC) : null;
+	}
+	
+	public int getAmount() {
+		return amount;
+	}
+	
+	public String getCurrency() {
+		return currency;
+	}
+	
+	public Bid toBid() {
+		return new Bid(id, user, getTime(), amount, currency);
+	}
+	
+	void setTime(LocalDateTime time) {
+		hasTime = time != null;
+		if (hasTime) {
+			epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+			nano = time.getNano();
+		}
+	}
+	
+}
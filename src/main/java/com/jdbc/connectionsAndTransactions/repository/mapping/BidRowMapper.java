@@ -0,0 +1,49 @@
+package com.jdbc.connectionsAndTransactions.repository.mapping;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import com.jdbc.connectionsAndTransactions.model.Bid;
+
+// Maps bid rows by column index, resolved once from the result set metadata
+public final class BidRowMapper {
+
+	private final int idColumn;
+	private final int userColumn;
+	private final int timeColumn;
+	private final int amountColumn;
+	private final int currencyColumn;
+	
+	private BidRowMapper(int idColumn, int userColumn, int timeColumn, int amountColumn, int currencyColumn) {
+		this.idColumn = idColumn;
+		this.userColumn = userColumn;
+		this.timeColumn = timeColumn;
+		this.amountColumn = amountColumn;
+		this.currencyColumn = currencyColumn;
+	}
+	
+	public static BidRowMapper compile(ResultSetMetaData metaData) throws SQLException {
+		return new BidRowMapper(RowMapperCache.findColumn(metaData, "id", true),
+				RowMapperCache.findColumn(metaData, "user", true),
+				RowMapperCache.findColumn(metaData, "time", true),
+				RowMapperCache.findColumn(metaData, "amount", true),
+				RowMapperCache.findColumn(metaData, "currency", true));
+	}
+	
+	public Bid map(ResultSet resultSet) throws SQLException {
+		return new Bid(resultSet.getInt(idColumn), resultSet.getString(userColumn),
+				resultSet.getObject(timeColumn, LocalDateTime.class),
+				resultSet.getInt(amountColumn), resultSet.getString(currencyColumn));
+	}
+	
+	public void readInto(ResultSet resultSet, BidRow row) throws SQLException {
+		row.id = resultSet.getInt(idColumn);
+		row.user = resultSet.getString(userColumn);
+		row.setTime(resultSet.getObject(timeColumn, LocalDateTime.class));
+		row.amount = resultSet.getInt(amountColumn);
+		row.currency = resultSet.getString(currencyColumn);
+	}
+	
+}
@@ -0,0 +1,37 @@
+package com.jdbc.connectionsAndTransactions.repository.mapping;
+
+import java.time.LocalDate;
+
+import com.jdbc.connectionsAndTransactions.model.Item;
+
+// Reusable view of the current row of an item scan. It is overwritten by the next row,
+// use toItem() to keep one.
+public final class ItemRow {
+
+	int id;
+	String name;
+	LocalDate releaseDate;
+	int version;
+	boolean versioned;
+	
+	public int getId() {
+		return id;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public LocalDate getReleaseDate() {
+		return releaseDate;
+	}
+	
+	public Integer getVersion() {
+		return versioned ? version : null;
+	}
+	
+	public Item toItem() {
+		return new Item(id, name, releaseDate, getVersion());
+	}
+	
+}
@@ -0,0 +1,48 @@
+package com.jdbc.connectionsAndTransactions.repository.mapping;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import com.jdbc.connectionsAndTransactions.model.Item;
+
+// Maps item rows by column index, resolved once from the result set metadata.
+// The version column is optional, items are unversioned without it.
+public final class ItemRowMapper {
+
+	private final int idColumn;
+	private final int nameColumn;
+	private final int releaseDateColumn;
+	private final int versionColumn;
+	
+	private ItemRowMapper(int idColumn, int nameColumn, int releaseDateColumn, int versionColumn) {
+		this.idColumn = idColumn;
+		this.nameColumn = nameColumn;
+		this.releaseDateColumn = releaseDateColumn;
+		this.versionColumn = versionColumn;
+	}
+	
+	public static ItemRowMapper compile(ResultSetMetaData metaData) throws SQLException {
+		return new ItemRowMapper(RowMapperCache.findColumn(metaData, "id", true),
+				RowMapperCache.findColumn(metaData, "name", true),
+				RowMapperCache.findColumn(metaData, "release_date", true),
+				RowMapperCache.findColumn(metaData, "version", false));
+	}
+	
+	public Item map(ResultSet resultSet) throws SQLException {
+		// reads the date straight into LocalDate, no java.sql.Date in between
+		return new Item(resultSet.getInt(idColumn), resultSet.getString(nameColumn),
+				resultSet.getObject(releaseDateColumn, LocalDate.class),
+				versionColumn == 0 ? null : resultSet.getInt(versionColumn));
+	}
+	
+	public void readInto(ResultSet resultSet, ItemRow row) throws SQLException {
+		row.id = resultSet.getInt(idColumn);
+		row.name = resultSet.getString(nameColumn);
+		row.releaseDate = resultSet.getObject(releaseDateColumn, LocalDate.class);
+		row.versioned = versionColumn != 0;
+		row.version = row.versioned ? resultSet.getInt(versionColumn) : 0;
+	}
+	
+}
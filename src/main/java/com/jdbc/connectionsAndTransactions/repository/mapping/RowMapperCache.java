@@ -0,0 +1,49 @@
+package com.jdbc.connectionsAndTransactions.repository.mapping;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Row mappers compiled from the metadata of the first result set of a statement, keyed by its sql.
+// Only for statements with an explicit column list, their result shape can't change between executions.
+public class RowMapperCache<M> {
+
+	private final ConcurrentMap<String, M> mappers = new ConcurrentHashMap<>();
+	private final MapperCompiler<M> compiler;
+	
+	public RowMapperCache(MapperCompiler<M> compiler) {
+		this.compiler = compiler;
+	}
+	
+	public M get(String sql, ResultSet resultSet) throws SQLException {
+		M mapper = mappers.get(sql);
+		if (mapper == null) {
+			mapper = compiler.compile(resultSet.getMetaData());
+			M existing = mappers.putIfAbsent(sql, mapper);
+			if (existing != null) {
+				mapper = existing;
+			}
+		}
+		return mapper;
+	}
+	
+	@FunctionalInterface
+	public interface MapperCompiler<M> {
+		M compile(ResultSetMetaData metaData) throws SQLException;
+	}
+	
+	static int findColumn(ResultSetMetaData metaData, String label, boolean required) throws SQLException {
+		for (int column = 1; column <= metaData.getColumnCount(); column++) {
+			if (label.equalsIgnoreCase(metaData.getColumnLabel(column))) {
+				return column;
+			}
+		}
+		if (required) {
+			throw new SQLException("Column " + label + " not found");
+		}
+		return 0;
+	}
+	
+}
@@ -0,0 +1,58 @@
+package com.jdbc.connectionsAndTransactions.web;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.async.AsyncItemRepository;
+
+// The request thread is released while the query waits for a connection or runs,
+// Spring MVC completes the response from the future
+@RestController
+@ConditionalOnProperty(name = "jdbc.async.enabled")
+public class AsyncItemController {
+
+	@Autowired
+	private AsyncItemRepository asyncItemRepository;
+	
+	// larger limits are cut to this, a page is read into memory at once
+	@Value("${jdbc.async.max-page-size:100}")
+	private int maxPageSize;
+	
+	@GetMapping("/items/{id}")
+	public CompletableFuture<ResponseEntity<Item>> item(@PathVariable int id) {
+		return asyncItemRepository.findByIdAsync(id)
+				.thenApply(item -> item.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build()));
+	}
+	
+	@GetMapping("/items")
+	public CompletableFuture<List<Item>> items(@RequestParam(defaultValue = "0") int afterId,
+			@RequestParam(defaultValue = "20") int limit) {
+		if (limit < 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+		}
+		return asyncItemRepository.findPageAsync(afterId, Math.min(limit, maxPageSize));
+	}
+	
+	// timed out or too many queued queries
+	@ExceptionHandler({ TimeoutException.class, RejectedExecutionException.class })
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	public void overloaded() {
+	}
+	
+}
@@ -0,0 +1,25 @@
+package com.jdbc.connectionsAndTransactions.web;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.QueryDiagnostics;
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.TransactionReport;
+
+@RestController
+@ConditionalOnProperty(name = "jdbc.query-diagnostics.enabled")
+public class QueryDiagnosticsController {
+
+	@Autowired
+	private QueryDiagnostics queryDiagnostics;
+	
+	@GetMapping("/jdbc/transactions")
+	public List<TransactionReport> transactions() {
+		return queryDiagnostics.getReports();
+	}
+	
+}
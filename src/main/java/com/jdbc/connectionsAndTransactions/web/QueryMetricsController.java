@@ -0,0 +1,25 @@
+package com.jdbc.connectionsAndTransactions.web;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.jdbc.connectionsAndTransactions.jdbc.metrics.QueryMetrics;
+import com.jdbc.connectionsAndTransactions.jdbc.metrics.StatementMetricsSnapshot;
+
+@RestController
+@ConditionalOnProperty(name = "jdbc.query-metrics.enabled", matchIfMissing = true)
+public class QueryMetricsController {
+
+	@Autowired
+	private QueryMetrics queryMetrics;
+	
+	@GetMapping("/jdbc/queries")
+	public List<StatementMetricsSnapshot> queries() {
+		return queryMetrics.snapshot();
+	}
+	
+}
@@ -0,0 +1,187 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbc.JdbcResultSet;
+import org.h2.jdbc.JdbcStatement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcExecutor;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class AsyncJdbcExecutorTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl,
+			PoolConfig.builder().minIdle(1).maxPoolSize(4).build());
+	
+	private BidRepository bidRepository = new BidRepository();
+	
+	@BeforeEach
+	public void createTable() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::dropTable);
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Test
+	public void submit_ShouldRunAllUnits_WithinConnectionBudget() throws Exception {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(jdbcConnectionManager, AsyncJdbcConfig.builder().build())) {
+			assertThat(executor.getMaxConcurrency()).isEqualTo(4);
+			List<CompletableFuture<Integer>> futures = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				int amount = i;
+				futures.add(executor.submit(connection -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					try {
+						return bidRepository.save(connection, new Bid("user", amount, "EUR"));
+					} finally {
+						running.decrementAndGet();
+					}
+				}));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+			
+			assertThat(futures).allMatch(future -> future.join() == 1);
+			assertThat(maxRunning.get()).isBetween(1, 4);
+			assertThat(executor.getQueuedCount()).isZero();
+		}
+		jdbcConnectionManager.executeOnNewConnection(connection ->
+				assertThat(JdbcUtil.getRowsCountFromTable(connection, "bids")).isEqualTo(1000));
+	}
+	
+	@Test
+	public void execute_ShouldFailFuture_AndRollBack() throws Exception {
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(jdbcConnectionManager, AsyncJdbcConfig.builder().build())) {
+			CompletableFuture<Void> future = executor.execute(connection -> {
+				connection.setAutoCommit(false);
+				bidRepository.save(connection, new Bid("user", 1, "EUR"));
+				connection.createStatement().execute("select * from no_such_table");
+			});
+			
+			assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(SQLException.class);
+		}
+		jdbcConnectionManager.executeOnNewConnection(connection ->
+				assertThat(JdbcUtil.getRowsCountFromTable(connection, "bids")).isZero());
+	}
+	
+	@Test
+	public void submit_ShouldFailFuture_WithCauseOfFailedConnect() {
+		JdbcConnectionManager unreachable = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, "jdbc:no-such-driver:db", null);
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(unreachable, AsyncJdbcConfig.builder().build())) {
+			CompletableFuture<Integer> future = executor.submit(connection -> 1);
+			
+			assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(SQLException.class)
+					.hasMessageContaining("No suitable driver");
+		}
+	}
+	
+	@Test
+	public void submit_ShouldRejectUnits_BeyondMaxQueued() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(jdbcConnectionManager,
+				AsyncJdbcConfig.builder().maxConcurrency(1).maxQueued(2).build())) {
+			CompletableFuture<Boolean> blocking = executor.submit(connection -> {
+				try {
+					return release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					throw new SQLException(e);
+				}
+			});
+			while (executor.getRunningCount() == 0) {
+				Thread.yield();
+			}
+			CompletableFuture<Integer> first = executor.submit(connection -> 1);
+			CompletableFuture<Integer> second = executor.submit(connection -> 2);
+			CompletableFuture<Integer> rejected = executor.submit(connection -> 3);
+			
+			assertThat(rejected).isCompletedExceptionally();
+			assertThatThrownBy(rejected::join).hasCauseInstanceOf(RejectedExecutionException.class);
+			release.countDown();
+			assertThat(blocking.get(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+			assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+		}
+	}
+	
+	@Test
+	public void cancelledUnit_ShouldNotReachTheRawConnection_ThroughItsStatements() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		CompletableFuture<Void> checks = new CompletableFuture<>();
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(jdbcConnectionManager, AsyncJdbcConfig.builder().build())) {
+			CompletableFuture<Void> future = executor.execute(connection -> {
+				try (Statement statement = connection.createStatement();
+						ResultSet resultSet = statement.executeQuery("select 1")) {
+					assertThat(statement.getConnection()).isSameAs(connection);
+					assertThat(resultSet.getStatement()).isSameAs(statement);
+					assertThat(connection.getMetaData().getConnection()).isSameAs(connection);
+					assertThatThrownBy(() -> connection.unwrap(JdbcConnection.class)).isInstanceOf(SQLException.class);
+					assertThatThrownBy(() -> statement.unwrap(JdbcStatement.class)).isInstanceOf(SQLException.class);
+					assertThatThrownBy(() -> resultSet.unwrap(JdbcResultSet.class)).isInstanceOf(SQLException.class);
+					Connection reached = resultSet.getStatement().getConnection();
+					started.countDown();
+					cancelled.await(5, TimeUnit.SECONDS);
+					assertThatThrownBy(reached::createStatement).isInstanceOf(SQLException.class)
+							.hasMessage("Unit of work was cancelled");
+					checks.complete(null);
+				} catch (Throwable e) {
+					checks.completeExceptionally(e);
+				}
+			});
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			future.cancel(true);
+			cancelled.countDown();
+			
+			checks.get(5, TimeUnit.SECONDS);
+		}
+	}
+	
+	@Test
+	public void submit_ShouldRunOnConfiguredExecutor() throws Exception {
+		ExecutorService workers = Executors.newFixedThreadPool(2, runnable -> new Thread(runnable, "custom-worker"));
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(jdbcConnectionManager,
+				AsyncJdbcConfig.builder().executor(workers).maxConcurrency(2).build())) {
+			assertThat(executor.submit(connection -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS))
+					.isEqualTo("custom-worker");
+		} finally {
+			workers.shutdown();
+		}
+	}
+	
+}
@@ -0,0 +1,117 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.async.AsyncJdbcExecutor;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+import com.jdbc.connectionsAndTransactions.repository.async.AsyncBidRepository;
+import com.jdbc.connectionsAndTransactions.repository.async.AsyncItemRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class AsyncRepositoryTests {
+
+	private static final String SLOW_QUERY = "select sum(x) from system_range(1, 10000000000)";
+	
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl,
+			PoolConfig.builder().minIdle(1).maxPoolSize(2).build());
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	private BidRepository bidRepository = new BidRepository();
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::createTable);
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::dropTable);
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Test
+	public void saveAsync_ShouldBeVisibleTo_FindByIdAsync() throws Exception {
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(jdbcConnectionManager, AsyncJdbcConfig.builder().build())) {
+			AsyncItemRepository items = new AsyncItemRepository(itemRepository, executor, Duration.ofSeconds(5));
+			AsyncBidRepository bids = new AsyncBidRepository(bidRepository, executor, Duration.ofSeconds(5));
+			
+			Item saved = items.saveAsync(new Item("Laptop", LocalDate.of(2020, 1, 1))).get(5, TimeUnit.SECONDS);
+			Optional<Item> found = items.findByIdAsync(saved.getId()).get(5, TimeUnit.SECONDS);
+			int rowsAffected = bids.saveAsync(new Bid("user", 100, "EUR")).get(5, TimeUnit.SECONDS);
+			
+			assertThat(found).hasValueSatisfying(item -> assertThat(item.getName()).isEqualTo("Laptop"));
+			assertThat(items.findByIdAsync(saved.getId() + 1).get(5, TimeUnit.SECONDS)).isEmpty();
+			assertThat(rowsAffected).isEqualTo(1);
+		}
+	}
+	
+	@Test
+	public void timeout_ShouldCancelStatement_AndFreeTheWorker() throws Exception {
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(jdbcConnectionManager, AsyncJdbcConfig.builder().maxConcurrency(1).build())) {
+			CompletableFuture<Long> slow = executor.submit(connection -> querySlowly(connection.createStatement()), Duration.ofMillis(200));
+			
+			assertThatThrownBy(() -> slow.get(10, TimeUnit.SECONDS))
+					.isInstanceOf(ExecutionException.class)
+					.hasCauseInstanceOf(TimeoutException.class);
+			AsyncItemRepository items = new AsyncItemRepository(itemRepository, executor, Duration.ofSeconds(5));
+			assertThat(items.findByIdAsync(1).get(5, TimeUnit.SECONDS)).isEmpty();
+		}
+	}
+	
+	@Test
+	public void cancel_ShouldCancelStatement_AndFreeTheWorker() throws Exception {
+		try (AsyncJdbcExecutor executor = new AsyncJdbcExecutor(jdbcConnectionManager, AsyncJdbcConfig.builder().maxConcurrency(1).build())) {
+			CountDownLatch started = new CountDownLatch(1);
+			CompletableFuture<Long> slow = executor.submit(connection -> {
+				Statement statement = connection.createStatement();
+				started.countDown();
+				return querySlowly(statement);
+			});
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			
+			slow.cancel(true);
+			
+			assertThatThrownBy(slow::join).isInstanceOf(CancellationException.class);
+			AsyncBidRepository bids = new AsyncBidRepository(bidRepository, executor, Duration.ofSeconds(5));
+			assertThat(bids.saveAsync(new Bid("user", 100, "EUR")).get(5, TimeUnit.SECONDS)).isEqualTo(1);
+		}
+	}
+	
+	private long querySlowly(Statement statement) throws SQLException {
+		try (Statement closing = statement; ResultSet resultSet = closing.executeQuery(SLOW_QUERY)) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		}
+	}
+	
+}
@@ -0,0 +1,78 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class BatchInsertTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private BidRepository bidRepository = new BidRepository(3);
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::dropTable);
+	}
+	
+	@Test
+	public void saveAll_ShouldInsertAllBids_InChunks() throws SQLException {
+		List<Bid> bids = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			bids.add(new Bid("Hans", i, "EUR"));
+		}
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			connection.setAutoCommit(false);
+			int[] rowsAffected = bidRepository.saveAll(connection, bids);
+			connection.commit();
+			assertThat(rowsAffected).containsOnly(1).hasSize(10);
+		});
+		assertThat(getBidsCount()).isEqualTo(10);
+	}
+	
+	@Test
+	public void saveAll_WhenTransactionRolledBack_ShouldNotPersistAnyBid() throws SQLException {
+		List<Bid> bids = List.of(new Bid("Hans", 1, "EUR"), new Bid("Franz", 2, "EUR"), new Bid("Frank", 3, "EUR"), new Bid("Hans", 4, "EUR"));
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			connection.setAutoCommit(false);
+			bidRepository.saveAll(connection, bids);
+			connection.rollback();
+		});
+		assertThat(getBidsCount()).isZero();
+	}
+	
+	@Test
+	public void saveAll_WithEmptyCollection_ShouldDoNothing() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			assertThat(bidRepository.saveAll(connection, List.of())).isEmpty();
+		});
+		assertThat(getBidsCount()).isZero();
+	}
+	
+	private int getBidsCount() {
+		int[] count = new int[1];
+		jdbcConnectionManager.executeOnNewConnection(connection -> count[0] = JdbcUtil.getRowsCountFromTable(connection, "bids"));
+		return count[0];
+	}
+	
+}
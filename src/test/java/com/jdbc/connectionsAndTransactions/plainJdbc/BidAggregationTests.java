@@ -0,0 +1,135 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+import com.jdbc.connectionsAndTransactions.repository.aggregation.AggregatingBidRepository;
+import com.jdbc.connectionsAndTransactions.repository.aggregation.BidAggregator;
+import com.jdbc.connectionsAndTransactions.repository.aggregation.BidTotals;
+import com.jdbc.connectionsAndTransactions.repository.mapping.BidRow;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class BidAggregationTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 12, 0);
+	
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private BidAggregator aggregator = new BidAggregator();
+	
+	private AggregatingBidRepository bidRepository = new AggregatingBidRepository(new BidRepository(), aggregator);
+	
+	@BeforeEach
+	public void createTable() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::dropTable);
+	}
+	
+	@Test
+	public void add_ShouldKeepCountSumAndMax_PerUserAndCurrency() {
+		aggregator.add("alice", "EUR", 10, 0);
+		aggregator.add("alice", "EUR", 30, 1);
+		aggregator.add("alice", "USD", 5, 2);
+		aggregator.add("bob", "EUR", 20, 3);
+		
+		assertThat(aggregator.getCount("alice", "EUR")).isEqualTo(2);
+		assertThat(aggregator.getSum("alice", "EUR")).isEqualTo(40);
+		assertThat(aggregator.getMax("alice", "EUR")).hasValue(30);
+		assertThat(aggregator.getMax("alice", "USD")).hasValue(5);
+		assertThat(aggregator.getCount("bob", "USD")).isZero();
+		assertThat(aggregator.getMax("carol", "EUR")).isEqualTo(OptionalInt.empty());
+		assertThat(aggregator.getSum("alice", "EUR", 1, 2)).isEqualTo(30);
+	}
+	
+	@Test
+	public void add_ShouldGrowPastInitialCapacity() {
+		for (int i = 0; i < 50_000; i++) {
+			aggregator.add("user" + (i % 5_000), i % 2 == 0 ? "EUR" : "USD", i, i);
+		}
+		
+		assertThat(aggregator.size()).isEqualTo(50_000);
+		assertThat(aggregator.getCount("user42", "EUR")).isEqualTo(10);
+		assertThat(aggregator.getMax("user42", "EUR")).hasValue(45_042);
+		assertThat(aggregator.getSum("user43", "USD")).isEqualTo(10L * 43 + 5_000L * 45);
+	}
+	
+	@Test
+	public void getLeaderboard_ShouldOrderByHighestBid() {
+		aggregator.add("alice", "EUR", 10, 0);
+		aggregator.add("bob", "EUR", 30, 0);
+		aggregator.add("carol", "EUR", 30, 0);
+		aggregator.add("carol", "EUR", 1, 0);
+		aggregator.add("dave", "USD", 100, 0);
+		
+		assertThat(aggregator.getLeaderboard("EUR", 2)).containsExactly(
+				new BidTotals("carol", "EUR", 2, 31, 30), new BidTotals("bob", "EUR", 1, 30, 30));
+		assertThat(aggregator.getLeaderboard("GBP", 2)).isEmpty();
+	}
+	
+	@Test
+	public void saveAll_ShouldAggregateCommittedBids() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			List<Bid> bids = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				bids.add(new Bid("user" + (i % 10), START.plusMinutes(i), i, "EUR"));
+			}
+			bidRepository.saveAll(connection, bids);
+			bidRepository.save(connection, new Bid("user1", START, 1_000, "USD"));
+		});
+		
+		assertThat(aggregator.size()).isEqualTo(101);
+		assertThat(aggregator.getSum("user3", "EUR")).isEqualTo(3 + 13 + 23 + 33 + 43 + 53 + 63 + 73 + 83 + 93);
+		assertThat(aggregator.getMax("user1", "USD")).hasValue(1_000);
+		long start = BidRow.toTimeMillis(START);
+		assertThat(aggregator.getSum("user3", "EUR", start, start + 30 * 60_000)).isEqualTo(3 + 13 + 23);
+	}
+	
+	@Test
+	public void load_ShouldAggregateExistingBids() {
+		BidAggregator reloaded = new BidAggregator();
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			for (int i = 0; i < 20; i++) {
+				bidRepository.save(connection, new Bid("user" + (i % 3), START.plusSeconds(i), i, "EUR"));
+			}
+			new AggregatingBidRepository(new BidRepository(), reloaded).load(connection);
+		});
+		
+		assertThat(reloaded.size()).isEqualTo(20);
+		for (String user : new String[] { "user0", "user1", "user2" }) {
+			assertThat(reloaded.getSum(user, "EUR")).isEqualTo(aggregator.getSum(user, "EUR"));
+			assertThat(reloaded.getMax(user, "EUR")).isEqualTo(aggregator.getMax(user, "EUR"));
+		}
+	}
+	
+	@Test
+	public void save_ShouldDeferAggregation_InsideSpringTransaction() {
+		// the test runs in a Spring managed transaction, bids wait for its commit
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			connection.setAutoCommit(false);
+			bidRepository.save(connection, new Bid("user", START, 1, "EUR"));
+			connection.rollback();
+		});
+		
+		assertThat(aggregator.size()).isZero();
+	}
+	
+}
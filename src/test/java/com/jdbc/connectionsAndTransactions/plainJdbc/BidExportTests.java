@@ -0,0 +1,163 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.export.BidExportConfig;
+import com.jdbc.connectionsAndTransactions.export.BidExporter;
+import com.jdbc.connectionsAndTransactions.export.CsvBidSink;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class BidExportTests {
+
+	private static final int BIDS = 2_345;
+	
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl,
+			PoolConfig.builder().maxPoolSize(4).build());
+	
+	private BidRepository bidRepository = new BidRepository();
+	
+	private BidExporter bidExporter = new BidExporter(jdbcConnectionManager, bidRepository,
+			BidExportConfig.builder().chunkSize(100).parallelism(4).fetchSize(50).build());
+	
+	@BeforeEach
+	public void createTable() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			bidRepository.createTable(connection);
+			List<Bid> bids = new ArrayList<>();
+			LocalDateTime now = LocalDateTime.of(2020, 1, 1, 12, 0);
+			for (int i = 0; i < BIDS; i++) {
+				bids.add(new Bid("user" + i, now.plusSeconds(i), i, i % 2 == 0 ? "EUR" : "US,D"));
+			}
+			bidRepository.saveAll(connection, bids);
+		});
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> bidRepository.dropTable(connection));
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Test
+	public void export_ShouldDeliverEveryBidOnce_InIdOrderWithinChunks() throws Exception {
+		Queue<List<Bid>> chunks = new ConcurrentLinkedQueue<>();
+		
+		long exported = bidExporter.export(chunks::add);
+		
+		assertThat(exported).isEqualTo(BIDS);
+		assertThat(chunks).hasSize((BIDS + 99) / 100);
+		List<Bid> all = new ArrayList<>();
+		for (List<Bid> chunk : chunks) {
+			assertThat(chunk).extracting("id").isSorted();
+			all.addAll(chunk);
+		}
+		assertThat(all).hasSize(BIDS);
+		assertThat(all).extracting("id").doesNotHaveDuplicates();
+	}
+	
+	@Test
+	public void export_ShouldWriteCsvWithHeader(@TempDir Path directory) throws Exception {
+		Path file = directory.resolve("bids.csv");
+		
+		try (CsvBidSink sink = new CsvBidSink(file)) {
+			bidExporter.export(sink);
+		}
+		
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		assertThat(lines).hasSize(BIDS + 1);
+		assertThat(lines.get(0)).isEqualTo("id,user,time,amount,currency");
+		assertThat(lines).anyMatch(line -> line.endsWith(",\"US,D\""));
+	}
+	
+	@Test
+	public void export_ShouldExcludeBidsInsertedAfterTheIdRangeWasRead() throws Exception {
+		Queue<Bid> exported = new ConcurrentLinkedQueue<>();
+		AtomicBoolean inserted = new AtomicBoolean();
+		
+		bidExporter.export(chunk -> {
+			exported.addAll(chunk);
+			if (inserted.compareAndSet(false, true)) {
+				jdbcConnectionManager.executeOnNewConnection(connection ->
+						bidRepository.save(connection, new Bid("late", LocalDateTime.now(), 1, "EUR")));
+			}
+		});
+		
+		assertThat(inserted).isTrue();
+		assertThat(exported).hasSize(BIDS);
+	}
+	
+	@Test
+	public void export_ShouldRethrowSinkFailure() {
+		assertThatThrownBy(() -> bidExporter.export(chunk -> {
+			throw new IOException("disk full");
+		})).isInstanceOf(IOException.class).hasMessage("disk full");
+	}
+	
+	@Test
+	public void export_ShouldNotCallSink_AfterItThrew() throws InterruptedException {
+		AtomicBoolean failed = new AtomicBoolean();
+		AtomicBoolean exportEnded = new AtomicBoolean();
+		AtomicInteger lateChunks = new AtomicInteger();
+		
+		assertThatThrownBy(() -> bidExporter.export(chunk -> {
+			// the first chunk fails while the others are writing, slowly and ignoring interrupts like a JDBC read
+			if (chunk.get(0).getUser().equals("user0")) {
+				failed.set(true);
+				throw new IOException("disk full");
+			}
+			while (!failed.get()) {
+				Thread.onSpinWait();
+			}
+			long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+			while (System.nanoTime() < end) {
+				Thread.onSpinWait();
+			}
+			if (exportEnded.get()) {
+				lateChunks.incrementAndGet();
+			}
+		})).isInstanceOf(IOException.class).hasMessage("disk full");
+		exportEnded.set(true);
+		
+		Thread.sleep(300);
+		assertThat(lateChunks).hasValue(0);
+		assertThat(jdbcConnectionManager.getConnectionPool().getActiveCount()).isZero();
+	}
+	
+	@Test
+	public void export_ShouldRethrowConnectFailure_WithItsCause() {
+		JdbcConnectionManager unreachable = new JdbcConnectionManager("sa", null, "jdbc:unknown:db", null);
+		BidExporter exporter = new BidExporter(unreachable, bidRepository, BidExportConfig.builder().build());
+		
+		assertThatThrownBy(() -> exporter.export(chunk -> {
+		})).isInstanceOf(SQLException.class).hasMessageContaining("No suitable driver");
+	}
+	
+}
@@ -0,0 +1,97 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.ingestion.BidIngestionConfig;
+import com.jdbc.connectionsAndTransactions.ingestion.BidIngestionPipeline;
+import com.jdbc.connectionsAndTransactions.ingestion.MpscRingBuffer;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class BidIngestionPipelineTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private BidRepository bidRepository = new BidRepository();
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::dropTable);
+	}
+	
+	@Test
+	public void bidsFromManyThreads_ShouldBeCommittedInBatches() throws Exception {
+		BidIngestionPipeline pipeline = new BidIngestionPipeline(jdbcConnectionManager, bidRepository,
+				BidIngestionConfig.builder().maxBatchSize(100).maxBatchDelay(Duration.ofMillis(5)).build());
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 1000; i++) {
+			int amount = i;
+			futures.add(CompletableFuture.supplyAsync(() -> pipeline.submit(new Bid("Hans", amount, "EUR"), 1, TimeUnit.SECONDS), executor)
+					.thenCompose(future -> future));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+		executor.shutdown();
+		pipeline.close();
+		assertThat(futures).allMatch(future -> future.join() == 1);
+		assertThat(getBidsCount()).isEqualTo(1000);
+		assertThat(pipeline.getCommittedBatchCount()).isLessThan(1000);
+	}
+	
+	@Test
+	public void close_ShouldFlushBufferedBids_AndRejectNewOnes() throws Exception {
+		BidIngestionPipeline pipeline = new BidIngestionPipeline(jdbcConnectionManager, bidRepository,
+				BidIngestionConfig.builder().maxBatchSize(1000).maxBatchDelay(Duration.ofSeconds(30)).build());
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			futures.add(pipeline.submit(new Bid("Franz", i, "EUR")));
+		}
+		pipeline.close();
+		assertThat(futures).allMatch(future -> future.isDone() && !future.isCompletedExceptionally());
+		assertThat(getBidsCount()).isEqualTo(10);
+		assertThat(pipeline.submit(new Bid("Franz", 11, "EUR"))).isCompletedExceptionally();
+	}
+	
+	@Test
+	public void ringBuffer_WhenFull_ShouldRejectOffer() {
+		MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+		assertThat(buffer.capacity()).isEqualTo(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(buffer.offer(i)).isTrue();
+		}
+		assertThat(buffer.offer(4)).isFalse();
+		assertThat(buffer.poll()).isEqualTo(0);
+		assertThat(buffer.offer(4)).isTrue();
+		assertThat(buffer.size()).isEqualTo(4);
+	}
+	
+	private int getBidsCount() {
+		int[] count = new int[1];
+		jdbcConnectionManager.executeOnNewConnection(connection -> count[0] = JdbcUtil.getRowsCountFromTable(connection, "bids"));
+		return count[0];
+	}
+	
+}
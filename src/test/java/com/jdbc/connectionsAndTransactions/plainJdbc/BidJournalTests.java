@@ -0,0 +1,353 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.ingestion.BidIngestionConfig;
+import com.jdbc.connectionsAndTransactions.ingestion.BidIngestionPipeline;
+import com.jdbc.connectionsAndTransactions.ingestion.journal.BidJournal;
+import com.jdbc.connectionsAndTransactions.ingestion.journal.BidJournalCheckpoint;
+import com.jdbc.connectionsAndTransactions.ingestion.journal.BidJournalConfig;
+import com.jdbc.connectionsAndTransactions.ingestion.journal.BidJournalReader;
+import com.jdbc.connectionsAndTransactions.ingestion.journal.BidJournalReplayer;
+import com.jdbc.connectionsAndTransactions.ingestion.journal.JournalRecord;
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class BidJournalTests {
+
+	private static final LocalDateTime TIME = LocalDateTime.of(2020, 1, 1, 12, 0, 0, 123_456_789);
+	
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private BidRepository bidRepository = new BidRepository();
+	
+	private BidJournalCheckpoint checkpoint = new BidJournalCheckpoint();
+	
+	@TempDir
+	Path directory;
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			bidRepository.createTable(connection);
+			checkpoint.createTable(connection);
+		});
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			bidRepository.dropTable(connection);
+			checkpoint.dropTable(connection);
+		});
+	}
+	
+	@Test
+	public void append_ShouldBeReadBackInSequenceOrder() throws IOException {
+		try (BidJournal journal = new BidJournal(config(4096))) {
+			List<Bid> bids = new ArrayList<>();
+			bids.add(new Bid("Hans", TIME, 10, "EUR"));
+			bids.add(new Bid("Zoë 東京 😀", TIME.plusDays(1), -5, "€"));
+			bids.add(new Bid("", TIME, Integer.MAX_VALUE, null));
+			for (Bid bid : bids) {
+				journal.append(bid);
+			}
+			
+			BidJournalReader reader = journal.newReader(0);
+			for (int i = 0; i < bids.size(); i++) {
+				assertThat(reader.poll()).isEqualTo(new JournalRecord(i + 1, bids.get(i)));
+			}
+			assertThat(reader.poll()).isNull();
+			assertThat(journal.getLastSequence()).isEqualTo(3);
+		}
+	}
+	
+	@Test
+	public void append_ShouldRollOverToNewSegments() throws IOException {
+		try (BidJournal journal = new BidJournal(config(256))) {
+			for (int i = 0; i < 100; i++) {
+				journal.append(new Bid("user" + i, TIME, i, "EUR"));
+			}
+			assertThat(countSegments()).isGreaterThan(10);
+			
+			BidJournalReader reader = journal.newReader(42);
+			for (int i = 42; i < 100; i++) {
+				assertThat(reader.poll().getBid().getAmount()).isEqualTo(i);
+			}
+			assertThat(reader.poll()).isNull();
+			
+			int segments = countSegments();
+			assertThat(journal.deleteSegmentsUpTo(50)).isPositive();
+			assertThat(countSegments()).isLessThan(segments);
+			assertThat(journal.newReader(50).poll().getSequence()).isEqualTo(51);
+		}
+	}
+	
+	@Test
+	public void append_ShouldNotAllocate() throws IOException {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		Bid bid = new Bid("Hans", TIME, 10, "EUR");
+		try (BidJournal journal = new BidJournal(config(4 * 1024 * 1024))) {
+			for (int i = 0; i < 1_000; i++) {
+				journal.append(bid);
+			}
+			long leastAllocated = Long.MAX_VALUE;
+			for (int round = 0; round < 5; round++) {
+				long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+				for (int i = 0; i < 10_000; i++) {
+					journal.append(bid);
+				}
+				leastAllocated = Math.min(leastAllocated, threads.getThreadAllocatedBytes(threadId) - allocatedBefore);
+			}
+			
+			// the first rounds may still run before the JIT compiled append, a compiled append allocates nothing
+			assertThat(leastAllocated).isZero();
+		}
+	}
+	
+	@Test
+	public void reopen_ShouldContinueAfterLastValidRecord_AndIgnoreTornWrite() throws IOException {
+		try (BidJournal journal = new BidJournal(config(4096))) {
+			for (int i = 0; i < 10; i++) {
+				journal.append(new Bid("user", TIME, i, "EUR"));
+			}
+		}
+		Path segment;
+		try (Stream<Path> files = Files.list(directory)) {
+			segment = files.findFirst().get();
+		}
+		// a record length and garbage that never got its checksum
+		int end = findEnd(segment);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+			buffer.putInt(end, 40);
+			buffer.putLong(end + 8, 11);
+			buffer.force();
+		}
+		
+		try (BidJournal journal = new BidJournal(config(4096))) {
+			assertThat(journal.getLastSequence()).isEqualTo(10);
+			assertThat(journal.append(new Bid("user", TIME, 10, "EUR"))).isEqualTo(11);
+		}
+		BidJournalReader reader = new BidJournalReader(directory, 0);
+		int records = 0;
+		while (reader.poll() != null) {
+			records++;
+		}
+		assertThat(records).isEqualTo(11);
+	}
+	
+	@Test
+	public void reader_ShouldFollowConcurrentWriter() throws Exception {
+		int bids = 20_000;
+		try (BidJournal journal = new BidJournal(config(64 * 1024))) {
+			BidJournalReader reader = journal.newReader(0);
+			CompletableFuture<Long> read = CompletableFuture.supplyAsync(() -> {
+				long expected = 1;
+				while (expected <= bids) {
+					JournalRecord record = reader.poll();
+					if (record == null) {
+						Thread.yield();
+						continue;
+					}
+					if (record.getSequence() != expected || record.getBid().getAmount() != expected) {
+						return -expected;
+					}
+					expected++;
+				}
+				return expected - 1;
+			});
+			for (int i = 1; i <= bids; i++) {
+				journal.append(new Bid("user", TIME, i, "EUR"));
+			}
+			assertThat(read.get()).isEqualTo(bids);
+		}
+	}
+	
+	@Test
+	public void replay_ShouldSaveRecordsAfterCheckpoint_Once() throws IOException {
+		BidJournalReplayer replayer = new BidJournalReplayer(bidRepository, checkpoint, 7);
+		try (BidJournal journal = new BidJournal(config(1024))) {
+			for (int i = 0; i < 25; i++) {
+				journal.append(new Bid("user" + i, TIME, i, "EUR"));
+			}
+			jdbcConnectionManager.executeOnNewConnection(connection -> {
+				// the first 10 bids made it into the database before the crash
+				checkpoint.update(connection, 10);
+				
+				assertThat(replayer.replay(connection, journal)).isEqualTo(15);
+				assertThat(replayer.replay(connection, journal)).isZero();
+				assertThat(checkpoint.read(connection)).isEqualTo(25);
+				assertThat(bidRepository.findByIdRange(connection, 0, Integer.MAX_VALUE, 100))
+						.extracting("amount").containsExactly(10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24);
+			});
+		}
+	}
+	
+	@Test
+	public void pipeline_ShouldJournalBids_AndCommitCheckpointWithBatches() throws Exception {
+		try (BidJournal journal = new BidJournal(config(4096))) {
+			BidIngestionPipeline pipeline = new BidIngestionPipeline(jdbcConnectionManager, bidRepository,
+					BidIngestionConfig.builder().maxBatchSize(10).maxBatchDelay(Duration.ofMillis(5)).build(), journal, checkpoint);
+			List<CompletableFuture<Integer>> futures = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				futures.add(pipeline.submit(new Bid("user", TIME, i, "EUR")));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+			pipeline.close();
+			
+			assertThat(journal.getLastSequence()).isEqualTo(50);
+			jdbcConnectionManager.executeOnNewConnection(connection -> {
+				assertThat(checkpoint.read(connection)).isEqualTo(50);
+				assertThat(new BidJournalReplayer(bidRepository, checkpoint).replay(connection, journal)).isZero();
+				assertThat(JdbcUtil.getRowsCountFromTable(connection, "bids")).isEqualTo(50);
+			});
+		}
+	}
+	
+	@Test
+	public void pipeline_FailedBatch_ShouldNotBeReplayed_AfterNextBatchSucceeded() throws Exception {
+		BidRepository failingOnce = new FailingBidRepository(1);
+		try (BidJournal journal = new BidJournal(config(4096))) {
+			BidIngestionPipeline pipeline = new BidIngestionPipeline(jdbcConnectionManager, failingOnce,
+					BidIngestionConfig.builder().maxBatchSize(5).maxBatchDelay(Duration.ofMillis(5)).build(), journal, checkpoint);
+			List<CompletableFuture<Integer>> failed = submit(pipeline, 0, 5);
+			assertThat(failed).allMatch(future -> future.handle((rows, e) -> e != null).join());
+			// a crash right now must not replay the bids whose callers were told they failed
+			jdbcConnectionManager.executeOnNewConnection(connection -> assertThat(checkpoint.read(connection)).isEqualTo(5));
+			List<CompletableFuture<Integer>> written = submit(pipeline, 5, 5);
+			CompletableFuture.allOf(written.toArray(new CompletableFuture[0])).get();
+			pipeline.close();
+			assertThat(pipeline.getFailedBidCount()).isEqualTo(5);
+		}
+		
+		// restart
+		try (BidJournal journal = new BidJournal(config(4096))) {
+			jdbcConnectionManager.executeOnNewConnection(connection -> {
+				assertThat(checkpoint.read(connection)).isEqualTo(10);
+				assertThat(new BidJournalReplayer(bidRepository, checkpoint).replay(connection, journal)).isZero();
+				assertThat(bidRepository.findByIdRange(connection, 0, Integer.MAX_VALUE, 100))
+						.extracting("amount").containsExactly(5, 6, 7, 8, 9);
+			});
+		}
+	}
+	
+	@Test
+	public void pipeline_ShouldWriteFailedBatchAgain_WhenFailureCannotBeCheckpointed() throws Exception {
+		BidRepository failingOnce = new FailingBidRepository(1);
+		BidJournalCheckpoint checkpointFailingOnce = new BidJournalCheckpoint() {
+			private boolean failed;
+			
+			@Override
+			public void update(Connection connection, long sequence) throws SQLException {
+				if (!failed) {
+					failed = true;
+					throw new SQLException("database unreachable");
+				}
+				super.update(connection, sequence);
+			}
+		};
+		try (BidJournal journal = new BidJournal(config(4096))) {
+			BidIngestionPipeline pipeline = new BidIngestionPipeline(jdbcConnectionManager, failingOnce,
+					BidIngestionConfig.builder().maxBatchSize(5).maxBatchDelay(Duration.ofMillis(5))
+							.failedBatchRetryDelay(Duration.ofMillis(10)).build(), journal, checkpointFailingOnce);
+			List<CompletableFuture<Integer>> futures = submit(pipeline, 0, 5);
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+			pipeline.close();
+			
+			assertThat(pipeline.getFailedBidCount()).isZero();
+			jdbcConnectionManager.executeOnNewConnection(connection -> {
+				assertThat(checkpoint.read(connection)).isEqualTo(5);
+				assertThat(JdbcUtil.getRowsCountFromTable(connection, "bids")).isEqualTo(5);
+			});
+		}
+	}
+	
+	@Test
+	public void pipeline_ShouldFailBidWithoutTime_WithoutJournalingIt() throws IOException {
+		try (BidJournal journal = new BidJournal(config(4096))) {
+			BidIngestionPipeline pipeline = new BidIngestionPipeline(jdbcConnectionManager, bidRepository,
+					BidIngestionConfig.builder().build(), journal, checkpoint);
+			assertThat(pipeline.submit(new Bid("user", null, 1, "EUR"))).isCompletedExceptionally();
+			pipeline.close();
+			assertThat(journal.getLastSequence()).isZero();
+		}
+	}
+	
+	private static List<CompletableFuture<Integer>> submit(BidIngestionPipeline pipeline, int firstAmount, int count) {
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		for (int i = firstAmount; i < firstAmount + count; i++) {
+			futures.add(pipeline.submit(new Bid("user", TIME, i, "EUR")));
+		}
+		return futures;
+	}
+	
+	private BidJournalConfig config(int segmentSize) {
+		return BidJournalConfig.builder().directory(directory).segmentSize(segmentSize).build();
+	}
+	
+	private int countSegments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return (int) files.count();
+		}
+	}
+	
+	private static int findEnd(Path segment) throws IOException {
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			int position = 0;
+			int length;
+			while ((length = buffer.getInt(position)) != 0) {
+				position += 8 + length;
+			}
+			return position;
+		}
+	}
+	
+	private static class FailingBidRepository extends BidRepository {
+		private int failures;
+		
+		private FailingBidRepository(int failures) {
+			this.failures = failures;
+		}
+		
+		@Override
+		public int[] saveAll(Connection connection, Collection<Bid> bids) throws SQLException {
+			if (failures > 0) {
+				failures--;
+				throw new SQLException("batch failed");
+			}
+			return super.saveAll(connection, bids);
+		}
+	}
+	
+}
@@ -0,0 +1,133 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository.OptimisticLockingException;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class BulkSaveTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	private ItemRepository itemVersionedRepository = new ItemVersionedRepository();
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(itemVersionedRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+	}
+	
+	@Test
+	public void saveAll_ShouldInsertNewAndUpdateExistingItems_InGivenOrder() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Item existing = itemRepository.save(connection, new Item("CTU Field Agent Report"));
+			List<Item> saved = itemRepository.saveAll(connection, List.of(
+					new Item("Chloeys Items"),
+					new Item(existing.getId(), "Destroyed Report", existing.getReleaseDate(), null),
+					new Item("Nuclear Bomb")));
+			assertThat(saved).extracting(Item::getName).containsExactly("Chloeys Items", "Destroyed Report", "Nuclear Bomb");
+			assertThat(saved.get(1).getId()).isEqualTo(existing.getId());
+			assertThat(saved.get(0).getId()).isNotNull().isLessThan(saved.get(2).getId());
+			assertThat(itemRepository.findById(connection, saved.get(2).getId())).contains(saved.get(2));
+			assertThat(itemRepository.findNames(connection)).containsExactlyInAnyOrder("Chloeys Items", "Destroyed Report", "Nuclear Bomb");
+		});
+	}
+	
+	@Test
+	public void saveAll_WithIdNotInTable_ShouldInsertItem() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			List<Item> saved = itemRepository.saveAll(connection, List.of(new Item(1000, "CTU Field Agent Report", LocalDate.now(), null)));
+			assertThat(saved.get(0).getId()).isNotNull();
+			assertThat(itemRepository.findNames(connection)).containsExactly("CTU Field Agent Report");
+		});
+	}
+	
+	@Test
+	public void saveAll_WithVersioning_ShouldIncrementVersion_AndDetectStaleItems() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Item item = itemVersionedRepository.save(connection, new Item("CTU Field Agent Report", 0));
+			List<Item> saved = itemVersionedRepository.saveAll(connection, List.of(item));
+			assertThat(saved.get(0).getVersion()).isEqualTo(1);
+			Assertions.assertThrows(OptimisticLockingException.class, () -> {
+				itemVersionedRepository.saveAll(connection, List.of(item));
+			});
+		});
+	}
+	
+	// save() shares the insert/update statements with saveAll but still reads the row first
+	@Test
+	public void save_ShouldKeepItsSingleItemSemantics() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Item inserted = itemRepository.save(connection, new Item(1000, "CTU Field Agent Report", LocalDate.now(), null));
+			Item updated = itemRepository.save(connection, new Item(inserted.getId(), "Destroyed Report", inserted.getReleaseDate(), 7));
+			assertThat(inserted.getId()).isNotEqualTo(1000);
+			assertThat(updated.getId()).isEqualTo(inserted.getId());
+			assertThat(updated.getVersion()).isEqualTo(7);
+			assertThat(itemRepository.findNames(connection)).containsExactly("Destroyed Report");
+			
+			Item versioned = itemVersionedRepository.save(connection, new Item("Nuclear Bomb", 0));
+			Item versionedUpdate = itemVersionedRepository.save(connection, versioned);
+			assertThat(versionedUpdate.getVersion()).isEqualTo(1);
+			Assertions.assertThrows(OptimisticLockingException.class, () -> {
+				itemVersionedRepository.save(connection, versioned);
+			});
+		});
+	}
+	
+	@Test
+	public void upsertAll_ShouldMergeItems_WithSingleStatement() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Item existing = itemRepository.save(connection, new Item("CTU Field Agent Report"));
+			List<Item> saved = itemRepository.upsertAll(connection, List.of(
+					new Item(existing.getId(), "Destroyed Report", existing.getReleaseDate(), null),
+					new Item("Nuclear Bomb")));
+			assertThat(saved.get(0).getId()).isEqualTo(existing.getId());
+			assertThat(saved.get(1).getId()).isNotNull();
+			assertThat(itemRepository.findNames(connection)).containsExactlyInAnyOrder("Destroyed Report", "Nuclear Bomb");
+		});
+	}
+	
+	@Test
+	public void upsertAll_WithVersioning_ShouldIncrementVersion_AndDetectStaleItems() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Item item = itemVersionedRepository.save(connection, new Item("CTU Field Agent Report", 0));
+			List<Item> saved = itemVersionedRepository.upsertAll(connection, List.of(
+					new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()),
+					new Item("Nuclear Bomb", 0),
+					new Item(1000, "Chloeys Items", LocalDate.now(), 3)));
+			assertThat(saved).extracting(Item::getVersion).containsExactly(1, 0, 4);
+			assertThat(saved.get(0).getId()).isEqualTo(item.getId());
+			assertThat(saved.get(2).getId()).isEqualTo(1000);
+			for (Item savedItem : saved) {
+				assertThat(itemVersionedRepository.findById(connection, savedItem.getId())).contains(savedItem);
+			}
+			Assertions.assertThrows(OptimisticLockingException.class, () -> {
+				itemVersionedRepository.upsertAll(connection, List.of(item));
+			});
+			assertThat(itemVersionedRepository.findById(connection, item.getId())).contains(saved.get(0));
+		});
+	}
+	
+}
@@ -0,0 +1,86 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.ConnectionPool;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolMetrics;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class ConnectionLeakDetectionTests {
+
+	private JdbcConnectionManager jdbcConnectionManager;
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Test
+	public void borrowAndRelease_ShouldRecordWaitAndHoldTime() throws SQLException, InterruptedException {
+		jdbcConnectionManager = pooledManager(PoolConfig.builder().minIdle(1).maxPoolSize(2).build());
+		ConnectionPool pool = jdbcConnectionManager.getConnectionPool();
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		pool.getMetrics().bindTo(registry);
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			assertThat(registry.get("jdbc.pool.active").gauge().value()).isEqualTo(1);
+			TimeUnit.MILLISECONDS.sleep(20);
+		}
+		PoolMetrics metrics = pool.getMetrics();
+		assertThat(metrics.getBorrowWait().getCount()).isEqualTo(1);
+		assertThat(metrics.getHoldTime().getCount()).isEqualTo(1);
+		assertThat(metrics.getHoldTime().getMaxNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+		assertThat(registry.get("jdbc.pool.active").gauge().value()).isZero();
+		assertThat(registry.get("jdbc.pool.hold").functionTimer().count()).isEqualTo(1);
+	}
+	
+	@Test
+	public void connectionHeldBeyondThreshold_ShouldBeReportedOnce() throws SQLException, InterruptedException {
+		jdbcConnectionManager = pooledManager(PoolConfig.builder().minIdle(1).maxPoolSize(2)
+				.leakDetectionThreshold(Duration.ofMillis(50)).build());
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			TimeUnit.MILLISECONDS.sleep(200);
+			// only reported, the borrower keeps the connection
+			assertThat(connection.createStatement().execute("select 1")).isTrue();
+		}
+		assertThat(jdbcConnectionManager.getConnectionPool().getMetrics().getLeaksDetected()).isEqualTo(1);
+		assertThat(jdbcConnectionManager.getConnectionPool().getMetrics().getLeaksReclaimed()).isZero();
+	}
+	
+	@Test
+	public void leakedConnection_ShouldBeReclaimed_WhenForcedReclaimIsEnabled() throws SQLException, InterruptedException {
+		jdbcConnectionManager = pooledManager(PoolConfig.builder().minIdle(0).maxIdle(1).maxPoolSize(1)
+				.borrowTimeout(Duration.ofSeconds(2))
+				.leakDetectionThreshold(Duration.ofMillis(200))
+				.reclaimLeakedConnections(true).build());
+		// never closed, like JdbcUtil.getRowsCountFromTable(jdbcConnectionManager.createConnection(), ...)
+		Connection leaked = jdbcConnectionManager.createConnection();
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			assertThat(connection.isValid(1)).isTrue();
+		}
+		assertThat(leaked.isClosed()).isTrue();
+		Assertions.assertThrows(SQLException.class, () -> leaked.createStatement());
+		assertThat(jdbcConnectionManager.getConnectionPool().getMetrics().getLeaksReclaimed()).isGreaterThanOrEqualTo(1);
+	}
+	
+	private static JdbcConnectionManager pooledManager(PoolConfig poolConfig) {
+		return new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl, poolConfig);
+	}
+	
+}
@@ -0,0 +1,129 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class ConnectionPoolTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl,
+			PoolConfig.builder().minIdle(1).maxIdle(2).maxPoolSize(2).borrowTimeout(Duration.ofMillis(200)).build());
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Test
+	public void executeOnNewConnection_ShouldReusePhysicalConnection() {
+		AtomicReference<Integer> first = new AtomicReference<>();
+		AtomicReference<Integer> second = new AtomicReference<>();
+		jdbcConnectionManager.executeOnNewConnection(connection -> first.set(sessionId(connection)));
+		jdbcConnectionManager.executeOnNewConnection(connection -> second.set(sessionId(connection)));
+		assertThat(first.get()).isEqualTo(second.get());
+		assertThat(jdbcConnectionManager.getConnectionPool().getIdleCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void borrow_WhenPoolIsExhausted_ShouldTimeOut() throws SQLException {
+		try (Connection connection1 = jdbcConnectionManager.getConnectionPool().borrow();
+				Connection connection2 = jdbcConnectionManager.getConnectionPool().borrow()) {
+			Assertions.assertThrows(SQLTransientConnectionException.class, () -> {
+				jdbcConnectionManager.getConnectionPool().borrow();
+			});
+		}
+		assertThat(jdbcConnectionManager.getConnectionPool().getActiveCount()).isZero();
+	}
+	
+	@Test
+	public void returnedConnection_ShouldHaveStateReset_AndUncommittedWorkRolledBack() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			connection.setAutoCommit(false);
+			connection.setReadOnly(true);
+			connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+			connection.setReadOnly(false);
+			itemRepository.save(connection, new Item("CTU Field Agent Report"));
+		});
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			assertThat(connection.getAutoCommit()).isTrue();
+			assertThat(connection.isReadOnly()).isFalse();
+			assertThat(connection.getTransactionIsolation()).isEqualTo(Connection.TRANSACTION_READ_COMMITTED);
+			assertThat(itemRepository.findNames(connection)).isEmpty();
+		});
+	}
+	
+	@Test
+	public void concurrentBorrowers_ShouldShareBoundedConnections() throws InterruptedException {
+		AtomicInteger executed = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		for (int i = 0; i < 200; i++) {
+			executor.execute(() -> jdbcConnectionManager.executeOnNewConnection(connection -> {
+				assertThat(jdbcConnectionManager.getConnectionPool().getTotalCount()).isLessThanOrEqualTo(2);
+				executed.incrementAndGet();
+			}));
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		assertThat(executed.get()).isEqualTo(200);
+		assertThat(jdbcConnectionManager.getConnectionPool().getActiveCount()).isZero();
+	}
+	
+	@Test
+	public void unwrap_ShouldNotExposePhysicalConnection() throws SQLException {
+		try (Connection connection = jdbcConnectionManager.createConnection()) {
+			assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+			assertThat(connection.isWrapperFor(JdbcConnection.class)).isFalse();
+			Assertions.assertThrows(SQLException.class, () -> connection.unwrap(JdbcConnection.class));
+		}
+	}
+	
+	@Test
+	public void closedConnection_ShouldNotBeUsable() throws SQLException {
+		Connection connection = jdbcConnectionManager.createConnection();
+		connection.close();
+		assertThat(connection.isClosed()).isTrue();
+		Assertions.assertThrows(SQLException.class, () -> connection.createStatement());
+	}
+	
+	private static int sessionId(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("select session_id()")) {
+			resultSet.next();
+			return resultSet.getInt(1);
+		}
+	}
+	
+}
@@ -0,0 +1,134 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.retry.ContentionAwareTransactionRunner;
+import com.jdbc.connectionsAndTransactions.jdbc.retry.RetryConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.retry.SqlFailureType;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class ContentionAwareTransactionRunnerTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::createTableWithUniqueName);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+	}
+	
+	@Test
+	public void classify_ShouldRecognizeVendorCodes() {
+		assertThat(SqlFailureType.classify(new SQLException("deadlock", "40P01"))).isEqualTo(SqlFailureType.DEADLOCK);
+		assertThat(SqlFailureType.classify(new SQLException("deadlock", "40001", 1213))).isEqualTo(SqlFailureType.DEADLOCK);
+		assertThat(SqlFailureType.classify(new SQLException("serialization", "40001"))).isEqualTo(SqlFailureType.SERIALIZATION_FAILURE);
+		assertThat(SqlFailureType.classify(new SQLException("lock wait timeout", "HY000", 1205))).isEqualTo(SqlFailureType.LOCK_TIMEOUT);
+		assertThat(SqlFailureType.classify(new SQLException("wrapper", new SQLException("lock", "HYT00", 50200)))).isEqualTo(SqlFailureType.LOCK_TIMEOUT);
+		assertThat(SqlFailureType.classify(new SQLException("syntax", "42000", 42000))).isEqualTo(SqlFailureType.OTHER);
+		assertThat(SqlFailureType.classify(new SQLException("deadlock", "61000", 60))).isEqualTo(SqlFailureType.DEADLOCK);
+		assertThat(SqlFailureType.classify(new SQLException("resource busy", "61000", 54))).isEqualTo(SqlFailureType.LOCK_TIMEOUT);
+	}
+	
+	@Test
+	public void classify_ShouldIgnoreVendorCodes_WithAnotherVendorsSQLState() {
+		assertThat(SqlFailureType.classify(new SQLException("other vendor", "42000", 60))).isEqualTo(SqlFailureType.OTHER);
+		assertThat(SqlFailureType.classify(new SQLException("other vendor", "22001", 54))).isEqualTo(SqlFailureType.OTHER);
+		assertThat(SqlFailureType.classify(new SQLException("other vendor", "HY000", 50200))).isEqualTo(SqlFailureType.OTHER);
+		assertThat(SqlFailureType.classify(new SQLException("other vendor", "08001", 90131))).isEqualTo(SqlFailureType.OTHER);
+	}
+	
+	@Test
+	public void failingSetAutoCommit_ShouldBeRethrown() {
+		JdbcConnectionManager closedConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl) {
+			@Override
+			public Connection openConnection() throws SQLException {
+				Connection connection = super.openConnection();
+				connection.close();
+				return connection;
+			}
+		};
+		ContentionAwareTransactionRunner runner = new ContentionAwareTransactionRunner(closedConnectionManager, RetryConfig.builder().build());
+		Assertions.assertThrows(SQLException.class, () -> runner.execute("closed", connection -> 1));
+		assertThat(runner.getStatistics("closed").getSuccesses()).isZero();
+		assertThat(runner.getStatistics("closed").getFailures(SqlFailureType.OTHER)).isEqualTo(1);
+	}
+	
+	@Test
+	public void connectFailure_ShouldBeRethrown_WithItsSQLState() {
+		JdbcConnectionManager unreachable = new JdbcConnectionManager("sa", null, "jdbc:unknown:db", null);
+		ContentionAwareTransactionRunner runner = new ContentionAwareTransactionRunner(unreachable, RetryConfig.builder().build());
+		SQLException e = Assertions.assertThrows(SQLException.class, () -> runner.execute("unreachable", connection -> 1));
+		assertThat(e.getMessage()).contains("No suitable driver");
+		assertThat(e.getSQLState()).isEqualTo("08001");
+	}
+	
+	@Test
+	public void lockTimeout_ShouldBeRetried_UntilLockIsReleased() throws Exception {
+		ContentionAwareTransactionRunner runner = new ContentionAwareTransactionRunner(jdbcConnectionManager,
+				RetryConfig.builder().maxAttempts(20).initialBackoff(Duration.ofMillis(10)).maxBackoff(Duration.ofMillis(50)).build());
+		try (Connection lockHolder = jdbcConnectionManager.createConnection()) {
+			// the uncommitted row locks the unique name until the holder rolls back
+			lockHolder.setAutoCommit(false);
+			itemRepository.save(lockHolder, new Item("CTU Field Agent Report"));
+			Thread releaser = new Thread(() -> {
+				try {
+					TimeUnit.MILLISECONDS.sleep(500);
+					lockHolder.rollback();
+				} catch (InterruptedException | SQLException e) {
+					e.printStackTrace();
+				}
+			});
+			releaser.start();
+			Item saved = runner.execute("insert-item", connection -> {
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("SET LOCK_TIMEOUT 100");
+				}
+				return itemRepository.save(connection, new Item("CTU Field Agent Report"));
+			});
+			releaser.join();
+			assertThat(saved.getId()).isNotNull();
+		}
+		assertThat(runner.getStatistics("insert-item").getSuccesses()).isEqualTo(1);
+		assertThat(runner.getStatistics("insert-item").getFailures(SqlFailureType.LOCK_TIMEOUT)).isGreaterThanOrEqualTo(1);
+		assertThat(runner.getStatistics("insert-item").getMaxWaitNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+	}
+	
+	@Test
+	public void nonRetryableFailure_ShouldBeRethrown_Immediately() {
+		ContentionAwareTransactionRunner runner = new ContentionAwareTransactionRunner(jdbcConnectionManager, RetryConfig.builder().build());
+		Assertions.assertThrows(SQLException.class, () -> {
+			runner.execute("broken", connection -> {
+				try (Statement statement = connection.createStatement()) {
+					return statement.executeUpdate("update missing_table set name = 'x'");
+				}
+			});
+		});
+		assertThat(runner.getStatistics("broken").getAttempts()).isEqualTo(1);
+		assertThat(runner.getStatistics("broken").getFailures(SqlFailureType.OTHER)).isEqualTo(1);
+	}
+	
+}
@@ -0,0 +1,136 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.groupcommit.GroupCommitConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.groupcommit.GroupCommitCoordinator;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class GroupCommitTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private BidRepository bidRepository = new BidRepository();
+	
+	@BeforeEach
+	public void createTable() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(bidRepository::dropTable);
+	}
+	
+	@Test
+	public void submit_ShouldCommitManyUnits_InFewTransactions() throws Exception {
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		try (GroupCommitCoordinator coordinator = new GroupCommitCoordinator(jdbcConnectionManager,
+				GroupCommitConfig.builder().maxGroupSize(100).maxGroupDelay(Duration.ofMillis(5)).build())) {
+			for (int i = 0; i < 1000; i++) {
+				Bid bid = new Bid("user", i, "EUR");
+				futures.add(coordinator.submit(connection -> bidRepository.save(connection, bid)));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+			
+			assertThat(futures).allMatch(future -> future.join() == 1);
+			assertThat(coordinator.getCommittedUnitCount()).isEqualTo(1000);
+			assertThat(coordinator.getCommitCount()).isBetween(10L, 100L);
+		}
+		jdbcConnectionManager.executeOnNewConnection(connection ->
+				assertThat(JdbcUtil.getRowsCountFromTable(connection, "bids")).isEqualTo(1000));
+	}
+	
+	@Test
+	public void failingUnit_ShouldRollBackOnlyToItsSavepoint() throws Exception {
+		CompletableFuture<Integer> before;
+		CompletableFuture<Integer> failing;
+		CompletableFuture<Integer> after;
+		try (GroupCommitCoordinator coordinator = new GroupCommitCoordinator(jdbcConnectionManager,
+				GroupCommitConfig.builder().maxGroupDelay(Duration.ofMillis(200)).maxGroupSize(3).build())) {
+			before = coordinator.submit(connection -> bidRepository.save(connection, new Bid("before", 1, "EUR")));
+			failing = coordinator.submit(connection -> {
+				bidRepository.save(connection, new Bid("failing", 2, "EUR"));
+				throw new SQLException("Bid rejected");
+			});
+			after = coordinator.submit(connection -> bidRepository.save(connection, new Bid("after", 3, "EUR")));
+			CompletableFuture.allOf(before, after).get(5, TimeUnit.SECONDS);
+			
+			assertThat(coordinator.getCommitCount()).isEqualTo(1);
+			assertThat(coordinator.getFailedUnitCount()).isEqualTo(1);
+		}
+		assertThatThrownBy(failing::join)
+				.isInstanceOf(CompletionException.class)
+				.hasMessageContaining("Bid rejected");
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			List<Bid> bids = bidRepository.findPage(connection, null, 10);
+			assertThat(bids).extracting(Bid::getUser).containsExactlyInAnyOrder("before", "after");
+		});
+	}
+	
+	@Test
+	public void unit_ShouldNotEndTheSharedTransaction() throws Exception {
+		try (GroupCommitCoordinator coordinator = new GroupCommitCoordinator(jdbcConnectionManager, GroupCommitConfig.builder().build())) {
+			CompletableFuture<Void> committing = coordinator.submit(connection -> {
+				connection.commit();
+				return null;
+			});
+			
+			assertThatThrownBy(() -> committing.get(5, TimeUnit.SECONDS)).hasMessageContaining("commit is not allowed");
+			assertThat(coordinator.submit(connection -> bidRepository.save(connection, new Bid("user", 1, "EUR"))).get(5, TimeUnit.SECONDS))
+					.isEqualTo(1);
+		}
+	}
+	
+	@Test
+	public void statementConnection_ShouldNotEndTheSharedTransaction() throws Exception {
+		try (GroupCommitCoordinator coordinator = new GroupCommitCoordinator(jdbcConnectionManager, GroupCommitConfig.builder().build())) {
+			CompletableFuture<Void> committing = coordinator.submit(connection -> {
+				try (Statement statement = connection.createStatement()) {
+					statement.getConnection().commit();
+				}
+				return null;
+			});
+			CompletableFuture<Object> unwrapping = coordinator.submit(connection -> connection.unwrap(org.h2.jdbc.JdbcConnection.class));
+			
+			assertThatThrownBy(() -> committing.get(5, TimeUnit.SECONDS)).hasMessageContaining("commit is not allowed");
+			assertThatThrownBy(() -> unwrapping.get(5, TimeUnit.SECONDS)).hasMessageContaining("unwrap");
+		}
+	}
+	
+	@Test
+	public void unitThrowingError_ShouldNotStopTheWriter() throws Exception {
+		try (GroupCommitCoordinator coordinator = new GroupCommitCoordinator(jdbcConnectionManager, GroupCommitConfig.builder().build())) {
+			CompletableFuture<Integer> failing = coordinator.submit(connection -> {
+				throw new AssertionError("broken unit");
+			});
+			
+			assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS)).hasMessageContaining("broken unit");
+			assertThat(coordinator.submit(connection -> bidRepository.save(connection, new Bid("user", 1, "EUR"))).get(5, TimeUnit.SECONDS))
+					.isEqualTo(1);
+			assertThat(coordinator.getFailedUnitCount()).isEqualTo(1);
+		}
+	}
+	
+}
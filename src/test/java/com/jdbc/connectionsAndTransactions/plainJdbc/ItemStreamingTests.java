@@ -0,0 +1,111 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class ItemStreamingTests {
+
+	private static final int ITEMS = 2_500;
+	
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			itemRepository.createTable(connection);
+			List<Item> items = new ArrayList<>();
+			for (int i = 0; i < ITEMS; i++) {
+				items.add(new Item("Item " + i));
+			}
+			itemRepository.saveAll(connection, items);
+		});
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+	}
+	
+	@Test
+	public void streamAll_ShouldReadEveryItem_InIdOrder() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			AtomicInteger previousId = new AtomicInteger();
+			try (Stream<Item> items = itemRepository.streamAll(connection, 100)) {
+				long count = items.peek(item -> {
+					assertThat(item.getId()).isGreaterThan(previousId.get());
+					previousId.set(item.getId());
+				}).count();
+				assertThat(count).isEqualTo(ITEMS);
+			}
+		});
+	}
+	
+	@Test
+	public void closingPartiallyConsumedStream_ShouldCloseStatement() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			AtomicReference<Statement> statement = new AtomicReference<>();
+			Connection trackingConnection = trackStatements(connection, statement);
+			try (Stream<Item> items = itemRepository.streamAll(trackingConnection, 10)) {
+				Iterator<Item> iterator = items.iterator();
+				assertThat(iterator.next().getName()).isEqualTo("Item 0");
+				assertThat(statement.get().getFetchSize()).isEqualTo(10);
+				assertThat(statement.get().isClosed()).isFalse();
+			}
+			assertThat(statement.get().isClosed()).isTrue();
+		});
+	}
+	
+	@Test
+	public void forEachName_ShouldVisitEveryName() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			AtomicInteger visited = new AtomicInteger();
+			itemRepository.forEachName(connection, name -> {
+				assertThat(name).startsWith("Item ");
+				visited.incrementAndGet();
+			});
+			assertThat(visited.get()).isEqualTo(ITEMS);
+			assertThat(itemRepository.findNames(connection)).hasSize(ITEMS);
+		});
+	}
+	
+	private static Connection trackStatements(Connection connection, AtomicReference<Statement> created) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+				(proxy, method, args) -> {
+					try {
+						Object result = method.invoke(connection, args);
+						if (result instanceof Statement) {
+							created.set((Statement) result);
+						}
+						return result;
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+	}
+	
+}
@@ -0,0 +1,142 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class KeysetPaginationTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 12, 0);
+	
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	
+	private BidRepository bidRepository = new BidRepository();
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			itemRepository.createTable(connection);
+			bidRepository.createTable(connection);
+			List<Item> items = new ArrayList<>();
+			for (int i = 0; i < 95; i++) {
+				items.add(new Item("Item " + i));
+			}
+			itemRepository.saveAll(connection, items);
+			// several bids share a timestamp, so pages have to break ties by id
+			List<Bid> bids = new ArrayList<>();
+			for (int i = 0; i < 95; i++) {
+				bids.add(new Bid("user" + i, START.minusSeconds(i / 4), i, "EUR"));
+			}
+			bidRepository.saveAll(connection, bids);
+		});
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			itemRepository.dropTable(connection);
+			bidRepository.dropTable(connection);
+		});
+	}
+	
+	@Test
+	public void itemPages_ShouldCoverAllItems_InIdOrder() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			List<Item> seen = new ArrayList<>();
+			List<Item> page = itemRepository.findPage(connection, 0, 10);
+			while (!page.isEmpty()) {
+				seen.addAll(page);
+				page = itemRepository.findPage(connection, page.get(page.size() - 1).getId(), 10);
+			}
+			assertThat(seen).hasSize(95);
+			assertThat(seen).isSortedAccordingTo(Comparator.comparing(Item::getId));
+			assertThat(seen).extracting("id").doesNotHaveDuplicates();
+		});
+	}
+	
+	@Test
+	public void bidPages_ShouldCoverAllBids_InTimeAndIdOrder() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			List<Bid> seen = new ArrayList<>();
+			List<Bid> page = bidRepository.findPage(connection, null, 7);
+			while (!page.isEmpty()) {
+				assertThat(page.size()).isLessThanOrEqualTo(7);
+				seen.addAll(page);
+				page = bidRepository.findPage(connection, page.get(page.size() - 1), 7);
+			}
+			assertThat(seen).hasSize(95);
+			assertThat(seen).isSortedAccordingTo(Comparator.comparing(Bid::getTime).thenComparing(Bid::getId));
+			assertThat(seen).extracting("id").doesNotHaveDuplicates();
+		});
+	}
+	
+	@Test
+	public void bidPages_ShouldStartWithBidsWithoutTime_AndContinueAfterThem() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("insert into bids (user, time, amount, currency) values"
+						+ " ('late1', null, 1, 'EUR'), ('late2', null, 2, 'EUR'), ('late3', null, 3, 'EUR')");
+			}
+			List<Bid> seen = new ArrayList<>();
+			List<Bid> page = bidRepository.findPage(connection, null, 2);
+			while (!page.isEmpty()) {
+				seen.addAll(page);
+				page = bidRepository.findPage(connection, page.get(page.size() - 1), 2);
+			}
+			assertThat(seen).hasSize(98);
+			assertThat(seen.subList(0, 3)).extracting("user").containsExactly("late1", "late2", "late3");
+			assertThat(seen.subList(3, 98)).isSortedAccordingTo(Comparator.comparing(Bid::getTime).thenComparing(Bid::getId));
+			assertThat(seen).extracting("id").doesNotHaveDuplicates();
+		});
+	}
+	
+	@Test
+	public void bidPage_AfterUnsavedBid_ShouldBeRejected() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> bidRepository.findPage(connection, new Bid("user", START, 1, "EUR"), 10));
+		});
+	}
+	
+	@Test
+	public void bidPageQuery_ShouldUseTimeIdIndex() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("explain select id, user, time, amount, currency from bids"
+					+ " where time >= ? and (time > ? or id > ?) order by time, id limit ?")) {
+				statement.setTimestamp(1, Timestamp.valueOf(START));
+				statement.setTimestamp(2, Timestamp.valueOf(START));
+				statement.setInt(3, 1);
+				statement.setInt(4, 10);
+				try (ResultSet resultSet = statement.executeQuery()) {
+					resultSet.next();
+					assertThat(resultSet.getString(1)).containsIgnoringCase("BIDS_TIME_ID");
+				}
+			}
+		});
+	}
+	
+}
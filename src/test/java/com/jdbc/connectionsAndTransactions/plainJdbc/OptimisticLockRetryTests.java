@@ -0,0 +1,107 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.retry.OptimisticLockRetryExecutor;
+import com.jdbc.connectionsAndTransactions.jdbc.retry.RetryConfig;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository.OptimisticLockingException;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class OptimisticLockRetryTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private ItemRepository itemRepository = new ItemVersionedRepository();
+	
+	private Item item = new Item("CTU Field Agent Report", 0);
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			itemRepository.createTable(connection);
+			item = itemRepository.save(connection, item);
+		});
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+	}
+	
+	@Test
+	public void concurrentUpdatesOfHotRow_ShouldAllSucceed_WithRetries() throws InterruptedException {
+		OptimisticLockRetryExecutor retryExecutor = new OptimisticLockRetryExecutor(jdbcConnectionManager,
+				RetryConfig.builder().maxAttempts(100).initialBackoff(Duration.ofMillis(1)).maxBackoff(Duration.ofMillis(20)).build());
+		AtomicInteger succeeded = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 20; i++) {
+			executor.execute(() -> {
+				try {
+					retryExecutor.execute("item-" + item.getId(), connection -> {
+						Item current = itemRepository.findById(connection, item.getId()).get();
+						return itemRepository.save(connection, new Item(current.getId(), current.getName(), current.getReleaseDate().plusDays(1), current.getVersion()));
+					});
+					succeeded.incrementAndGet();
+				} catch (SQLException e) {
+					e.printStackTrace();
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(30, TimeUnit.SECONDS);
+		assertThat(succeeded.get()).isEqualTo(20);
+		assertThat(retryExecutor.getStatistics("item-" + item.getId()).getSuccesses()).isEqualTo(20);
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			assertThat(itemRepository.findById(connection, item.getId()).get().getVersion()).isEqualTo(20);
+		});
+	}
+	
+	@Test
+	public void persistentConflict_ShouldBeRethrown_AfterMaxAttempts() {
+		OptimisticLockRetryExecutor retryExecutor = new OptimisticLockRetryExecutor(jdbcConnectionManager,
+				RetryConfig.builder().maxAttempts(3).initialBackoff(Duration.ZERO).build());
+		Item staleItem = new Item(item.getId(), item.getName(), item.getReleaseDate(), item.getVersion() + 10);
+		Assertions.assertThrows(OptimisticLockingException.class, () -> {
+			retryExecutor.execute("stale", connection -> itemRepository.save(connection, staleItem));
+		});
+		assertThat(retryExecutor.getStatistics("stale").getAttempts()).isEqualTo(3);
+		assertThat(retryExecutor.getStatistics("stale").getRetries()).isEqualTo(2);
+		assertThat(retryExecutor.getStatistics("stale").getExhausted()).isEqualTo(1);
+	}
+	
+	@Test
+	public void conflict_ShouldNotBeReportedAsSuccess_WhenRollbackFails() {
+		OptimisticLockRetryExecutor retryExecutor = new OptimisticLockRetryExecutor(jdbcConnectionManager,
+				RetryConfig.builder().maxAttempts(2).initialBackoff(Duration.ZERO).build());
+		Assertions.assertThrows(OptimisticLockingException.class, () -> {
+			retryExecutor.execute("closed", connection -> {
+				// the rollback after the conflict fails on the closed connection
+				connection.close();
+				throw new OptimisticLockingException();
+			});
+		});
+		assertThat(retryExecutor.getStatistics("closed").getSuccesses()).isZero();
+		assertThat(retryExecutor.getStatistics("closed").getExhausted()).isEqualTo(1);
+	}
+	
+}
@@ -0,0 +1,130 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.QueryDiagnostics;
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.QueryDiagnostics.QueryPatternViolationException;
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.QueryDiagnosticsConfig;
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.QueryFinding;
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.QueryFinding.Type;
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.TransactionReport;
+import com.jdbc.connectionsAndTransactions.jdbc.diagnostics.TransactionReport.Outcome;
+import com.jdbc.connectionsAndTransactions.jdbc.proxy.ProxyDataSource;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class QueryDiagnosticsTests {
+
+	private JdbcDataSource h2DataSource = new JdbcDataSource();
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	
+	@BeforeEach
+	public void setUp() throws SQLException {
+		h2DataSource.setURL(JdbcUtil.connectionUrl);
+		h2DataSource.setUser(JdbcUtil.username);
+		try (Connection connection = h2DataSource.getConnection()) {
+			itemRepository.createTable(connection);
+			for (int i = 0; i < 20; i++) {
+				itemRepository.save(connection, new Item("Item " + i));
+			}
+		}
+	}
+	
+	@AfterEach
+	public void tearDown() throws SQLException {
+		try (Connection connection = h2DataSource.getConnection()) {
+			itemRepository.dropTable(connection);
+		}
+	}
+	
+	@Test
+	public void findByIdLoop_ShouldBeReported_AsRepeatedQuery() throws SQLException {
+		QueryDiagnostics diagnostics = new QueryDiagnostics(QueryDiagnosticsConfig.builder().repeatedQueryThreshold(10).build());
+		try (Connection connection = new ProxyDataSource(h2DataSource, diagnostics).getConnection()) {
+			connection.setAutoCommit(false);
+			for (int id = 1; id <= 20; id++) {
+				itemRepository.findById(connection, id);
+			}
+			connection.commit();
+		}
+		List<TransactionReport> reports = diagnostics.getReports();
+		assertThat(reports).hasSize(1);
+		assertThat(reports.get(0).getOutcome()).isEqualTo(Outcome.COMMITTED);
+		assertThat(reports.get(0).getQueryCount()).isEqualTo(20);
+		QueryFinding finding = reports.get(0).getFindings().get(0);
+		assertThat(finding.getType()).isEqualTo(Type.REPEATED_QUERY);
+		assertThat(finding.getFingerprint()).isEqualTo("select id, name, release_date from items where id = ?");
+		assertThat(finding.getCount()).isEqualTo(20);
+		// the stack starts at the repository, proxy and driver frames are skipped
+		assertThat(finding.getStack().get(0).getClassName()).isEqualTo(ItemRepository.class.getName());
+		assertThat(finding.getStack()).extracting("className").contains(QueryDiagnosticsTests.class.getName());
+	}
+	
+	@Test
+	public void statementAboveThreshold_ShouldBeReported_AsSlowQuery() throws SQLException {
+		QueryDiagnostics diagnostics = new QueryDiagnostics(QueryDiagnosticsConfig.builder().slowQueryThreshold(Duration.ofMillis(50)).build());
+		try (Connection connection = new ProxyDataSource(h2DataSource, diagnostics).getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("create alias if not exists SLEEP for \"java.lang.Thread.sleep\"");
+			statement.execute("call sleep(100)");
+			statement.execute("select count(*) from items");
+		}
+		List<QueryFinding> slowQueries = diagnostics.getFindings(Type.SLOW_QUERY);
+		assertThat(slowQueries).hasSize(1);
+		assertThat(slowQueries.get(0).getFingerprint()).isEqualTo("call sleep(?)");
+		assertThat(slowQueries.get(0).getElapsedNanos()).isGreaterThanOrEqualTo(Duration.ofMillis(100).toNanos());
+		assertThat(diagnostics.getReports().get(0).getOutcome()).isEqualTo(Outcome.CLOSED);
+	}
+	
+	@Test
+	public void cleanTransaction_ShouldNotBeReported() throws SQLException {
+		QueryDiagnostics diagnostics = new QueryDiagnostics(QueryDiagnosticsConfig.builder().build());
+		try (Connection connection = new ProxyDataSource(h2DataSource, diagnostics).getConnection()) {
+			connection.setAutoCommit(false);
+			itemRepository.findById(connection, 1);
+			itemRepository.findNames(connection);
+			connection.rollback();
+		}
+		assertThat(diagnostics.getReports()).isEmpty();
+	}
+	
+	@Test
+	public void saveLoop_ShouldFail_WhenRepeatedQueriesAreForbidden() throws SQLException {
+		QueryDiagnostics diagnostics = new QueryDiagnostics(QueryDiagnosticsConfig.builder()
+				.repeatedQueryThreshold(5)
+				.failOn(EnumSet.of(Type.REPEATED_QUERY))
+				.build());
+		try (Connection connection = new ProxyDataSource(h2DataSource, diagnostics).getConnection()) {
+			connection.setAutoCommit(false);
+			// save selects the item before every update
+			QueryPatternViolationException exception = Assertions.assertThrows(QueryPatternViolationException.class, () -> {
+				for (int id = 1; id <= 20; id++) {
+					itemRepository.save(connection, new Item(id, "Renamed " + id, LocalDate.now(), null));
+				}
+			});
+			assertThat(exception.getFinding().getFingerprint()).isEqualTo("select id, name, release_date from items where id = ?");
+			connection.rollback();
+		}
+	}
+	
+}
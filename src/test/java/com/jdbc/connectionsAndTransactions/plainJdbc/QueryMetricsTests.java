@@ -0,0 +1,190 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.metrics.LatencyHistogram;
+import com.jdbc.connectionsAndTransactions.jdbc.metrics.QueryMetrics;
+import com.jdbc.connectionsAndTransactions.jdbc.metrics.StatementMetrics;
+import com.jdbc.connectionsAndTransactions.jdbc.proxy.ProxyDataSource;
+import com.jdbc.connectionsAndTransactions.jdbc.proxy.SqlFingerprint;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class QueryMetricsTests {
+
+	private QueryMetrics queryMetrics = new QueryMetrics();
+	
+	private ProxyDataSource dataSource;
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	
+	private BidRepository bidRepository = new BidRepository();
+	
+	@BeforeEach
+	public void setUp() throws SQLException {
+		JdbcDataSource h2DataSource = new JdbcDataSource();
+		h2DataSource.setURL(JdbcUtil.connectionUrl);
+		h2DataSource.setUser(JdbcUtil.username);
+		dataSource = new ProxyDataSource(h2DataSource, queryMetrics);
+		try (Connection connection = dataSource.getConnection()) {
+			itemRepository.createTable(connection);
+			bidRepository.createTable(connection);
+		}
+	}
+	
+	@AfterEach
+	public void tearDown() throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			itemRepository.dropTable(connection);
+			bidRepository.dropTable(connection);
+		}
+	}
+	
+	@Test
+	public void fingerprint_ShouldReplaceLiterals() {
+		assertThat(SqlFingerprint.of("SELECT *  FROM items WHERE id = 42 and name = 'O''Brien';"))
+				.isEqualTo("select * from items where id = ? and name = ?");
+		assertThat(SqlFingerprint.of("select * from items where id in (1, 2, 3)"))
+				.isEqualTo(SqlFingerprint.of("select * from items where id in (7)"));
+		assertThat(SqlFingerprint.of("select * from table2 where x1 = 5")).isEqualTo("select * from table2 where x1 = ?");
+	}
+	
+	@Test
+	public void fingerprint_ShouldBeCached_AfterManyOneOffStatements() {
+		for (int i = 0; i < 20_000; i++) {
+			SqlFingerprint.of("select * from items where name = 'one-off " + i + "'");
+		}
+		String sql = "select * from items where release_date = current_date";
+		assertThat(SqlFingerprint.of(sql)).isSameAs(SqlFingerprint.of(sql));
+	}
+	
+	@Test
+	public void concurrentFingerprints_ShouldStayCorrect_WhileOneOffsOverflowTheCache() throws Exception {
+		String hot = "select * from items where id = 1";
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int thread = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 5_000; i++) {
+						assertThat(SqlFingerprint.of(hot)).isEqualTo("select * from items where id = ?");
+						assertThat(SqlFingerprint.of("select * from bids where user = 'user" + thread + "-" + i + "'"))
+								.isEqualTo("select * from bids where user = ?");
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(SqlFingerprint.of(hot)).isSameAs(SqlFingerprint.of(hot));
+	}
+	
+	@Test
+	public void repositoryCalls_ShouldBeRecorded_PerFingerprint() throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			Item item = itemRepository.save(connection, new Item("CTU Field Agent Report"));
+			itemRepository.save(connection, item);
+			itemRepository.findById(connection, item.getId());
+			bidRepository.saveAll(connection, List.of(new Bid("user1", 10, "EUR"), new Bid("user2", 20, "EUR")));
+		}
+		StatementMetrics findById = queryMetrics.getMetrics("select id, name, release_date from items where id = ?");
+		// save of an item with id looks it up before updating
+		assertThat(findById.getCalls()).isEqualTo(2);
+		assertThat(findById.getRowsAffected()).isZero();
+		StatementMetrics bidInsert = queryMetrics.getMetrics(SqlFingerprint.of("insert into bids (user, time, amount, currency) values (?, ?, ?, ?)"));
+		assertThat(bidInsert.getCalls()).isEqualTo(1);
+		assertThat(bidInsert.getRowsAffected()).isEqualTo(2);
+		assertThat(queryMetrics.snapshot()).extracting("fingerprint").contains("select id, name, release_date from items where id = ?");
+	}
+	
+	@Test
+	public void failedStatements_ShouldBeCountedAsErrors() throws SQLException {
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			Assertions.assertThrows(SQLException.class, () -> statement.executeUpdate("update missing_table set name = 'x'"));
+		}
+		assertThat(queryMetrics.getMetrics("update missing_table set name = ?").getErrors()).isEqualTo(1);
+	}
+	
+	@Test
+	public void boundRegistry_ShouldSeeFingerprints_RecordedAfterBinding() throws SQLException {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		queryMetrics.bindTo(registry);
+		try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+			statement.executeUpdate("insert into items (name, release_date) values ('A', CURRENT_DATE)");
+		}
+		String sql = "insert into items (name, release_date) values (?, current_date)";
+		assertThat(registry.get("jdbc.query").tag("sql", sql).functionTimer().count()).isEqualTo(1);
+		FunctionCounter rows = registry.get("jdbc.query.rows").tag("sql", sql).functionCounter();
+		assertThat(rows.count()).isEqualTo(1);
+	}
+	
+	@Test
+	public void fingerprintsPastMax_ShouldBeRecordedUnderOther_WithoutAllocating() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		QueryMetrics boundedMetrics = new QueryMetrics(1);
+		boundedMetrics.afterQuery(1, "select ?", 1_000, 0, null);
+		String[] fingerprints = new String[100];
+		for (int i = 0; i < fingerprints.length; i++) {
+			fingerprints[i] = "select " + i + " from dual";
+		}
+		for (int i = 0; i < 10_000; i++) {
+			boundedMetrics.afterQuery(1, fingerprints[i % fingerprints.length], 1_000, 0, null);
+		}
+		long leastAllocated = Long.MAX_VALUE;
+		for (int round = 0; round < 5; round++) {
+			long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < 10_000; i++) {
+				boundedMetrics.afterQuery(1, fingerprints[i % fingerprints.length], 1_000, 0, null);
+			}
+			leastAllocated = Math.min(leastAllocated, threads.getThreadAllocatedBytes(threadId) - allocatedBefore);
+		}
+		assertThat(boundedMetrics.getMetrics(QueryMetrics.OTHER).getCalls()).isEqualTo(60_000);
+		assertThat(boundedMetrics.snapshot()).hasSize(2);
+		assertThat(leastAllocated).isZero();
+	}
+	
+	@Test
+	public void histogram_ShouldReportPercentiles_WithinBucketPrecision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+		}
+		assertThat(histogram.getCount()).isEqualTo(1000);
+		assertThat(histogram.getValueAtPercentile(50)).isBetween(TimeUnit.MICROSECONDS.toNanos(500), TimeUnit.MICROSECONDS.toNanos(532));
+		assertThat(histogram.getValueAtPercentile(99)).isBetween(TimeUnit.MICROSECONDS.toNanos(990), TimeUnit.MICROSECONDS.toNanos(1000));
+		assertThat(histogram.getMaxNanos()).isEqualTo(TimeUnit.MICROSECONDS.toNanos(1000));
+	}
+	
+}
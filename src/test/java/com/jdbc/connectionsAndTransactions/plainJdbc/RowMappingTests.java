@@ -0,0 +1,172 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Bid;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.BidRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository;
+import com.jdbc.connectionsAndTransactions.repository.mapping.BidRow;
+import com.jdbc.connectionsAndTransactions.repository.mapping.BidRowMapper;
+import com.jdbc.connectionsAndTransactions.repository.mapping.ItemRow;
+import com.jdbc.connectionsAndTransactions.repository.mapping.RowMapperCache;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class RowMappingTests {
+
+	private static final LocalDate RELEASE_DATE = LocalDate.of(2020, 2, 29);
+	
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	
+	private BidRepository bidRepository = new BidRepository();
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			connection.createStatement().execute("drop table if exists items");
+			connection.createStatement().execute("drop table if exists bids");
+		});
+	}
+	
+	@Test
+	public void findById_ShouldMapUnversionedItem() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			itemRepository.createTable(connection);
+			Item saved = itemRepository.save(connection, new Item("Item", RELEASE_DATE));
+			
+			assertThat(itemRepository.findById(connection, saved.getId())).contains(new Item(saved.getId(), "Item", RELEASE_DATE, null));
+			assertThat(itemRepository.findByName(connection, "Item")).contains(new Item(saved.getId(), "Item", RELEASE_DATE, null));
+		});
+	}
+	
+	@Test
+	public void findById_ShouldMapVersionColumn_OfVersionedRepository() {
+		ItemRepository versionedRepository = new ItemVersionedRepository();
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			versionedRepository.createTable(connection);
+			Item saved = versionedRepository.save(connection, new Item("Item", RELEASE_DATE, 0));
+			Item updated = versionedRepository.save(connection, new Item(saved.getId(), "Renamed", RELEASE_DATE, 0));
+			
+			assertThat(versionedRepository.findById(connection, saved.getId())).contains(updated);
+			assertThat(versionedRepository.findByName(connection, "Renamed").get().getVersion()).isEqualTo(1);
+		});
+	}
+	
+	@Test
+	public void forEachItem_ShouldReuseOneRow() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			itemRepository.createTable(connection);
+			List<Item> items = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				items.add(new Item("Item " + i, RELEASE_DATE.plusDays(i)));
+			}
+			List<Item> saved = itemRepository.saveAll(connection, items);
+			Map<ItemRow, Boolean> rows = new IdentityHashMap<>();
+			List<Item> scanned = new ArrayList<>();
+			
+			itemRepository.forEachItem(connection, row -> {
+				rows.put(row, true);
+				scanned.add(row.toItem());
+			}, 3);
+			
+			assertThat(rows).hasSize(1);
+			assertThat(scanned).isEqualTo(saved);
+		});
+	}
+	
+	@Test
+	public void forEachBid_ShouldReuseOneRow() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			bidRepository.createTable(connection);
+			List<Bid> bids = new ArrayList<>();
+			LocalDateTime time = LocalDateTime.of(2020, 1, 1, 12, 0, 0, 123_000_000);
+			for (int i = 0; i < 10; i++) {
+				bids.add(new Bid("user" + i, time.plusMinutes(i), i * 10, "EUR"));
+			}
+			bidRepository.saveAll(connection, bids);
+			Map<BidRow, Boolean> rows = new IdentityHashMap<>();
+			List<Bid> scanned = new ArrayList<>();
+			
+			bidRepository.forEachBid(connection, row -> {
+				rows.put(row, true);
+				scanned.add(row.toBid());
+			}, 3);
+			
+			assertThat(rows).hasSize(1);
+			assertThat(scanned).isEqualTo(bidRepository.findByIdRange(connection, 0, Integer.MAX_VALUE, 10));
+			assertThat(scanned.get(0).getTime()).isEqualTo(time);
+		});
+	}
+	
+	@Test
+	public void forEachBid_ShouldKeepMicroseconds_AndNullTimes() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			bidRepository.createTable(connection);
+			LocalDateTime time = LocalDateTime.of(2020, 1, 1, 12, 0, 0, 123_456_000);
+			bidRepository.save(connection, new Bid("user1", time, 10, "EUR"));
+			try (Statement statement = connection.createStatement()) {
+				statement.executeUpdate("insert into bids (user, time, amount, currency) values ('user2', null, 20, 'EUR')");
+			}
+			List<BidRow> rows = new ArrayList<>();
+			List<Bid> scanned = new ArrayList<>();
+			
+			bidRepository.forEachBid(connection, row -> {
+				scanned.add(row.toBid());
+				if (row.getTime() == null) {
+					assertThat(row.getTimeMillis()).isEqualTo(BidRow.NO_TIME);
+					rows.add(row);
+				}
+			});
+			
+			assertThat(rows).hasSize(1);
+			assertThat(scanned).isEqualTo(bidRepository.findByIdRange(connection, 0, Integer.MAX_VALUE, 10));
+			assertThat(scanned.get(0).getTime()).isEqualTo(time);
+		});
+	}
+	
+	@Test
+	public void compiledMapper_ShouldResolveColumnsByLabel_OncePerStatement() {
+		RowMapperCache<BidRowMapper> mappers = new RowMapperCache<>(BidRowMapper::compile);
+		String sql = "select currency, amount, time, user, id from bids where id = ?";
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			bidRepository.createTable(connection);
+			LocalDateTime time = LocalDateTime.of(2020, 1, 1, 12, 0);
+			bidRepository.save(connection, new Bid("user", time, 42, "USD"));
+			List<BidRowMapper> compiled = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				try (PreparedStatement statement = connection.prepareStatement(sql)) {
+					statement.setInt(1, 1);
+					try (ResultSet resultSet = statement.executeQuery()) {
+						resultSet.next();
+						BidRowMapper mapper = mappers.get(sql, resultSet);
+						compiled.add(mapper);
+						assertThat(mapper.map(resultSet)).isEqualTo(new Bid(1, "user", time, 42, "USD"));
+					}
+				}
+			}
+			assertThat(compiled.get(1)).isSameAs(compiled.get(0));
+		});
+	}
+	
+}
@@ -0,0 +1,99 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class StatementCacheTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl,
+			PoolConfig.builder().minIdle(1).maxIdle(1).maxPoolSize(1).statementCacheSize(2).build());
+	
+	private ItemRepository itemRepository = new ItemRepository();
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::createTable);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+		jdbcConnectionManager.shutdown();
+	}
+	
+	@Test
+	public void preparedStatement_ForTheSameSql_ShouldBeReusedAcrossBorrows() throws SQLException {
+		AtomicReference<PreparedStatement> first = new AtomicReference<>();
+		AtomicReference<PreparedStatement> second = new AtomicReference<>();
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("select * from items where id = ?")) {
+				first.set(statement.unwrap(PreparedStatement.class));
+			}
+		});
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			try (PreparedStatement statement = connection.prepareStatement("select * from items where id = ?")) {
+				second.set(statement.unwrap(PreparedStatement.class));
+			}
+		});
+		assertThat(first.get()).isSameAs(second.get());
+		assertThat(first.get().isClosed()).isFalse();
+	}
+	
+	@Test
+	public void preparedStatement_WithGeneratedKeys_ShouldBeCachedSeparately() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			String sql = "insert into items (name, release_date) values (?, ?)";
+			PreparedStatement plain;
+			PreparedStatement withKeys;
+			try (PreparedStatement statement = connection.prepareStatement(sql)) {
+				plain = statement.unwrap(PreparedStatement.class);
+			}
+			try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+				withKeys = statement.unwrap(PreparedStatement.class);
+			}
+			assertThat(plain).isNotSameAs(withKeys);
+		});
+	}
+	
+	@Test
+	public void leastRecentlyUsedStatement_ShouldBeClosedOnEviction() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			PreparedStatement evicted;
+			try (PreparedStatement statement = connection.prepareStatement("select * from items where id = ?")) {
+				evicted = statement.unwrap(PreparedStatement.class);
+			}
+			connection.prepareStatement("select * from items where name = ?").close();
+			connection.prepareStatement("select name from items").close();
+			assertThat(evicted.isClosed()).isTrue();
+		});
+	}
+	
+	@Test
+	public void repositoryCalls_ShouldWorkWithCachedStatements() throws SQLException {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Item saved = itemRepository.save(connection, new Item("CTU Field Agent Report"));
+			Item updated = itemRepository.save(connection, new Item(saved.getId(), "Chloeys Items", saved.getReleaseDate(), null));
+			assertThat(itemRepository.findById(connection, saved.getId())).contains(updated);
+			assertThat(itemRepository.findNames(connection)).containsExactly("Chloeys Items");
+		});
+	}
+	
+}
@@ -0,0 +1,126 @@
+package com.jdbc.connectionsAndTransactions.plainJdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.plainJdbc.util.JdbcUtil;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository.OptimisticLockingException;
+import com.jdbc.connectionsAndTransactions.repository.cache.VersionCheckingItemRepository;
+
+@DataJpaTest
+@TestPropertySource("classpath:h2-test-db.properties")
+public class VersionCheckingCacheTests {
+
+	private JdbcConnectionManager jdbcConnectionManager = new JdbcConnectionManager(JdbcUtil.username, JdbcUtil.password, JdbcUtil.connectionUrl);
+	
+	private ItemVersionedRepository itemRepository = new ItemVersionedRepository();
+	
+	private Item item = new Item("CTU Field Agent Report", 0);
+	
+	@BeforeEach
+	public void createTables() {
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			itemRepository.createTable(connection);
+			item = itemRepository.save(connection, item);
+		});
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+	}
+	
+	@Test
+	public void findById_WithinStalenessWindow_ShouldNotQueryVersion() throws SQLException {
+		VersionCheckingItemRepository cache = newCache(Duration.ofMinutes(1));
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			cache.findById(connection, item.getId());
+			cache.findById(connection, item.getId());
+		});
+		assertThat(cache.getMissCount()).isEqualTo(1);
+		assertThat(cache.getUncheckedHitCount()).isEqualTo(1);
+		assertThat(cache.getValidatedHitCount()).isZero();
+	}
+	
+	@Test
+	public void findById_AfterStalenessWindow_ShouldServeItem_WhenVersionIsUnchanged() throws SQLException {
+		VersionCheckingItemRepository cache = newCache(Duration.ZERO);
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			cache.findById(connection, item.getId());
+			assertThat(cache.findById(connection, item.getId())).contains(item);
+		});
+		assertThat(cache.getValidatedHitCount()).isEqualTo(1);
+		assertThat(cache.getReloadCount()).isZero();
+	}
+	
+	@Test
+	public void findById_AfterConcurrentUpdate_ShouldReloadItem() throws SQLException {
+		VersionCheckingItemRepository cache = newCache(Duration.ZERO);
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			cache.findById(connection, item.getId());
+			// update bypassing the cache
+			itemRepository.save(connection, new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()));
+			Item reloaded = cache.findById(connection, item.getId()).get();
+			assertThat(reloaded.getName()).isEqualTo("Destroyed Report");
+			assertThat(reloaded.getVersion()).isEqualTo(1);
+		});
+		assertThat(cache.getReloadCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void optimisticLockingException_ShouldEvictCachedItem() throws SQLException {
+		VersionCheckingItemRepository cache = newCache(Duration.ofMinutes(1));
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Item cachedItem = cache.findById(connection, item.getId()).get();
+			itemRepository.save(connection, new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()));
+			// cached within the staleness window, so the outdated item is still served
+			assertThat(cache.findById(connection, item.getId())).contains(cachedItem);
+			Assertions.assertThrows(OptimisticLockingException.class, () -> {
+				cache.save(connection, new Item(cachedItem.getId(), "Chloeys Items", cachedItem.getReleaseDate(), cachedItem.getVersion()));
+			});
+			assertThat(cache.findById(connection, item.getId()).get().getVersion()).isEqualTo(1);
+		});
+		assertThat(cache.getMissCount()).isEqualTo(2);
+	}
+	
+	@Test
+	public void findById_WithinRolledBackTransaction_ShouldNotCacheUncommittedItem() throws SQLException {
+		VersionCheckingItemRepository cache = newCache(Duration.ofMinutes(1));
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			connection.setAutoCommit(false);
+			cache.save(connection, new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()));
+			assertThat(cache.findById(connection, item.getId()).get().getName()).isEqualTo("Destroyed Report");
+			connection.rollback();
+			connection.setAutoCommit(true);
+			assertThat(cache.findById(connection, item.getId())).contains(item);
+		});
+		assertThat(cache.getMissCount()).isEqualTo(2);
+		assertThat(cache.getUncheckedHitCount()).isZero();
+	}
+	
+	@Test
+	public void findPage_ShouldReadVersions_FromDelegate() throws SQLException {
+		VersionCheckingItemRepository cache = newCache(Duration.ofMinutes(1));
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			Item updatedItem = cache.save(connection, new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()));
+			assertThat(cache.findPage(connection, 0, 10)).containsExactly(updatedItem);
+		});
+	}
+	
+	private VersionCheckingItemRepository newCache(Duration stalenessWindow) {
+		return new VersionCheckingItemRepository(itemRepository, 100, stalenessWindow, Duration.ofMinutes(10));
+	}
+	
+}
@@ -0,0 +1,163 @@
+package com.jdbc.connectionsAndTransactions.spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.web.AnnotationConfigWebContextLoader;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.jdbc.connectionsAndTransactions.jdbc.JdbcConnectionManager;
+import com.jdbc.connectionsAndTransactions.jdbc.pool.PoolConfig;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+import com.jdbc.connectionsAndTransactions.repository.async.AsyncRepositoryConfiguration;
+import com.jdbc.connectionsAndTransactions.repository.cache.CachingItemRepository;
+import com.jdbc.connectionsAndTransactions.web.AsyncItemController;
+
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestPropertySource(properties = { "jdbc.async.enabled=true", "jdbc.async.timeout=200ms", "jdbc.async.max-page-size=2" })
+@ContextConfiguration(loader=AnnotationConfigWebContextLoader.class)
+class AsyncItemControllerTests {
+	
+	private static final String URL = "jdbc:h2:mem:async_items;DB_CLOSE_DELAY=-1";
+	
+	@Autowired
+	private WebApplicationContext context;
+	
+	@Autowired
+	private JdbcConnectionManager jdbcConnectionManager;
+	
+	@Autowired
+	private CachingItemRepository cachingItemRepository;
+	
+	private final ItemRepository itemRepository = new ItemRepository();
+	
+	private MockMvc mockMvc;
+	
+	@BeforeEach
+	public void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+		jdbcConnectionManager.executeOnNewConnection(connection -> {
+			itemRepository.createTable(connection);
+			itemRepository.save(connection, new Item("first"));
+			itemRepository.save(connection, new Item("second"));
+			itemRepository.save(connection, new Item("third"));
+		});
+		cachingItemRepository.invalidateAll();
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		jdbcConnectionManager.executeOnNewConnection(itemRepository::dropTable);
+	}
+	
+	@Test
+	public void item_ShouldBeServed_ThroughTheItemRepositoryBean() throws Exception {
+		long misses = cachingItemRepository.getMissCount();
+		MvcResult result = mockMvc.perform(get("/items/1"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("first"));
+		// read through the @Primary caching repository, not a private plain one
+		assertThat(cachingItemRepository.getMissCount()).isEqualTo(misses + 1);
+	}
+	
+	@Test
+	public void missingItem_ShouldBeNotFound() throws Exception {
+		MvcResult result = mockMvc.perform(get("/items/42"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	public void item_ShouldBeServiceUnavailable_WhenTheQueryTimesOut() throws Exception {
+		// the pool's only connection is taken, so the query waits past its timeout
+		try (Connection connection = jdbcConnectionManager.openConnection()) {
+			MvcResult result = mockMvc.perform(get("/items/1"))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+			
+			mockMvc.perform(asyncDispatch(result))
+					.andExpect(status().isServiceUnavailable());
+		}
+	}
+	
+	@Test
+	public void hugeLimit_ShouldBeCutToMaxPageSize() throws Exception {
+		MvcResult result = mockMvc.perform(get("/items").param("limit", String.valueOf(Integer.MAX_VALUE)))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[1].name").value("second"));
+	}
+	
+	@Test
+	public void nonPositiveLimit_ShouldBeBadRequest() throws Exception {
+		mockMvc.perform(get("/items").param("limit", "-1"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/items").param("limit", "0"))
+				.andExpect(status().isBadRequest());
+	}
+	
+	@Configuration
+	@EnableWebMvc
+	@Import({ AsyncRepositoryConfiguration.class, AsyncItemController.class })
+	static class ContextConfiguration {
+		// converts "200ms" to a Duration like Spring Boot does
+		@Bean
+		public static ConversionService conversionService() {
+			return ApplicationConversionService.getSharedInstance();
+		}
+		@Bean
+		public JdbcConnectionManager jdbcConnectionManager() {
+			return new JdbcConnectionManager("sa", "", URL,
+					PoolConfig.builder().minIdle(1).maxPoolSize(1).borrowTimeout(Duration.ofSeconds(5)).build());
+		}
+		@Bean
+		public ItemRepository itemRepository() {
+			return new ItemRepository();
+		}
+		@Bean
+		@Primary
+		public CachingItemRepository cachingItemRepository() {
+			return new CachingItemRepository(itemRepository(), 10, Duration.ofMinutes(1));
+		}
+	}
+
+}
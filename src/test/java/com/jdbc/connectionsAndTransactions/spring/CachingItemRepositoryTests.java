@@ -0,0 +1,181 @@
+package com.jdbc.connectionsAndTransactions.spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemVersionedRepository;
+import com.jdbc.connectionsAndTransactions.repository.cache.CachingItemRepository;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource("classpath:h2-test-db.properties")
+@ContextConfiguration(loader=AnnotationConfigContextLoader.class)
+class CachingItemRepositoryTests {
+	
+	@Autowired
+	private DataSource ds;
+	
+	@Autowired
+	private PlatformTransactionManager txManager;
+	
+	private CachingItemRepository itemRepository = new CachingItemRepository(new ItemVersionedRepository(), 2, Duration.ofMinutes(1));
+	
+	private Item item;
+	
+	@BeforeEach
+	public void setUp() throws SQLException {
+		try (Connection connection = ds.getConnection()) {
+			itemRepository.createTable(connection);
+			item = itemRepository.save(connection, new Item("CTU Field Agent Report", 0));
+		}
+	}
+	@AfterEach
+	public void tearDown() throws SQLException {
+		try (Connection connection = ds.getConnection()) {
+			itemRepository.dropTable(connection);
+		}
+	}
+	
+	@Test
+	public void repeatedFindById_ShouldBeServedFromCache() throws SQLException {
+		try (Connection connection = ds.getConnection()) {
+			itemRepository.findById(connection, item.getId());
+			Item cachedItem = itemRepository.findById(connection, item.getId()).get();
+			assertThat(cachedItem.getName()).isEqualTo(item.getName());
+		}
+		assertThat(itemRepository.getMissCount()).isEqualTo(1);
+		assertThat(itemRepository.getHitCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void findPage_ShouldReadVersions_FromVersionedDelegate() throws SQLException {
+		try (Connection connection = ds.getConnection()) {
+			Item updatedItem = itemRepository.save(connection, new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()));
+			assertThat(updatedItem.getVersion()).isEqualTo(1);
+			assertThat(itemRepository.findPage(connection, 0, 10)).containsExactly(updatedItem);
+		}
+	}
+	
+	@Test
+	public void saveInTransaction_ShouldInvalidateEntry_OnlyAfterCommit() throws SQLException {
+		try (Connection connection = ds.getConnection()) {
+			itemRepository.findById(connection, item.getId());
+			itemRepository.findByName(connection, item.getName());
+		}
+		new TransactionTemplate(txManager).execute(status -> {
+			Connection connection = DataSourceUtils.getConnection(ds);
+			try (Connection otherConnection = ds.getConnection()) {
+				Item renamed = itemRepository.save(connection, new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()));
+				// own writes bypass the cache
+				assertThat(itemRepository.findById(connection, item.getId())).contains(renamed);
+				// other readers keep seeing the committed item
+				assertThat(itemRepository.findById(otherConnection, item.getId()).get().getName()).isEqualTo(item.getName());
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+			return null;
+		});
+		try (Connection connection = ds.getConnection()) {
+			assertThat(itemRepository.findById(connection, item.getId()).get().getName()).isEqualTo("Destroyed Report");
+			assertThat(itemRepository.findByName(connection, item.getName())).isEmpty();
+		}
+	}
+	
+	@Test
+	public void saveInRolledBackTransaction_ShouldKeepEntry() throws SQLException {
+		try (Connection connection = ds.getConnection()) {
+			itemRepository.findById(connection, item.getId());
+		}
+		new TransactionTemplate(txManager).execute(status -> {
+			try {
+				itemRepository.save(DataSourceUtils.getConnection(ds), new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()));
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+			status.setRollbackOnly();
+			return null;
+		});
+		long hits = itemRepository.getHitCount();
+		try (Connection connection = ds.getConnection()) {
+			assertThat(itemRepository.findById(connection, item.getId()).get().getName()).isEqualTo(item.getName());
+		}
+		assertThat(itemRepository.getHitCount()).isEqualTo(hits + 1);
+	}
+	
+	@Test
+	public void readInRolledBackJdbcTransaction_ShouldNotBeCached() throws SQLException {
+		try (Connection connection = ds.getConnection()) {
+			connection.setAutoCommit(false);
+			itemRepository.save(connection, new Item(item.getId(), "Destroyed Report", item.getReleaseDate(), item.getVersion()));
+			assertThat(itemRepository.findById(connection, item.getId()).get().getName()).isEqualTo("Destroyed Report");
+			assertThat(itemRepository.findByName(connection, "Destroyed Report")).isPresent();
+			connection.rollback();
+		}
+		try (Connection connection = ds.getConnection()) {
+			assertThat(itemRepository.findById(connection, item.getId()).get().getName()).isEqualTo(item.getName());
+			assertThat(itemRepository.findByName(connection, "Destroyed Report")).isEmpty();
+		}
+	}
+	
+	@Test
+	public void cacheAboveMaxSize_ShouldEvictLeastRecentlyUsed() throws SQLException {
+		try (Connection connection = ds.getConnection()) {
+			Item second = itemRepository.save(connection, new Item("Chloeys Items", 0));
+			Item third = itemRepository.save(connection, new Item("Nuclear Bomb", 0));
+			itemRepository.findById(connection, item.getId());
+			itemRepository.findById(connection, second.getId());
+			itemRepository.findById(connection, third.getId());
+		}
+		assertThat(itemRepository.getEvictionCount()).isEqualTo(1);
+	}
+	
+	@Test
+	public void expiredEntry_ShouldBeReloaded() throws SQLException, InterruptedException {
+		CachingItemRepository shortLivedCache = new CachingItemRepository(new ItemVersionedRepository(), 10, Duration.ofMillis(10));
+		try (Connection connection = ds.getConnection()) {
+			shortLivedCache.findById(connection, item.getId());
+			Thread.sleep(20);
+			shortLivedCache.findById(connection, item.getId());
+		}
+		assertThat(shortLivedCache.getMissCount()).isEqualTo(2);
+		assertThat(shortLivedCache.getEvictionCount()).isEqualTo(1);
+	}
+	
+	@Configuration
+	static class ContextConfiguration {
+		@Bean
+		public DataSource dataSource() {
+			JdbcDataSource ds = new JdbcDataSource();
+			ds.setURL("jdbc:h2:mem:db;DB_CLOSE_DELAY=-1");
+			ds.setUser("sa");
+			return ds;
+		}
+		@Bean
+		public PlatformTransactionManager txManager() {
+			return new DataSourceTransactionManager(dataSource());
+		}
+	}
+
+}
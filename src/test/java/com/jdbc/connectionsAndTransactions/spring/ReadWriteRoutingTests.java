@@ -0,0 +1,207 @@
+package com.jdbc.connectionsAndTransactions.spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jdbc.connectionsAndTransactions.jdbc.routing.ReadWriteRoutingDataSource;
+import com.jdbc.connectionsAndTransactions.jdbc.routing.ReplicaBalancing;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource("classpath:h2-test-db.properties")
+@ContextConfiguration(loader=AnnotationConfigContextLoader.class)
+class ReadWriteRoutingTests {
+
+	private static final List<String> URLS = Arrays.asList("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+			"jdbc:h2:mem:routing_replica1;DB_CLOSE_DELAY=-1", "jdbc:h2:mem:routing_replica2;DB_CLOSE_DELAY=-1");
+	
+	@Autowired
+	private ItemService itemService;
+	
+	@Autowired
+	private PlatformTransactionManager txManager;
+	
+	@Autowired
+	private DataSource ds;
+	
+	private final ItemRepository itemRepository = new ItemRepository();
+	
+	// every database gets an item named after it, so a read shows where it was routed
+	@BeforeEach
+	public void setUp() throws SQLException {
+		String[] names = { "primary", "replica1", "replica2" };
+		for (int i = 0; i < URLS.size(); i++) {
+			try (Connection connection = h2(URLS.get(i)).getConnection()) {
+				itemRepository.createTable(connection);
+				itemRepository.save(connection, new Item(names[i]));
+			}
+		}
+	}
+	
+	@AfterEach
+	public void tearDown() throws SQLException {
+		for (String url : URLS) {
+			try (Connection connection = h2(url).getConnection()) {
+				itemRepository.dropTable(connection);
+			}
+		}
+	}
+	
+	@Test
+	public void readOnlyTransactions_ShouldGoToReplicas_InTurns() {
+		List<String> first = itemService.findNames();
+		List<String> second = itemService.findNames();
+		List<String> third = itemService.findNames();
+		
+		assertThat(first).containsAnyOf("replica1", "replica2").hasSize(1);
+		assertThat(second).isNotEqualTo(first).containsAnyOf("replica1", "replica2");
+		assertThat(third).isEqualTo(first);
+	}
+	
+	@Test
+	public void writeTransactions_ShouldGoToPrimary() {
+		itemService.save("Laptop");
+		
+		assertThat(itemService.findNamesForUpdate()).containsExactly("primary", "Laptop");
+		assertThat(itemService.findNames()).doesNotContain("Laptop");
+	}
+	
+	@Test
+	public void readOnlyTransactionTemplate_ShouldGoToReplica() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(txManager);
+		transactionTemplate.setReadOnly(true);
+		
+		List<String> names = transactionTemplate.execute(status -> new JdbcTemplate(ds).queryForList("select name from items", String.class));
+		
+		assertThat(names).containsAnyOf("replica1", "replica2");
+	}
+	
+	@Test
+	public void leastOutstanding_ShouldAvoidTheBusyReplica() throws Exception {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(h2(URLS.get(0)),
+				Arrays.asList(h2(URLS.get(1)), h2(URLS.get(2))), ReplicaBalancing.LEAST_OUTSTANDING);
+		DataSource lazy = routing.lazy();
+		TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(lazy));
+		readOnly.setReadOnly(true);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		CountDownLatch holding = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			// a long read keeps its replica busy
+			Future<List<String>> busy = executor.submit(() -> readOnly.execute(status -> {
+				List<String> names = new JdbcTemplate(lazy).queryForList("select name from items", String.class);
+				holding.countDown();
+				awaitQuietly(release);
+				return names;
+			}));
+			assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+			String busyReplica = routing.getOutstandingCount(0) == 1 ? "replica1" : "replica2";
+			
+			List<String> reads = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				reads.addAll(readOnly.execute(status -> new JdbcTemplate(lazy).queryForList("select name from items", String.class)));
+			}
+			release.countDown();
+			
+			assertThat(reads).hasSize(3).doesNotContain(busyReplica).containsOnly(reads.get(0));
+			assertThat(busy.get(5, TimeUnit.SECONDS)).containsExactly(busyReplica);
+			assertThat(routing.getReplicaRouteCount(0) + routing.getReplicaRouteCount(1)).isEqualTo(4);
+			assertThat(routing.getOutstandingCount(0) + routing.getOutstandingCount(1)).isZero();
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+	
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static DataSource h2(String url) {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL(url);
+		ds.setUser("sa");
+		return ds;
+	}
+	
+	static class ItemService {
+		@Autowired
+		private DataSource ds;
+		
+		@Transactional(readOnly = true)
+		public List<String> findNames() {
+			return new JdbcTemplate(ds).queryForList("select name from items order by id", String.class);
+		}
+		
+		@Transactional
+		public List<String> findNamesForUpdate() {
+			return new JdbcTemplate(ds).queryForList("select name from items order by id", String.class);
+		}
+		
+		@Transactional
+		public void save(String name) {
+			new JdbcTemplate(ds).update("insert into items (name) values (?)", name);
+		}
+	}
+	
+	@Configuration
+	@EnableTransactionManagement(proxyTargetClass = true)
+	static class ContextConfiguration {
+		@Bean
+		public ItemService itemService() {
+			return new ItemService();
+		}
+		@Bean
+		public ReadWriteRoutingDataSource routingDataSource() {
+			return new ReadWriteRoutingDataSource(h2(URLS.get(0)), Arrays.asList(h2(URLS.get(1)), h2(URLS.get(2))),
+					ReplicaBalancing.ROUND_ROBIN);
+		}
+		@Bean
+		@Primary
+		public DataSource dataSource() {
+			return routingDataSource().lazy();
+		}
+		@Bean
+		public PlatformTransactionManager txManager() {
+			return new DataSourceTransactionManager(dataSource());
+		}
+	}
+
+}
@@ -0,0 +1,195 @@
+package com.jdbc.connectionsAndTransactions.spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.support.AnnotationConfigContextLoader;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.jdbc.connectionsAndTransactions.jdbc.routing.ReadWriteRoutingDataSource;
+import com.jdbc.connectionsAndTransactions.jdbc.routing.ReadYourWritesSession;
+import com.jdbc.connectionsAndTransactions.jdbc.routing.ReplicaBalancing;
+import com.jdbc.connectionsAndTransactions.jdbc.routing.ReplicationPositions;
+import com.jdbc.connectionsAndTransactions.model.Item;
+import com.jdbc.connectionsAndTransactions.repository.ItemRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource("classpath:h2-test-db.properties")
+@ContextConfiguration(loader=AnnotationConfigContextLoader.class)
+class ReadYourWritesRoutingTests {
+
+	private static final List<String> URLS = Arrays.asList("jdbc:h2:mem:ryw_primary;DB_CLOSE_DELAY=-1",
+			"jdbc:h2:mem:ryw_replica1;DB_CLOSE_DELAY=-1", "jdbc:h2:mem:ryw_replica2;DB_CLOSE_DELAY=-1");
+	// replica1 replays the primary 500ms late, replica2 an hour late
+	private static final long[] REPLICATION_DELAY_MILLIS = { 500, 3_600_000 };
+	
+	@Autowired
+	private ItemService itemService;
+	
+	@Autowired
+	private ReadWriteRoutingDataSource routingDataSource;
+	
+	private final ItemRepository itemRepository = new ItemRepository();
+	
+	// every database gets an item named after it, so a read shows where it was routed
+	@BeforeEach
+	public void setUp() throws SQLException {
+		String[] names = { "primary", "replica1", "replica2" };
+		for (int i = 0; i < URLS.size(); i++) {
+			try (Connection connection = h2(URLS.get(i)).getConnection()) {
+				itemRepository.createTable(connection);
+				itemRepository.save(connection, new Item(names[i]));
+			}
+		}
+		ReadYourWritesSession.bind(new ReadYourWritesSession());
+	}
+	
+	@AfterEach
+	public void tearDown() throws SQLException {
+		ReadYourWritesSession.unbind();
+		for (String url : URLS) {
+			try (Connection connection = h2(url).getConnection()) {
+				itemRepository.dropTable(connection);
+			}
+		}
+	}
+	
+	@Test
+	public void readAfterWrite_ShouldGoToPrimary_UntilAReplicaCaughtUp() throws InterruptedException {
+		long laggingRoutes = routingDataSource.getLaggingReplicaRouteCount();
+		
+		itemService.save("Laptop");
+		
+		assertThat(ReadYourWritesSession.current().hasCommitted()).isTrue();
+		assertThat(itemService.findNames()).containsExactly("primary", "Laptop");
+		assertThat(routingDataSource.getLaggingReplicaRouteCount()).isEqualTo(laggingRoutes + 1);
+		
+		Thread.sleep(REPLICATION_DELAY_MILLIS[0] + 50);
+		
+		assertThat(itemService.findNames()).containsExactly("replica1");
+		assertThat(itemService.findNames()).containsExactly("replica1");
+		assertThat(routingDataSource.getLaggingReplicaRouteCount()).isEqualTo(laggingRoutes + 1);
+	}
+	
+	@Test
+	public void readWithoutWrite_ShouldGoToAnyReplica() {
+		List<String> first = itemService.findNames();
+		List<String> second = itemService.findNames();
+		
+		assertThat(first).isNotEqualTo(second);
+		assertThat(first).containsAnyOf("replica1", "replica2");
+		assertThat(second).containsAnyOf("replica1", "replica2");
+	}
+	
+	@Test
+	public void rolledBackWrite_ShouldNotPinReadsToPrimary() {
+		assertThatThrownBy(() -> itemService.saveAndFail("Laptop")).isInstanceOf(IllegalStateException.class);
+		
+		assertThat(ReadYourWritesSession.current().hasCommitted()).isFalse();
+		assertThat(itemService.findNames()).containsAnyOf("replica1", "replica2");
+	}
+	
+	@Test
+	public void routingDecisions_ShouldBeExposedAsMeters() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		routingDataSource.bindTo(registry);
+		double laggingRoutes = registry.get("jdbc.routing.routes").tag("reason", "replica-lag").functionCounter().count();
+		
+		itemService.save("Laptop");
+		itemService.findNames();
+		
+		assertThat(registry.get("jdbc.routing.routes").tag("reason", "replica-lag").functionCounter().count()).isEqualTo(laggingRoutes + 1);
+		assertThat(registry.get("jdbc.routing.routes").tag("target", "primary").tag("reason", "write").functionCounter().count()).isPositive();
+		assertThat(registry.get("jdbc.routing.outstanding").tag("target", "replica-0").gauge().value()).isZero();
+	}
+	
+	private static DataSource h2(String url) {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL(url);
+		ds.setUser("sa");
+		return ds;
+	}
+	
+	// Positions are commit timestamps, every replica has replayed the primary up to its delay ago
+	static class SimulatedReplication implements ReplicationPositions {
+		@Override
+		public long getPrimaryPosition() {
+			return System.currentTimeMillis();
+		}
+		
+		@Override
+		public long getReplicaPosition(int replica) {
+			return System.currentTimeMillis() - REPLICATION_DELAY_MILLIS[replica];
+		}
+	}
+	
+	static class ItemService {
+		@Autowired
+		private DataSource ds;
+		
+		@Transactional(readOnly = true)
+		public List<String> findNames() {
+			return new JdbcTemplate(ds).queryForList("select name from items order by id", String.class);
+		}
+		
+		@Transactional
+		public void save(String name) {
+			new JdbcTemplate(ds).update("insert into items (name) values (?)", name);
+		}
+		
+		@Transactional
+		public void saveAndFail(String name) {
+			save(name);
+			throw new IllegalStateException("Saving " + name + " failed");
+		}
+	}
+	
+	@Configuration
+	@EnableTransactionManagement(proxyTargetClass = true)
+	static class ContextConfiguration {
+		@Bean
+		public ItemService itemService() {
+			return new ItemService();
+		}
+		@Bean
+		public ReadWriteRoutingDataSource routingDataSource() {
+			return new ReadWriteRoutingDataSource(h2(URLS.get(0)), Arrays.asList(h2(URLS.get(1)), h2(URLS.get(2))),
+					ReplicaBalancing.ROUND_ROBIN, new SimulatedReplication());
+		}
+		@Bean
+		@Primary
+		public DataSource dataSource() {
+			return routingDataSource().lazy();
+		}
+		@Bean
+		public PlatformTransactionManager txManager() {
+			return new DataSourceTransactionManager(dataSource());
+		}
+	}
+
+}